@@ -7,12 +7,22 @@ public enum Configuration {
     SOURCE_DATABASE_URL("de.elomagic.dbtk.source.database.url", "jdbc:sybase:Tds:localhost:2638"),
     SOURCE_USERNAME("de.elomagic.dbtk.source.username", "dba"),
     SOURCE_PASSWORD("de.elomagic.dbtk.source.password", "secret"),
+    SOURCE_POOL_SIZE("de.elomagic.dbtk.source.pool.size", "20"),
+    SOURCE_UNLOAD_EXECUTOR("de.elomagic.dbtk.source.unload.executor", "fork-join"),
+    SOURCE_CHUNK_ROWS("de.elomagic.dbtk.source.chunk.rows", "0"),
+    SOURCE_LOB_INLINE_SIZE("de.elomagic.dbtk.source.lob.inline.size", "16384"),
     SOURCE_FILE("de.elomagic.dbtk.source.file", null),
     SOURCE_EXPORT_PATH("de.elomagic.dbtk.source.export.path", null),
     SOURCE_ENCODING("de.elomagic.dbtk.source.encoding", "UTF-8"),
+    SOURCE_SNAPSHOT_FILE("de.elomagic.dbtk.source.snapshot.file", null),
+    SOURCE_PARSE_THREADS("de.elomagic.dbtk.source.parse.threads", "1"),
     SOURCE_UNLOADER_CLASS("de.elomagic.dbtk.source.unloaderClass", "de.elomagic.unloader.SqlAnyHybridUnloader"),
 
     TARGET_LOADER_CLASS("de.elomagic.dbtk.target.loaderClass", "de.elomagic.loader.PostgresLoader"),
+    TARGET_DATABASE_URL("de.elomagic.dbtk.target.database.url", "jdbc:postgresql://localhost:5432/MigratedDatabase"),
+    TARGET_USERNAME("de.elomagic.dbtk.target.username", "postgres"),
+    TARGET_PASSWORD("de.elomagic.dbtk.target.password", ""),
+    TARGET_POOL_SIZE("de.elomagic.dbtk.target.pool.size", "20"),
     TARGET_DATABASE_NAME("de.elomagic.dbtk.target.databaseName", "MigratedDatabase"),
     TARGET_ENCODING("de.elomagic.dbtk.target.encoding", "UTF8"),
     TARGET_CTYPE("de.elomagic.dbtk.target.ctype", "en_US.utf8"),
@@ -20,8 +30,19 @@ public enum Configuration {
     TARGET_ADMIN_ROLE("de.elomagic.dbtk.target.adminRole", "admin"),
     TARGET_USER_ROLE("de.elomagic.dbtk.target.userRole", "user"),
     TARGET_BACKUP_ROLE("de.elomagic.dbtk.target.backupRole", "backup"),
+    TARGET_LOAD_PROFILE("de.elomagic.dbtk.target.load.profile", "safe"),
+    TARGET_LOAD_MAINTENANCE_WORK_MEM("de.elomagic.dbtk.target.load.maintenanceWorkMem", "1GB"),
+    TARGET_LOAD_MAINTENANCE_WORKERS("de.elomagic.dbtk.target.load.maintenanceWorkers", "4"),
     TARGET_OUTPUT_PATH("de.elomagic.dbtk.target.output.path", ".\\target"),
     TARGET_OUTPUT_TABLER_FILTER("de.elomagic.dbtk.target.output.table.filter", null),
+    TARGET_OUTPUT_COMPRESSION("de.elomagic.dbtk.target.output.compression", "none"),
+    TARGET_OUTPUT_FORMAT("de.elomagic.dbtk.target.output.format", "text"),
+    TARGET_OUTPUT_PIPES("de.elomagic.dbtk.target.output.pipes", "false"),
+    TARGET_OUTPUT_PIPES_TIMEOUT("de.elomagic.dbtk.target.output.pipes.timeout", "600"),
+    TARGET_OUTPUT_SHARD_SIZE("de.elomagic.dbtk.target.output.shard.size", "0"),
+    TARGET_OUTPUT_SHARD_ROWS("de.elomagic.dbtk.target.output.shard.rows", "0"),
+    TARGET_OUTPUT_SINKS("de.elomagic.dbtk.target.output.sinks", ""),
+    TARGET_OUTPUT_SPLIT("de.elomagic.dbtk.target.output.split", "false"),
     TARGET_OUTPUT_VALUE_NULL("de.elomagic.dbtk.target.output.value.null", "\\N");
 
     private final String key;
@@ -37,4 +58,16 @@ public enum Configuration {
         return System.getProperty(c.key, c.defaultValue);
     }
 
+    public static int getInt(@NotNull Configuration c) {
+        return Integer.parseInt(getString(c));
+    }
+
+    public static boolean getBoolean(@NotNull Configuration c) {
+        return Boolean.parseBoolean(getString(c));
+    }
+
+    public static long getLong(@NotNull Configuration c) {
+        return Long.parseLong(getString(c));
+    }
+
 }
@@ -0,0 +1,216 @@
+package de.elomagic;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Bounded pool of JDBC connections to the source database.
+ * <p>
+ * Connections are created on demand up to the size of the pool and validated before they are borrowed.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    private static final Logger LOGGER = LogManager.getLogger(ConnectionPool.class);
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final ConnectionFactory factory;
+    private final int size;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<Connection> idle = new ConcurrentLinkedDeque<>();
+    private volatile boolean closed;
+
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        @NotNull
+        Connection create() throws SQLException;
+    }
+
+    /**
+     * Borrowed connection which will be returned to the pool on close.
+     */
+    public final class PooledConnection implements AutoCloseable {
+
+        private Connection connection;
+        private boolean broken;
+
+        private PooledConnection(@NotNull Connection connection) {
+            this.connection = connection;
+        }
+
+        @NotNull
+        public Connection getConnection() {
+            if (connection == null) {
+                throw new AppRuntimeException("Connection already returned to the pool.");
+            }
+            return connection;
+        }
+
+        /**
+         * Marks the connection as broken, so it will be closed instead of returned to the pool.
+         */
+        public void invalidate() {
+            broken = true;
+        }
+
+        @Override
+        public void close() {
+            if (connection != null) {
+                release(connection, broken);
+                connection = null;
+            }
+        }
+
+    }
+
+    /**
+     * @param factory Factory of new connections
+     * @param size Max count of connections
+     */
+    public ConnectionPool(@NotNull ConnectionFactory factory, int size) {
+        if (size < 1) {
+            throw new AppRuntimeException("Size of connection pool must be greater than 0 but is " + size + ".");
+        }
+
+        this.factory = factory;
+        this.size = size;
+        this.permits = new Semaphore(size, true);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return Count of connections which can be borrowed without waiting
+     */
+    public int getAvailableConnections() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Opens the given count of connections in parallel, so workers don't wait on the connect later.
+     *
+     * @param count Count of connections to open. Will be limited to the size of the pool
+     */
+    public void warmUp(int count) throws AppRuntimeException {
+        int missing = Math.min(count, size) - idle.size();
+        if (missing <= 0) {
+            return;
+        }
+
+        LOGGER.info("Opening {} connections", missing);
+
+        List<CompletableFuture<Connection>> futures = new ArrayList<>();
+        for (int i = 0; i < missing; i++) {
+            futures.add(CompletableFuture.supplyAsync(this::createConnection));
+        }
+
+        RuntimeException error = null;
+        for (CompletableFuture<Connection> future : futures) {
+            try {
+                idle.addLast(future.join());
+            } catch (CompletionException ex) {
+                error = error == null ? new AppRuntimeException(ex.getCause().getMessage(), ex.getCause()) : error;
+            }
+        }
+
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Borrows a connection. Blocks until a connection is available.
+     *
+     * @return Borrowed connection which must be closed to return it to the pool
+     */
+    @NotNull
+    public PooledConnection borrow() throws AppRuntimeException {
+        if (closed) {
+            throw new AppRuntimeException("Connection pool is closed.");
+        }
+
+        try {
+            permits.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new AppRuntimeException(ex.getMessage(), ex);
+        }
+
+        try {
+            Connection connection;
+            while ((connection = idle.pollFirst()) != null) {
+                if (isValid(connection)) {
+                    return new PooledConnection(connection);
+                }
+
+                LOGGER.warn("Discarding invalid pooled connection");
+                closeQuietly(connection);
+            }
+
+            return new PooledConnection(createConnection());
+        } catch (RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+
+        Connection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            closeQuietly(connection);
+        }
+    }
+
+    private void release(@NotNull Connection connection, boolean broken) {
+        try {
+            if (broken || closed) {
+                closeQuietly(connection);
+            } else {
+                idle.addFirst(connection);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    @NotNull
+    private Connection createConnection() throws AppRuntimeException {
+        try {
+            return factory.create();
+        } catch (SQLException ex) {
+            throw new AppRuntimeException(ex.getMessage(), ex);
+        }
+    }
+
+    private boolean isValid(@NotNull Connection connection) {
+        try {
+            return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    private void closeQuietly(@NotNull Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ex) {
+            LOGGER.warn("Unable to close connection: {}", ex.getMessage());
+        }
+    }
+
+}
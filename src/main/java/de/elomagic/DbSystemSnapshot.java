@@ -0,0 +1,498 @@
+package de.elomagic;
+
+import de.elomagic.dto.DbColumn;
+import de.elomagic.dto.DbDataType;
+import de.elomagic.dto.DbForeignKey;
+import de.elomagic.dto.DbIndex;
+import de.elomagic.dto.DbIndexComment;
+import de.elomagic.dto.DbSequence;
+import de.elomagic.dto.DbSystem;
+import de.elomagic.dto.DbTable;
+import de.elomagic.dto.DbTableConstraint;
+import de.elomagic.dto.DbTableContent;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Binary snapshot of a {@link DbSystem}.
+ * <p>
+ * The snapshot starts with a magic number, the format version and the key of the source. A snapshot will only be read
+ * when version and key are matching, so a changed source or format leads to a new import.
+ */
+public final class DbSystemSnapshot {
+
+    private static final Logger LOGGER = LogManager.getLogger(DbSystemSnapshot.class);
+
+    private static final int MAGIC = 0x44424B53; // "DBKS"
+    /**
+     * Must be increased on every change of the format or of the DTO's.
+     */
+    private static final int VERSION = 7;
+
+    private static final int HASH_BUFFER_SIZE = 1024 * 1024;
+
+    private DbSystemSnapshot() {
+    }
+
+    /**
+     * @return Path of the snapshot file or null when snapshots are disabled
+     */
+    @Nullable
+    public static Path getConfiguredFile() {
+        String file = Configuration.getString(Configuration.SOURCE_SNAPSHOT_FILE);
+        return file == null || file.isBlank() ? null : Paths.get(file);
+    }
+
+    /**
+     * Returns the SHA-256 hash of the given file as hex string.
+     *
+     * @param file File to hash
+     * @return Hex string of the hash
+     */
+    @NotNull
+    public static String hash(@NotNull Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new AppRuntimeException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Reads a snapshot.
+     *
+     * @param file Snapshot file
+     * @param key Key of the source
+     * @return The snapshot or empty when file doesn't exist or was created by another format version or source
+     */
+    @NotNull
+    public static Optional<DbSystem> read(@NotNull Path file, @NotNull String key) {
+        if (Files.notExists(file)) {
+            LOGGER.info("No snapshot file '{}' found", file);
+            return Optional.empty();
+        }
+
+        long start = System.currentTimeMillis();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // Header is checked before mapping, so an outdated snapshot is not locked by a mapping
+            ByteBuffer expected = createHeader(key);
+            ByteBuffer header = ByteBuffer.allocate(expected.capacity());
+            while (header.hasRemaining() && channel.read(header) != -1) {
+                // Read until header is complete
+            }
+            if (!header.flip().equals(expected)) {
+                LOGGER.info("Snapshot file '{}' is outdated or was created from another source", file);
+                return Optional.empty();
+            }
+
+            long offset = expected.capacity();
+            Reader reader = new Reader(channel.map(FileChannel.MapMode.READ_ONLY, offset, channel.size() - offset));
+
+            DbSystem system = reader.readSystem();
+
+            LOGGER.info("Snapshot file '{}' read in {}ms", file, System.currentTimeMillis() - start);
+
+            return Optional.of(system);
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.warn("Unable to read snapshot file '{}': {}", file, ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes a snapshot. The file will be replaced atomically.
+     *
+     * @param file Snapshot file
+     * @param key Key of the source
+     * @param system System to write
+     */
+    public static void write(@NotNull Path file, @NotNull String key, @NotNull DbSystem system) throws AppRuntimeException {
+        LOGGER.info("Writing snapshot file '{}'", file);
+
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                ByteBuffer header = createHeader(key);
+                out.write(header.array(), 0, header.limit());
+
+                new Writer(out).writeSystem(system);
+            } catch (IOException | RuntimeException ex) {
+                Files.deleteIfExists(temp);
+                throw ex;
+            }
+
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new AppRuntimeException(ex.getMessage(), ex);
+        }
+    }
+
+    @NotNull
+    private static ByteBuffer createHeader(@NotNull String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer
+                .allocate(12 + bytes.length)
+                .putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(bytes.length)
+                .put(bytes)
+                .flip();
+    }
+
+    private static final class Writer {
+
+        private final DataOutputStream out;
+
+        private Writer(@NotNull DataOutputStream out) {
+            this.out = out;
+        }
+
+        private void writeSystem(@NotNull DbSystem system) throws IOException {
+            writeMap(system.tables, this::writeTable);
+            writeMap(system.sequences, this::writeSequence);
+            writeCollection(system.foreignKeys, this::writeForeignKey);
+            writeMap(system.indexes, this::writeIndex);
+            writeMap(system.indexComments, this::writeIndexComment);
+        }
+
+        private void writeTable(@NotNull DbTable table) throws IOException {
+            out.writeInt(table.id);
+            writeString(table.name);
+            writeString(table.owner);
+            writeString(table.comment);
+            out.writeLong(table.rowCount);
+            out.writeLong(table.pageCount);
+            writeMap(table.columns, this::writeColumn);
+            writeCollection(table.constraints, c -> {
+                writeString(c.name);
+                writeCollection(c.columns, this::writeString);
+            });
+            writeCollection(table.primaryKey, this::writeString);
+
+            out.writeBoolean(table.content != null);
+            if (table.content != null) {
+                writeString(table.content.file == null ? null : table.content.file.toString());
+                writeCollection(table.content.columns, this::writeString);
+                writeString(table.content.encoding == null ? null : table.content.encoding.name());
+                writeString(table.content.format.name());
+                writeCollection(table.content.shards, shard -> writeString(shard.toString()));
+                out.writeBoolean(table.content.namedPipe);
+                out.writeBoolean(table.content.loaded);
+            }
+        }
+
+        private void writeColumn(@NotNull DbColumn column) throws IOException {
+            out.writeInt(column.index);
+            writeString(column.name);
+            out.writeBoolean(column.primaryKey);
+            writeString(column.datatype == null ? null : column.datatype.name());
+            writeString(column.defaultValue);
+            out.writeBoolean(column.autoinc);
+            out.writeBoolean(column.nullable);
+            writeString(column.comment);
+            writeLong(column.width == null ? null : column.width.longValue());
+            writeLong(column.scale == null ? null : column.scale.longValue());
+            writeLong(column.nextValue);
+        }
+
+        private void writeSequence(@NotNull DbSequence sequence) throws IOException {
+            writeString(sequence.owner);
+            writeString(sequence.name);
+            writeLong(sequence.minimum);
+            writeLong(sequence.maximum);
+            writeLong(sequence.increment == null ? null : sequence.increment.longValue());
+            writeLong(sequence.startWith);
+            out.writeBoolean(sequence.cycle);
+            writeLong(sequence.cacheSize == null ? null : sequence.cacheSize.longValue());
+        }
+
+        private void writeForeignKey(@NotNull DbForeignKey fk) throws IOException {
+            writeString(fk.owner);
+            writeString(fk.tableName);
+            writeString(fk.name);
+            writeCollection(fk.fkColumns, this::writeColumnOrder);
+            writeString(fk.referenceOwner);
+            writeString(fk.referenceTable);
+            writeCollection(fk.referenceColumns, this::writeString);
+            writeString(fk.actionOnUpdate == null ? null : fk.actionOnUpdate.name());
+            writeString(fk.actionOnDelete == null ? null : fk.actionOnDelete.name());
+        }
+
+        private void writeIndex(@NotNull DbIndex index) throws IOException {
+            writeString(index.owner);
+            writeString(index.tableName);
+            writeString(index.indexName);
+            out.writeBoolean(index.unique);
+            writeCollection(index.columns, this::writeColumnOrder);
+        }
+
+        private void writeIndexComment(@NotNull DbIndexComment comment) throws IOException {
+            writeString(comment.owner);
+            writeString(comment.tableName);
+            writeString(comment.indexName);
+            writeString(comment.comment);
+        }
+
+        private void writeColumnOrder(@NotNull Pair<String, Boolean> column) throws IOException {
+            writeString(column.getKey());
+            out.writeBoolean(Boolean.TRUE.equals(column.getValue()));
+        }
+
+        private <T> void writeMap(@NotNull Map<String, T> map, @NotNull ItemWriter<T> itemWriter) throws IOException {
+            out.writeInt(map.size());
+            for (Map.Entry<String, T> entry : map.entrySet()) {
+                writeString(entry.getKey());
+                itemWriter.write(entry.getValue());
+            }
+        }
+
+        private <T> void writeCollection(@NotNull Collection<T> items, @NotNull ItemWriter<T> itemWriter) throws IOException {
+            out.writeInt(items.size());
+            for (T item : items) {
+                itemWriter.write(item);
+            }
+        }
+
+        private void writeLong(@Nullable Long value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeLong(value);
+            }
+        }
+
+        private void writeString(@Nullable String value) throws IOException {
+            if (value == null) {
+                out.writeInt(-1);
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+
+    }
+
+    @FunctionalInterface
+    private interface ItemWriter<T> {
+        void write(@NotNull T item) throws IOException;
+    }
+
+    private static final class Reader {
+
+        private final ByteBuffer buffer;
+
+        private Reader(@NotNull ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @NotNull
+        private DbSystem readSystem() {
+            DbSystem system = new DbSystem();
+            readMap(system.tables, this::readTable);
+            readMap(system.sequences, this::readSequence);
+            readCollection(system.foreignKeys, this::readForeignKey);
+            readMap(system.indexes, this::readIndex);
+            readMap(system.indexComments, this::readIndexComment);
+
+            if (buffer.hasRemaining()) {
+                throw new AppRuntimeException("Unexpected data at end of snapshot.");
+            }
+
+            return system;
+        }
+
+        @NotNull
+        private DbTable readTable() {
+            DbTable table = new DbTable();
+            table.id = buffer.getInt();
+            table.name = readString();
+            table.owner = readString();
+            table.comment = readString();
+            table.rowCount = buffer.getLong();
+            table.pageCount = buffer.getLong();
+            readMap(table.columns, this::readColumn);
+            readCollection(table.constraints, () -> {
+                DbTableConstraint constraint = new DbTableConstraint();
+                constraint.name = readString();
+                readCollection(constraint.columns, this::readString);
+                return constraint;
+            });
+            readCollection(table.primaryKey, this::readString);
+
+            if (readBoolean()) {
+                table.content = new DbTableContent();
+                String file = readString();
+                table.content.file = file == null ? null : Paths.get(file);
+                readCollection(table.content.columns, this::readString);
+                String encoding = readString();
+                table.content.encoding = encoding == null ? null : Charset.forName(encoding);
+                table.content.format = DbTableContent.Format.valueOf(readString());
+                readCollection(table.content.shards, () -> Paths.get(readString()));
+                table.content.namedPipe = readBoolean();
+                table.content.loaded = readBoolean();
+            }
+
+            return table;
+        }
+
+        @NotNull
+        private DbColumn readColumn() {
+            DbColumn column = new DbColumn();
+            column.index = buffer.getInt();
+            column.name = readString();
+            column.primaryKey = readBoolean();
+            String datatype = readString();
+            column.datatype = datatype == null ? null : DbDataType.valueOf(datatype);
+            column.defaultValue = readString();
+            column.autoinc = readBoolean();
+            column.nullable = readBoolean();
+            column.comment = readString();
+            column.width = readInteger();
+            column.scale = readInteger();
+            column.nextValue = readLong();
+            return column;
+        }
+
+        @NotNull
+        private DbSequence readSequence() {
+            DbSequence sequence = new DbSequence();
+            sequence.owner = readString();
+            sequence.name = readString();
+            sequence.minimum = readLong();
+            sequence.maximum = readLong();
+            sequence.increment = readInteger();
+            sequence.startWith = readLong();
+            sequence.cycle = readBoolean();
+            sequence.cacheSize = readInteger();
+            return sequence;
+        }
+
+        @NotNull
+        private DbForeignKey readForeignKey() {
+            DbForeignKey fk = new DbForeignKey();
+            fk.owner = readString();
+            fk.tableName = readString();
+            fk.name = readString();
+            fk.fkColumns = readCollection(new ArrayList<>(), this::readColumnOrder);
+            fk.referenceOwner = readString();
+            fk.referenceTable = readString();
+            fk.referenceColumns = readCollection(new ArrayList<>(), this::readString);
+            String onUpdate = readString();
+            fk.actionOnUpdate = onUpdate == null ? null : DbForeignKey.RefAction.valueOf(onUpdate);
+            String onDelete = readString();
+            fk.actionOnDelete = onDelete == null ? null : DbForeignKey.RefAction.valueOf(onDelete);
+            return fk;
+        }
+
+        @NotNull
+        private DbIndex readIndex() {
+            DbIndex index = new DbIndex();
+            index.owner = readString();
+            index.tableName = readString();
+            index.indexName = readString();
+            index.unique = readBoolean();
+            readCollection(index.columns, this::readColumnOrder);
+            return index;
+        }
+
+        @NotNull
+        private DbIndexComment readIndexComment() {
+            DbIndexComment comment = new DbIndexComment();
+            comment.owner = readString();
+            comment.tableName = readString();
+            comment.indexName = readString();
+            comment.comment = readString();
+            return comment;
+        }
+
+        @NotNull
+        private Pair<String, Boolean> readColumnOrder() {
+            return Pair.of(readString(), readBoolean());
+        }
+
+        private <T> void readMap(@NotNull Map<String, T> map, @NotNull Supplier<T> itemReader) {
+            int size = buffer.getInt();
+            for (int i = 0; i < size; i++) {
+                String key = readString();
+                map.put(key, itemReader.get());
+            }
+        }
+
+        @NotNull
+        private <T, C extends Collection<T>> C readCollection(@NotNull C items, @NotNull Supplier<T> itemReader) {
+            int size = buffer.getInt();
+            for (int i = 0; i < size; i++) {
+                items.add(itemReader.get());
+            }
+            return items;
+        }
+
+        private boolean readBoolean() {
+            return buffer.get() != 0;
+        }
+
+        @Nullable
+        private Long readLong() {
+            return readBoolean() ? buffer.getLong() : null;
+        }
+
+        @Nullable
+        private Integer readInteger() {
+            Long value = readLong();
+            return value == null ? null : Math.toIntExact(value);
+        }
+
+        @Nullable
+        private String readString() {
+            int length = buffer.getInt();
+            if (length == -1) {
+                return null;
+            } else if (length < 0 || length > buffer.remaining()) {
+                throw new BufferUnderflowException();
+            }
+
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+    }
+
+}
@@ -30,6 +30,45 @@ public final class DbUtils {
                 Configuration.getString(Configuration.SOURCE_PASSWORD));
     }
 
+    /**
+     * Creates a pool of connections to the source database. The size is configured by
+     * {@link Configuration#SOURCE_POOL_SIZE}.
+     *
+     * @return Connection pool which must be closed
+     */
+    @NotNull
+    public static ConnectionPool createConnectionPool() {
+        return new ConnectionPool(DbUtils::createConnection, Configuration.getInt(Configuration.SOURCE_POOL_SIZE));
+    }
+
+    /**
+     * Creates a connection to the target database. Used by loaders which are writing directly into the target database.
+     *
+     * @return Connection which must be closed
+     */
+    @NotNull
+    public static Connection createTargetConnection() throws SQLException {
+        String url = Configuration.getString(Configuration.TARGET_DATABASE_URL);
+
+        LOGGER.info("Connecting to target database '{}'", url);
+
+        return DriverManager.getConnection(
+                url,
+                Configuration.getString(Configuration.TARGET_USERNAME),
+                Configuration.getString(Configuration.TARGET_PASSWORD));
+    }
+
+    /**
+     * Creates a pool of connections to the target database. The size is configured by
+     * {@link Configuration#TARGET_POOL_SIZE}.
+     *
+     * @return Connection pool which must be closed
+     */
+    @NotNull
+    public static ConnectionPool createTargetConnectionPool() {
+        return new ConnectionPool(DbUtils::createTargetConnection, Configuration.getInt(Configuration.TARGET_POOL_SIZE));
+    }
+
     @NotNull
     public static PreparedStatement createPrepareStatement(@NotNull Connection con, @NotNull String sql, @NotNull List values) throws SQLException {
         PreparedStatement statement = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
@@ -0,0 +1,20 @@
+package de.elomagic.codec;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Encodes a value, which was fetched by a {@link ValueCodec}, into a binary content file.
+ */
+@FunctionalInterface
+public interface BinaryEncoder {
+
+    /**
+     * Encodes a value which is not NULL including the length of the value.
+     *
+     * @param vector Source vector
+     * @param row Row in the vector
+     * @param out Target of the encoded value
+     */
+    void encode(@NotNull ColumnVector vector, int row, @NotNull BinaryOutput out);
+
+}
@@ -0,0 +1,96 @@
+package de.elomagic.codec;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Big endian output of binary content files into reusable direct buffers.
+ * <p>
+ * A full buffer is handed over to the writer, which returns an empty buffer to continue with. Values which are larger
+ * than a buffer are handed over in parts.
+ */
+public final class BinaryOutput {
+
+    private final UnaryOperator<ByteBuffer> handOver;
+    private ByteBuffer buffer;
+
+    /**
+     * @param buffer Initial buffer
+     * @param handOver Takes a full buffer, not flipped, and returns an empty buffer
+     */
+    public BinaryOutput(@NotNull ByteBuffer buffer, @NotNull UnaryOperator<ByteBuffer> handOver) {
+        this.buffer = buffer;
+        this.handOver = handOver;
+    }
+
+    /**
+     * @return Current buffer, not flipped
+     */
+    @NotNull
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Hands over the current buffer even when it is not full.
+     */
+    public void handOver() {
+        buffer = handOver.apply(buffer);
+    }
+
+    /**
+     * Ensures that the given count of bytes can be put into the current buffer.
+     */
+    private void ensure(int length) {
+        if (buffer.remaining() >= length) {
+            return;
+        }
+
+        if (buffer.position() > 0) {
+            buffer = handOver.apply(buffer);
+        }
+
+        if (buffer.capacity() < length) {
+            buffer = ByteBuffer.allocateDirect(length);
+        }
+    }
+
+    public void putShort(short value) {
+        ensure(Short.BYTES);
+        buffer.putShort(value);
+    }
+
+    public void putInt(int value) {
+        ensure(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    public void putLong(long value) {
+        ensure(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    public void put(byte value) {
+        ensure(1);
+        buffer.put(value);
+    }
+
+    /**
+     * Puts the bytes. Bytes which don't fit into the current buffer are put into the next buffers.
+     */
+    public void put(@NotNull byte[] bytes, int offset, int length) {
+        while (length > 0) {
+            if (!buffer.hasRemaining()) {
+                buffer = handOver.apply(buffer);
+            }
+
+            int part = Math.min(length, buffer.remaining());
+            buffer.put(bytes, offset, part);
+            offset += part;
+            length -= part;
+        }
+    }
+
+}
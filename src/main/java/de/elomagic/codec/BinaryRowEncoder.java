@@ -0,0 +1,27 @@
+package de.elomagic.codec;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Encodes the rows of a table into a binary content file.
+ */
+public interface BinaryRowEncoder {
+
+    /**
+     * @return Codecs which are fetching the values of the columns in order of the columns
+     */
+    @NotNull
+    ValueCodec[] getCodecs();
+
+    void writeHeader(@NotNull BinaryOutput out);
+
+    /**
+     * @param columns Column vectors of the batch in order of the columns
+     * @param row Row in the vectors
+     * @param out Target of the encoded row
+     */
+    void encode(@NotNull ColumnVector[] columns, int row, @NotNull BinaryOutput out);
+
+    void writeTrailer(@NotNull BinaryOutput out);
+
+}
@@ -0,0 +1,22 @@
+package de.elomagic.codec;
+
+/**
+ * Values of a column for a batch of rows.
+ * <p>
+ * Integer and temporal values are kept unboxed in {@link #longs} and {@link #ints}, all other values in {@link #objects}.
+ */
+public final class ColumnVector {
+
+    public final long[] longs;
+    public final int[] ints;
+    public final Object[] objects;
+    public final boolean[] nulls;
+
+    public ColumnVector(int size) {
+        longs = new long[size];
+        ints = new int[size];
+        objects = new Object[size];
+        nulls = new boolean[size];
+    }
+
+}
@@ -0,0 +1,221 @@
+package de.elomagic.codec;
+
+import de.elomagic.AppRuntimeException;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Factories of {@link ValueCodec}s of large object columns.
+ * <p>
+ * Values are read as stream in chunks. Values up to the inline size are kept in memory, larger values are spilled into
+ * a file of the {@link SpillDirectory} and encoded chunk by chunk, so the memory of a value is bounded by the inline
+ * size and the chunk size instead of the size of the value.
+ */
+public final class LobCodecs {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private LobCodecs() {
+    }
+
+    /**
+     * Codec of binary large objects which are read by {@link ResultSet#getBinaryStream(int)} and encoded in hex.
+     *
+     * @param prefix Prefix of the hex encoded bytes
+     * @param inlineSize Max bytes of a value which is kept in memory
+     */
+    @NotNull
+    public static ValueCodec ofBinaryStream(@NotNull String prefix, int inlineSize) {
+        return new SpillingCodec() {
+            private final byte[] chunk = new byte[CHUNK_SIZE];
+
+            @Override
+            Object read(@NotNull ResultSet rs, int index) throws SQLException, IOException {
+                try (InputStream in = rs.getBinaryStream(index)) {
+                    if (in == null) {
+                        return null;
+                    }
+
+                    byte[] inline = in.readNBytes(inlineSize);
+                    int next = in.read();
+                    if (next == -1) {
+                        return inline;
+                    }
+
+                    Path file = createSpillFile();
+                    try (OutputStream out = Files.newOutputStream(file)) {
+                        out.write(inline);
+                        out.write(next);
+                        in.transferTo(out);
+                    }
+                    return file;
+                }
+            }
+
+            @Override
+            void encodeInline(@NotNull Object value, @NotNull StringBuilder out) {
+                out.append(prefix);
+                ValueCodecs.appendHex((byte[])value, ((byte[])value).length, out);
+            }
+
+            @Override
+            void encodeSpilled(@NotNull Path file, @NotNull StringBuilder out, @NotNull Runnable flush) throws IOException {
+                out.append(prefix);
+                try (InputStream in = Files.newInputStream(file)) {
+                    int length;
+                    while ((length = in.readNBytes(chunk, 0, chunk.length)) > 0) {
+                        ValueCodecs.appendHex(chunk, length, out);
+                        flush.run();
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Codec of character large objects which are read by {@link ResultSet#getCharacterStream(int)}.
+     *
+     * @param escaper Escaper of the content file format
+     * @param enclosure Characters before and after the value. Empty when values are not enclosed
+     * @param inlineSize Max characters of a value which is kept in memory
+     */
+    @NotNull
+    public static ValueCodec ofCharacterStream(@NotNull TextEscaper escaper, @NotNull String enclosure, int inlineSize) {
+        return new SpillingCodec() {
+            private final char[] chunk = new char[CHUNK_SIZE];
+
+            @Override
+            Object read(@NotNull ResultSet rs, int index) throws SQLException, IOException {
+                try (Reader in = rs.getCharacterStream(index)) {
+                    if (in == null) {
+                        return null;
+                    }
+
+                    char[] inline = new char[Math.min(inlineSize, CHUNK_SIZE)];
+                    int length = 0;
+                    int read;
+                    while ((read = in.read(inline, length, inline.length - length)) != -1) {
+                        length += read;
+                        if (length == inline.length) {
+                            if (length >= inlineSize) {
+                                break;
+                            }
+                            inline = Arrays.copyOf(inline, Math.min(inlineSize, length * 2));
+                        }
+                    }
+
+                    int next = read == -1 ? -1 : in.read();
+                    if (next == -1) {
+                        return new String(inline, 0, length);
+                    }
+
+                    Path file = createSpillFile();
+                    // UTF-16 keeps every char of the value
+                    try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_16BE)) {
+                        out.write(inline, 0, length);
+                        out.write(next);
+                        in.transferTo(out);
+                    }
+                    return file;
+                }
+            }
+
+            @Override
+            void encodeInline(@NotNull Object value, @NotNull StringBuilder out) {
+                out.append(enclosure);
+                escaper.escape((String)value, out);
+                out.append(enclosure);
+            }
+
+            @Override
+            void encodeSpilled(@NotNull Path file, @NotNull StringBuilder out, @NotNull Runnable flush) throws IOException {
+                out.append(enclosure);
+                try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_16BE)) {
+                    int length;
+                    while ((length = in.read(chunk)) != -1) {
+                        escaper.escape(chunk, 0, length, out);
+                        flush.run();
+                    }
+                }
+                out.append(enclosure);
+            }
+        };
+    }
+
+    private abstract static class SpillingCodec implements ValueCodec {
+
+        private SpillDirectory spillDirectory;
+
+        abstract Object read(@NotNull ResultSet rs, int index) throws SQLException, IOException;
+
+        abstract void encodeInline(@NotNull Object value, @NotNull StringBuilder out);
+
+        abstract void encodeSpilled(@NotNull Path file, @NotNull StringBuilder out, @NotNull Runnable flush) throws IOException;
+
+        @NotNull
+        Path createSpillFile() throws IOException {
+            if (spillDirectory == null) {
+                throw new IOException("No spill directory of large values set.");
+            }
+
+            return spillDirectory.createFile();
+        }
+
+        @Override
+        public final void setSpillDirectory(@NotNull SpillDirectory directory) {
+            spillDirectory = directory;
+        }
+
+        @Override
+        public final void fetch(@NotNull ResultSet rs, int index, @NotNull ColumnVector vector, int row) throws SQLException {
+            try {
+                Object value = read(rs, index);
+                vector.objects[row] = value;
+                vector.nulls[row] = value == null;
+            } catch (IOException ex) {
+                throw new SQLException("Unable to read large object of column " + index + ": " + ex.getMessage(), ex);
+            }
+        }
+
+        @Override
+        public final void encode(@NotNull ColumnVector vector, int row, @NotNull StringBuilder out) {
+            encode(vector, row, out, () -> {});
+        }
+
+        @Override
+        public final void encode(@NotNull ColumnVector vector, int row, @NotNull StringBuilder out, @NotNull Runnable flush) {
+            Object value = vector.objects[row];
+            if (!(value instanceof Path file)) {
+                encodeInline(value, out);
+                return;
+            }
+
+            try {
+                encodeSpilled(file, out, flush);
+            } catch (IOException ex) {
+                throw new AppRuntimeException("Unable to encode large object: " + ex.getMessage(), ex);
+            } finally {
+                vector.objects[row] = null;
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException ex) {
+                    // Deleted together with the spill directory at last
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,57 @@
+package de.elomagic.codec;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Temporary directory of the large values which are spilled by the codecs of a table unload.
+ * <p>
+ * Spilled files are deleted as soon as they are encoded. Values which were fetched but never encoded, for example
+ * because the unload failed, are deleted together with the directory when it is closed.
+ */
+public final class SpillDirectory implements AutoCloseable {
+
+    private Path directory;
+
+    /**
+     * Creates a new empty file. The directory is created with the first file.
+     *
+     * @return Created file
+     */
+    @NotNull
+    public synchronized Path createFile() throws IOException {
+        if (directory == null) {
+            directory = Files.createTempDirectory("dbtk-lob");
+        }
+
+        return Files.createTempFile(directory, "lob", ".tmp");
+    }
+
+    /**
+     * Deletes the directory including all remaining files.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (directory == null) {
+            return;
+        }
+
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.toList();
+        }
+
+        for (Path file : files) {
+            Files.deleteIfExists(file);
+        }
+
+        Files.delete(directory);
+        directory = null;
+    }
+
+}
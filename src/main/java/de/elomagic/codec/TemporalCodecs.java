@@ -0,0 +1,235 @@
+package de.elomagic.codec;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Factories of {@link ValueCodec}s of temporal columns.
+ * <p>
+ * Values are kept as count of days or microseconds since 1970-01-01 of the local date and time and written as ISO 8601
+ * text like <code>2024-02-29 23:59:01.000120</code> without any formatter. Years before 1 are written with the suffix
+ * <code>BC</code> as expected by PostgreSQL.
+ */
+public final class TemporalCodecs {
+
+    private static final long MICROS_PER_SECOND = 1_000_000;
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private static final char[] TENS = new char[100];
+    private static final char[] ONES = new char[100];
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            TENS[i] = (char)('0' + i / 10);
+            ONES[i] = (char)('0' + i % 10);
+        }
+    }
+
+    private TemporalCodecs() {
+    }
+
+    /**
+     * Codec of date columns which are read as {@link LocalDate}. Drivers which don't support it are read by
+     * {@link ResultSet#getDate(int)}.
+     */
+    @NotNull
+    public static ValueCodec ofDate() {
+        return new ValueCodec() {
+            private boolean legacy;
+
+            @Override
+            public void fetch(@NotNull ResultSet rs, int index, @NotNull ColumnVector vector, int row) throws SQLException {
+                LocalDate value;
+                if (legacy) {
+                    value = getLegacyDate(rs, index);
+                } else {
+                    try {
+                        value = rs.getObject(index, LocalDate.class);
+                    } catch (SQLException | AbstractMethodError ex) {
+                        // Fails again, when the value can't be read at all
+                        value = getLegacyDate(rs, index);
+                        legacy = true;
+                    }
+                }
+                vector.nulls[row] = value == null;
+                vector.longs[row] = value == null ? 0 : value.toEpochDay();
+            }
+
+            @Override
+            public void encode(@NotNull ColumnVector vector, int row, @NotNull StringBuilder out) {
+                appendEra(out, appendDate(vector.longs[row], out));
+            }
+        };
+    }
+
+    /**
+     * Codec of timestamp columns without time zone which are read as {@link LocalDateTime}. Drivers which don't
+     * support it are read by {@link ResultSet#getTimestamp(int)}.
+     * <p>
+     * A {@link Timestamp} is an instant in the time zone of the JVM, so local times which don't exist in this time
+     * zone, like in the gap of a daylight saving time change, would be shifted.
+     */
+    @NotNull
+    public static ValueCodec ofTimestamp() {
+        return new ValueCodec() {
+            private boolean legacy;
+
+            @Override
+            public void fetch(@NotNull ResultSet rs, int index, @NotNull ColumnVector vector, int row) throws SQLException {
+                LocalDateTime value;
+                if (legacy) {
+                    value = getLegacyTimestamp(rs, index);
+                } else {
+                    try {
+                        value = rs.getObject(index, LocalDateTime.class);
+                    } catch (SQLException | AbstractMethodError ex) {
+                        // Fails again, when the value can't be read at all
+                        value = getLegacyTimestamp(rs, index);
+                        legacy = true;
+                    }
+                }
+                vector.nulls[row] = value == null;
+                vector.longs[row] = value == null ? 0 : toEpochMicros(value);
+            }
+
+            @Override
+            public void encode(@NotNull ColumnVector vector, int row, @NotNull StringBuilder out) {
+                appendEra(out, appendTimestamp(vector.longs[row], out));
+            }
+        };
+    }
+
+    /**
+     * Codec of timestamp columns with time zone offset which are read as {@link OffsetDateTime}.
+     */
+    @NotNull
+    public static ValueCodec ofTimestampWithOffset() {
+        return new ValueCodec() {
+            @Override
+            public void fetch(@NotNull ResultSet rs, int index, @NotNull ColumnVector vector, int row) throws SQLException {
+                OffsetDateTime value = rs.getObject(index, OffsetDateTime.class);
+                vector.nulls[row] = value == null;
+                vector.longs[row] = value == null ? 0 : toEpochMicros(value.toLocalDateTime());
+                vector.ints[row] = value == null ? 0 : value.getOffset().getTotalSeconds();
+            }
+
+            @Override
+            public void encode(@NotNull ColumnVector vector, int row, @NotNull StringBuilder out) {
+                boolean bc = appendTimestamp(vector.longs[row], out);
+                appendOffset(vector.ints[row], out);
+                appendEra(out, bc);
+            }
+        };
+    }
+
+    @Nullable
+    private static LocalDate getLegacyDate(@NotNull ResultSet rs, int index) throws SQLException {
+        Date value = rs.getDate(index);
+        return value == null ? null : value.toLocalDate();
+    }
+
+    @Nullable
+    private static LocalDateTime getLegacyTimestamp(@NotNull ResultSet rs, int index) throws SQLException {
+        Timestamp value = rs.getTimestamp(index);
+        return value == null ? null : value.toLocalDateTime();
+    }
+
+    private static long toEpochMicros(@NotNull LocalDateTime value) {
+        return value.toEpochSecond(ZoneOffset.UTC) * MICROS_PER_SECOND + value.getNano() / 1000;
+    }
+
+    /**
+     * @return true when the year is before christ
+     */
+    private static boolean appendTimestamp(long epochMicros, @NotNull StringBuilder out) {
+        long seconds = Math.floorDiv(epochMicros, MICROS_PER_SECOND);
+        int micros = (int)Math.floorMod(epochMicros, MICROS_PER_SECOND);
+        int secondOfDay = (int)Math.floorMod(seconds, SECONDS_PER_DAY);
+
+        boolean bc = appendDate(Math.floorDiv(seconds, SECONDS_PER_DAY), out);
+        out.append(' ');
+        append2(secondOfDay / 3600, out);
+        out.append(':');
+        append2(secondOfDay / 60 % 60, out);
+        out.append(':');
+        append2(secondOfDay % 60, out);
+
+        if (micros != 0) {
+            out.append('.');
+            append2(micros / 10_000, out);
+            append2(micros / 100 % 100, out);
+            append2(micros % 100, out);
+        }
+
+        return bc;
+    }
+
+    /**
+     * Appends the date of the proleptic gregorian calendar.
+     *
+     * @return true when the year is before christ
+     */
+    private static boolean appendDate(long epochDay, @NotNull StringBuilder out) {
+        // Days to civil date, see https://howardhinnant.github.io/date_algorithms.html#civil_from_days
+        long z = epochDay + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (int)((5 * dayOfYear + 2) / 153);
+        int day = (int)(dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        // Year 0 of ISO 8601 is the year 1 before christ
+        boolean bc = year <= 0;
+        if (bc) {
+            year = 1 - year;
+        }
+
+        if (year < 10_000) {
+            append2((int)year / 100, out);
+            append2((int)year % 100, out);
+        } else {
+            out.append(year);
+        }
+        out.append('-');
+        append2(month, out);
+        out.append('-');
+        append2(day, out);
+
+        return bc;
+    }
+
+    private static void appendOffset(int offsetSeconds, @NotNull StringBuilder out) {
+        int abs = Math.abs(offsetSeconds);
+        out.append(offsetSeconds < 0 ? '-' : '+');
+        append2(abs / 3600, out);
+        out.append(':');
+        append2(abs / 60 % 60, out);
+        if (abs % 60 != 0) {
+            out.append(':');
+            append2(abs % 60, out);
+        }
+    }
+
+    private static void appendEra(@NotNull StringBuilder out, boolean bc) {
+        if (bc) {
+            out.append(" BC");
+        }
+    }
+
+    private static void append2(int value, @NotNull StringBuilder out) {
+        out.append(TENS[value]).append(ONES[value]);
+    }
+
+}
@@ -0,0 +1,125 @@
+package de.elomagic.codec;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Escapes text values of a content file in a single pass.
+ * <p>
+ * Characters which must be escaped are preceded by a backslash or replaced by a backslash sequence, NUL characters are
+ * dropped. Values without such characters are appended without any intermediate copy.
+ */
+public final class TextEscaper {
+
+    private static final int DROP = -1;
+
+    /**
+     * Escaping of the COPY TEXT format of PostgreSQL with ',' as delimiter.
+     */
+    public static final TextEscaper POSTGRES = new TextEscaper(new char[][] {
+            {'\\', '\\'},
+            {'"', '"'},
+            {'\b', 'b'},
+            {'\f', 'f'},
+            {'\n', 'n'},
+            {'\r', 'r'},
+            {'\t', 't'},
+            {',', ','}
+    });
+
+    /**
+     * Escaping of the LOAD TABLE format of SQL Anywhere.
+     */
+    public static final TextEscaper SQL_ANYWHERE = new TextEscaper(new char[][] {
+            {'\\', '\\'},
+            {'"', '"'},
+            {'\n', 'n'},
+            {'\r', 'r'},
+            {',', ','}
+    });
+
+    /**
+     * Character following the backslash, indexed by the escaped character. 0 when the character is not escaped.
+     */
+    private final int[] escapes = new int[128];
+
+    private TextEscaper(@NotNull char[][] mappings) {
+        escapes[0] = DROP;
+        for (char[] mapping : mappings) {
+            escapes[mapping[0]] = mapping[1];
+        }
+    }
+
+    /**
+     * Appends the escaped value.
+     *
+     * @param value Value to escape
+     * @param out Target of the escaped value
+     */
+    public void escape(@NotNull String value, @NotNull StringBuilder out) {
+        int length = value.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            int escape = c < 128 ? escapes[c] : 0;
+            if (escape != 0) {
+                out.append(value, start, i);
+                if (escape != DROP) {
+                    out.append('\\').append((char)escape);
+                }
+                start = i + 1;
+            }
+        }
+
+        if (start == 0) {
+            out.append(value);
+        } else {
+            out.append(value, start, length);
+        }
+    }
+
+    /**
+     * Appends the escaped part of a value.
+     *
+     * @param chars Characters of the value
+     * @param offset Offset of the part
+     * @param length Length of the part
+     * @param out Target of the escaped part
+     */
+    public void escape(@NotNull char[] chars, int offset, int length, @NotNull StringBuilder out) {
+        int end = offset + length;
+        int start = offset;
+        for (int i = offset; i < end; i++) {
+            char c = chars[i];
+            int escape = c < 128 ? escapes[c] : 0;
+            if (escape != 0) {
+                out.append(chars, start, i - start);
+                if (escape != DROP) {
+                    out.append('\\').append((char)escape);
+                }
+                start = i + 1;
+            }
+        }
+
+        out.append(chars, start, end - start);
+    }
+
+    /**
+     * @param value Value to escape
+     * @return The escaped value or the same instance when nothing has to be escaped
+     */
+    @NotNull
+    public String escape(@NotNull String value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 128 && escapes[c] != 0) {
+                StringBuilder out = new StringBuilder(length + 16);
+                escape(value, out);
+                return out.toString();
+            }
+        }
+
+        return value;
+    }
+
+}
@@ -0,0 +1,56 @@
+package de.elomagic.codec;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Reads the value of a column with the native getter of his type and encodes it into the text of a content file.
+ * <p>
+ * A codec is created once per column and table, so the type of the column is resolved only once.
+ */
+public interface ValueCodec {
+
+    /**
+     * Reads the value of the current row into the vector. SQL NULL must be flagged in {@link ColumnVector#nulls}.
+     *
+     * @param rs Result set positioned on a row
+     * @param index Index of the column starting with 1
+     * @param vector Target vector
+     * @param row Row in the vector
+     */
+    void fetch(@NotNull ResultSet rs, int index, @NotNull ColumnVector vector, int row) throws SQLException;
+
+    /**
+     * Encodes a value which is not NULL.
+     *
+     * @param vector Source vector
+     * @param row Row in the vector
+     * @param out Target of the encoded value
+     */
+    void encode(@NotNull ColumnVector vector, int row, @NotNull StringBuilder out);
+
+    /**
+     * Encodes a value which is not NULL. Codecs of large values call the flush between parts of the value, so the
+     * encoded text can be handed over to the writer before the whole value is encoded.
+     *
+     * @param vector Source vector
+     * @param row Row in the vector
+     * @param out Target of the encoded value
+     * @param flush Hands over the text of the target when it exceeds the chunk size
+     */
+    default void encode(@NotNull ColumnVector vector, int row, @NotNull StringBuilder out, @NotNull Runnable flush) {
+        encode(vector, row, out);
+    }
+
+    /**
+     * Sets the directory of the values which are too large to be kept in memory. Must be set before the first fetch
+     * by codecs which spill values.
+     *
+     * @param directory Spill directory of the table unload
+     */
+    default void setSpillDirectory(@NotNull SpillDirectory directory) {
+    }
+
+}
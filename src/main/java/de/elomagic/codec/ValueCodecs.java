@@ -0,0 +1,172 @@
+package de.elomagic.codec;
+
+import de.elomagic.AppRuntimeException;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.UnaryOperator;
+
+/**
+ * Factories of the common {@link ValueCodec}s.
+ */
+public final class ValueCodecs {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private ValueCodecs() {
+    }
+
+    /**
+     * Codec of integer columns which are read by {@link ResultSet#getLong(int)}.
+     */
+    @NotNull
+    public static ValueCodec ofLong() {
+        return new ValueCodec() {
+            @Override
+            public void fetch(@NotNull ResultSet rs, int index, @NotNull ColumnVector vector, int row) throws SQLException {
+                vector.longs[row] = rs.getLong(index);
+                vector.nulls[row] = rs.wasNull();
+            }
+
+            @Override
+            public void encode(@NotNull ColumnVector vector, int row, @NotNull StringBuilder out) {
+                out.append(vector.longs[row]);
+            }
+        };
+    }
+
+    /**
+     * Codec of exact numeric columns which are read by {@link ResultSet#getBigDecimal(int)}.
+     */
+    @NotNull
+    public static ValueCodec ofDecimal() {
+        return new ObjectCodec() {
+            @Override
+            Object read(@NotNull ResultSet rs, int index) throws SQLException {
+                return rs.getBigDecimal(index);
+            }
+
+            @Override
+            public void encode(@NotNull ColumnVector vector, int row, @NotNull StringBuilder out) {
+                out.append(((BigDecimal)vector.objects[row]).toPlainString());
+            }
+        };
+    }
+
+    /**
+     * Codec of binary columns which are read as raw bytes.
+     *
+     * @param prefix Prefix of the hex encoded bytes
+     */
+    @NotNull
+    public static ValueCodec ofBytes(@NotNull String prefix) {
+        return new ObjectCodec() {
+            @Override
+            Object read(@NotNull ResultSet rs, int index) throws SQLException {
+                return rs.getBytes(index);
+            }
+
+            @Override
+            public void encode(@NotNull ColumnVector vector, int row, @NotNull StringBuilder out) {
+                byte[] bytes = (byte[])vector.objects[row];
+                out.append(prefix);
+                appendHex(bytes, bytes.length, out);
+            }
+        };
+    }
+
+    /**
+     * Appends the bytes as lower case hex digits.
+     *
+     * @param bytes Source bytes
+     * @param length Count of bytes to append
+     * @param out Target text
+     */
+    static void appendHex(@NotNull byte[] bytes, int length, @NotNull StringBuilder out) {
+        out.ensureCapacity(out.length() + length * 2);
+        for (int i = 0; i < length; i++) {
+            byte b = bytes[i];
+            out.append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+        }
+    }
+
+    /**
+     * Codec of columns which are read by {@link ResultSet#getString(int)}.
+     *
+     * @param escaper Escapes the value for the content file
+     */
+    @NotNull
+    public static ValueCodec ofString(@NotNull UnaryOperator<String> escaper) {
+        return new ObjectCodec() {
+            @Override
+            Object read(@NotNull ResultSet rs, int index) throws SQLException {
+                return rs.getString(index);
+            }
+
+            @Override
+            public void encode(@NotNull ColumnVector vector, int row, @NotNull StringBuilder out) {
+                out.append(escaper.apply((String)vector.objects[row]));
+            }
+        };
+    }
+
+    /**
+     * Codec of text columns which are read by {@link ResultSet#getString(int)} and escaped in a single pass.
+     *
+     * @param escaper Escaper of the content file format
+     * @param enclosure Characters before and after the value. Empty when values are not enclosed
+     */
+    @NotNull
+    public static ValueCodec ofText(@NotNull TextEscaper escaper, @NotNull String enclosure) {
+        return new ObjectCodec() {
+            @Override
+            Object read(@NotNull ResultSet rs, int index) throws SQLException {
+                return rs.getString(index);
+            }
+
+            @Override
+            public void encode(@NotNull ColumnVector vector, int row, @NotNull StringBuilder out) {
+                out.append(enclosure);
+                escaper.escape((String)vector.objects[row], out);
+                out.append(enclosure);
+            }
+        };
+    }
+
+    /**
+     * Codec of columns which are not supported. Fails on the first value which is not NULL.
+     *
+     * @param message Message of the failure
+     */
+    @NotNull
+    public static ValueCodec ofUnsupported(@NotNull String message) {
+        return new ObjectCodec() {
+            @Override
+            Object read(@NotNull ResultSet rs, int index) throws SQLException {
+                return rs.getObject(index);
+            }
+
+            @Override
+            public void encode(@NotNull ColumnVector vector, int row, @NotNull StringBuilder out) {
+                throw new AppRuntimeException(message);
+            }
+        };
+    }
+
+    private abstract static class ObjectCodec implements ValueCodec {
+
+        abstract Object read(@NotNull ResultSet rs, int index) throws SQLException;
+
+        @Override
+        public final void fetch(@NotNull ResultSet rs, int index, @NotNull ColumnVector vector, int row) throws SQLException {
+            Object value = read(rs, index);
+            vector.objects[row] = value;
+            vector.nulls[row] = value == null;
+        }
+
+    }
+
+}
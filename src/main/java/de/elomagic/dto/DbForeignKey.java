@@ -11,7 +11,8 @@ public class DbForeignKey {
         NO_ACTION,
         RESTRICT,
         CASCADE,
-        SET_NULL
+        SET_NULL,
+        SET_DEFAULT
     }
 
     public String owner;
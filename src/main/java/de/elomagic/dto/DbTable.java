@@ -1,7 +1,10 @@
 package de.elomagic.dto;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -12,12 +15,50 @@ public class DbTable {
     public String owner;
     public String comment;
     public DbTableContent content;
+    /**
+     * Estimated count of rows by the source catalog
+     */
+    public long rowCount;
+    /**
+     * Estimated count of table and extension pages by the source catalog
+     */
+    public long pageCount;
 
     public final Map<String, DbColumn> columns = new HashMap<>();
     public final Set<DbTableConstraint> constraints = new HashSet<>();
+    /**
+     * Names of the primary key columns in declared order of the key
+     */
+    public final List<String> primaryKey = new ArrayList<>();
 
     public int getId() {
         return id;
     }
 
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * @return Names of the primary key columns in declared order of the key. When the order is unknown, the columns
+     *         flagged as primary key in order of the table columns
+     */
+    public List<String> getPrimaryKeyColumns() {
+        if (!primaryKey.isEmpty()) {
+            return primaryKey;
+        }
+
+        return columns
+                .values()
+                .stream()
+                .filter(c -> c.primaryKey)
+                .sorted(Comparator.comparing(DbColumn::getIndex))
+                .map(c -> c.name)
+                .toList();
+    }
+
 }
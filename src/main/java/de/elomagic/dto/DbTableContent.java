@@ -7,7 +7,25 @@ import java.util.List;
 
 public class DbTableContent {
 
+    public enum Format {
+        TEXT,
+        BINARY
+    }
+
     public Path file;
+    /**
+     * Files of the shards in order or empty when the content is written into {@link #file}.
+     */
+    public final List<Path> shards = new ArrayList<>();
+    /**
+     * The file is a named pipe, which is consumed while the content is unloaded.
+     */
+    public boolean namedPipe;
+    /**
+     * The content was loaded into the target database while unloading. The file is only a copy of the content.
+     */
+    public boolean loaded;
+    public Format format = Format.TEXT;
     public final List<String> columns = new ArrayList<>();
     public Charset encoding;
 
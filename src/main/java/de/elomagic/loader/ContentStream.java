@@ -0,0 +1,20 @@
+package de.elomagic.loader;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Stream of the encoded content of a table into the target database.
+ * <p>
+ * The written content becomes visible by {@link #commit()}. Closing a stream without commit discards the content.
+ */
+public interface ContentStream extends WritableByteChannel {
+
+    /**
+     * Commits the written content.
+     *
+     * @return Count of loaded rows
+     */
+    long commit() throws IOException;
+
+}
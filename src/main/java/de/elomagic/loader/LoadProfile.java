@@ -0,0 +1,43 @@
+package de.elomagic.loader;
+
+import de.elomagic.AppRuntimeException;
+import de.elomagic.Configuration;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+
+/**
+ * Shape of the SQL script of the {@link PostgresLoader}.
+ */
+public enum LoadProfile {
+
+    /**
+     * Logged tables with their keys are created before the content is loaded.
+     */
+    SAFE,
+    /**
+     * Unlogged tables without keys are created and the content is loaded by <code>COPY ... FREEZE</code>. Afterwards
+     * the tables are logged, keys, indexes, foreign keys and comments are created in a few transactions and the tables
+     * are analyzed. The tables are not crash safe until they are logged. The script stops at the first error.
+     */
+    FAST;
+
+    /**
+     * @return Profile of the configuration
+     */
+    @NotNull
+    public static LoadProfile getConfigured() {
+        return parse(Configuration.getString(Configuration.TARGET_LOAD_PROFILE));
+    }
+
+    @NotNull
+    public static LoadProfile parse(@NotNull String profile) {
+        try {
+            return valueOf(profile.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new AppRuntimeException("Unsupported load profile '" + profile + "'.");
+        }
+    }
+
+}
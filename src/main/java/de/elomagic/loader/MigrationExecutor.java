@@ -0,0 +1,219 @@
+package de.elomagic.loader;
+
+import de.elomagic.AppRuntimeException;
+import de.elomagic.ConnectionPool;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the tasks of a migration in sessions of the target database. A task is started as soon as all its dependencies
+ * are done, so independent tasks run in parallel up to the size of the connection pool. When a task fails, all tasks
+ * which depend on it directly or indirectly are skipped, other tasks are still run.
+ */
+public final class MigrationExecutor {
+
+    private static final Logger LOGGER = LogManager.getLogger(MigrationExecutor.class);
+
+    private final ConnectionPool pool;
+
+    /**
+     * @param pool Sessions of the target database. The size of the pool is the count of parallel tasks
+     */
+    public MigrationExecutor(@NotNull ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Runs the tasks and waits until all tasks are done, failed or skipped.
+     *
+     * @param tasks Tasks including all their dependencies. Tasks without dependencies are started in order
+     * @return true when all tasks are done
+     */
+    public boolean run(@NotNull List<MigrationTask> tasks) throws AppRuntimeException {
+        LOGGER.info("Running {} migration tasks in {} sessions", tasks.size(), pool.getSize());
+
+        Run run = new Run(tasks);
+
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(pool.getSize(), r -> {
+            Thread thread = new Thread(r, "migration-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            run.start(executor);
+            run.await();
+        } finally {
+            executor.shutdown();
+        }
+
+        List<MigrationTask> failed = tasks.stream().filter(t -> t.getState() != MigrationTask.State.DONE).toList();
+        if (failed.isEmpty()) {
+            LOGGER.info("All {} migration tasks done", tasks.size());
+        } else {
+            LOGGER.error("{} of {} migration tasks failed or skipped: {}", failed.size(), tasks.size(), failed);
+        }
+
+        return failed.isEmpty();
+    }
+
+    /**
+     * State of a single run. Changes of the graph are synchronized by the run.
+     */
+    private final class Run {
+
+        private final List<MigrationTask> tasks;
+        private final Map<MigrationTask, List<MigrationTask>> dependents = new IdentityHashMap<>();
+        /**
+         * Count of dependencies of a task which are not done yet
+         */
+        private final Map<MigrationTask, Integer> waiting = new IdentityHashMap<>();
+        private final CountDownLatch finished;
+        private ExecutorService executor;
+        private int finishedCount;
+
+        private Run(@NotNull List<MigrationTask> tasks) {
+            this.tasks = tasks;
+            this.finished = new CountDownLatch(tasks.size());
+
+            for (MigrationTask task : tasks) {
+                if (task.getState() != MigrationTask.State.PENDING) {
+                    throw new AppRuntimeException("Migration task '" + task.getName() + "' already run.");
+                }
+                waiting.put(task, task.getDependencies().size());
+                dependents.put(task, new ArrayList<>());
+            }
+
+            for (MigrationTask task : tasks) {
+                for (MigrationTask dependency : task.getDependencies()) {
+                    List<MigrationTask> list = dependents.get(dependency);
+                    if (list == null) {
+                        throw new AppRuntimeException("Dependency '" + dependency.getName() + "' of migration task '" + task.getName() + "' is unknown.");
+                    }
+                    list.add(task);
+                }
+            }
+
+            validateAcyclic();
+        }
+
+        /**
+         * Fails when not all tasks can be sorted topologically, so the run never waits on a cycle.
+         */
+        private void validateAcyclic() {
+            Map<MigrationTask, Integer> remaining = new HashMap<>(waiting);
+            Deque<MigrationTask> ready = new ArrayDeque<>(tasks.stream().filter(t -> remaining.get(t) == 0).toList());
+
+            int sorted = 0;
+            while (!ready.isEmpty()) {
+                MigrationTask task = ready.remove();
+                sorted++;
+                for (MigrationTask dependent : dependents.get(task)) {
+                    if (remaining.merge(dependent, -1, Integer::sum) == 0) {
+                        ready.add(dependent);
+                    }
+                }
+            }
+
+            if (sorted != tasks.size()) {
+                throw new AppRuntimeException("Dependencies of the migration tasks are cyclic.");
+            }
+        }
+
+        private synchronized void start(@NotNull ExecutorService executor) {
+            this.executor = executor;
+            tasks.stream().filter(t -> waiting.get(t) == 0).forEach(this::submit);
+        }
+
+        private void await() {
+            try {
+                while (!finished.await(1, TimeUnit.MINUTES)) {
+                    LOGGER.info("Migration progress: {} of {} tasks finished", tasks.size() - finished.getCount(), tasks.size());
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new AppRuntimeException(ex.getMessage(), ex);
+            }
+        }
+
+        private void submit(@NotNull MigrationTask task) {
+            task.setState(MigrationTask.State.RUNNING);
+            executor.execute(() -> execute(task));
+        }
+
+        private void execute(@NotNull MigrationTask task) {
+            LOGGER.debug("Starting migration task '{}'", task.getName());
+            long start = System.nanoTime();
+            try (ConnectionPool.PooledConnection pooled = pool.borrow()) {
+                try {
+                    task.getAction().run(pooled.getConnection());
+                } catch (Throwable ex) {
+                    // State of the session is unknown
+                    pooled.invalidate();
+                    throw ex;
+                }
+                task.setState(MigrationTask.State.DONE);
+            } catch (Throwable ex) {
+                // Also errors like a missing driver class, otherwise the run would wait on the task forever
+                task.setFailure(ex);
+                task.setState(MigrationTask.State.FAILED);
+            } finally {
+                task.setMillis((System.nanoTime() - start) / 1_000_000);
+                finish(task);
+            }
+        }
+
+        private synchronized void finish(@NotNull MigrationTask task) {
+            finishedCount++;
+            if (task.getState() == MigrationTask.State.DONE) {
+                LOGGER.info("[{}/{}] Migration task '{}' done in {} ms", finishedCount, tasks.size(), task.getName(), task.getMillis());
+            } else {
+                LOGGER.error("[{}/{}] Migration task '{}' failed: {}", finishedCount, tasks.size(), task.getName(), task.getFailure().getMessage(), task.getFailure());
+            }
+
+            for (MigrationTask dependent : dependents.get(task)) {
+                int count = waiting.merge(dependent, -1, Integer::sum);
+                if (task.getState() != MigrationTask.State.DONE) {
+                    skip(dependent, task);
+                } else if (count == 0 && dependent.getState() == MigrationTask.State.PENDING) {
+                    submit(dependent);
+                }
+            }
+
+            finished.countDown();
+        }
+
+        private void skip(@NotNull MigrationTask task, @NotNull MigrationTask cause) {
+            if (task.getState() != MigrationTask.State.PENDING) {
+                return;
+            }
+
+            task.setState(MigrationTask.State.SKIPPED);
+            finishedCount++;
+            LOGGER.warn("[{}/{}] Migration task '{}' skipped because of '{}'", finishedCount, tasks.size(), task.getName(), cause.getName());
+
+            for (MigrationTask dependent : dependents.get(task)) {
+                skip(dependent, cause);
+            }
+
+            finished.countDown();
+        }
+
+    }
+
+}
@@ -0,0 +1,114 @@
+package de.elomagic.loader;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Node of the dependency graph of a migration, like the creation of a table, the COPY of a content file, an index or
+ * the constraint of a foreign key. A task is run by the {@link MigrationExecutor} after all its dependencies are done.
+ */
+public final class MigrationTask {
+
+    public enum State {
+        PENDING,
+        RUNNING,
+        DONE,
+        FAILED,
+        /**
+         * Not run because a dependency failed
+         */
+        SKIPPED
+    }
+
+    @FunctionalInterface
+    public interface Action {
+
+        /**
+         * @param con Session of the target database. Auto commit is enabled
+         */
+        void run(@NotNull Connection con) throws SQLException, IOException;
+
+    }
+
+    private final String name;
+    private final Action action;
+    private final List<MigrationTask> dependencies = new ArrayList<>();
+    private volatile State state = State.PENDING;
+    private volatile Throwable failure;
+    private volatile long millis;
+
+    public MigrationTask(@NotNull String name, @NotNull Action action) {
+        this.name = name;
+        this.action = action;
+    }
+
+    /**
+     * @param tasks Tasks which must be done before this task
+     * @return This task
+     */
+    @NotNull
+    public MigrationTask dependsOn(@NotNull Collection<MigrationTask> tasks) {
+        dependencies.addAll(tasks);
+        return this;
+    }
+
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    @NotNull
+    Action getAction() {
+        return action;
+    }
+
+    @NotNull
+    public List<MigrationTask> getDependencies() {
+        return dependencies;
+    }
+
+    @NotNull
+    public State getState() {
+        return state;
+    }
+
+    void setState(@NotNull State state) {
+        this.state = state;
+    }
+
+    /**
+     * @return Failure of the task or null
+     */
+    @Nullable
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    void setFailure(@NotNull Throwable failure) {
+        this.failure = failure;
+    }
+
+    /**
+     * @return Duration of the run in milliseconds
+     */
+    public long getMillis() {
+        return millis;
+    }
+
+    void setMillis(long millis) {
+        this.millis = millis;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+}
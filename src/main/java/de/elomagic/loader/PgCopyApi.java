@@ -0,0 +1,116 @@
+package de.elomagic.loader;
+
+import de.elomagic.AppRuntimeException;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Methods of the CopyManager API of the PostgreSQL JDBC driver. The driver is accessed by reflection, so it is only
+ * required on the classpath when a loader of the target database is used.
+ * <p>
+ * Also holds the JDBC plumbing which is shared by the loaders writing directly into the target database.
+ */
+final class PgCopyApi {
+
+    /**
+     * Size of the buffers which hand over content to a COPY operation.
+     */
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final class Methods {
+
+        private static final Methods INSTANCE = new Methods();
+
+        private final Class<?> connectionClass;
+        private final Method getCopyAPI;
+        private final Method copyIn;
+        private final Method writeToCopy;
+        private final Method endCopy;
+        private final Method cancelCopy;
+        private final Method isActive;
+
+        private Methods() {
+            try {
+                connectionClass = Class.forName("org.postgresql.PGConnection");
+                getCopyAPI = connectionClass.getMethod("getCopyAPI");
+                copyIn = Class.forName("org.postgresql.copy.CopyManager").getMethod("copyIn", String.class);
+                Class<?> copyInClass = Class.forName("org.postgresql.copy.CopyIn");
+                writeToCopy = copyInClass.getMethod("writeToCopy", byte[].class, int.class, int.class);
+                endCopy = copyInClass.getMethod("endCopy");
+                cancelCopy = Class.forName("org.postgresql.copy.CopyOperation").getMethod("cancelCopy");
+                isActive = Class.forName("org.postgresql.copy.CopyOperation").getMethod("isActive");
+            } catch (ReflectiveOperationException ex) {
+                throw new AppRuntimeException("PostgreSQL JDBC driver not found on classpath.", ex);
+            }
+        }
+
+    }
+
+    private PgCopyApi() {
+    }
+
+    /**
+     * Starts a <code>COPY ... FROM STDIN</code> operation.
+     *
+     * @param con Connection of the PostgreSQL JDBC driver
+     * @param sql COPY statement
+     * @return The running operation
+     */
+    @NotNull
+    static Object copyIn(@NotNull Connection con, @NotNull String sql) throws SQLException {
+        Object copyManager = invoke(Methods.INSTANCE.getCopyAPI, con.unwrap(Methods.INSTANCE.connectionClass));
+        return invoke(Methods.INSTANCE.copyIn, copyManager, sql);
+    }
+
+    static void writeToCopy(@NotNull Object copyIn, byte[] buffer, int offset, int length) throws SQLException {
+        invoke(Methods.INSTANCE.writeToCopy, copyIn, buffer, offset, length);
+    }
+
+    /**
+     * @return Count of copied rows
+     */
+    static long endCopy(@NotNull Object copyIn) throws SQLException {
+        return (Long)invoke(Methods.INSTANCE.endCopy, copyIn);
+    }
+
+    /**
+     * Cancels the operation when it is still active.
+     */
+    static void cancelCopy(@NotNull Object copyIn) throws SQLException {
+        if ((Boolean)invoke(Methods.INSTANCE.isActive, copyIn)) {
+            invoke(Methods.INSTANCE.cancelCopy, copyIn);
+        }
+    }
+
+    /**
+     * Executes one or more SQL statements in the target database.
+     *
+     * @param con Connection of the target database
+     * @param sql SQL statements
+     */
+    static void execute(@NotNull Connection con, @NotNull String sql) throws SQLException {
+        try (Statement statement = con.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static Object invoke(@NotNull Method method, @NotNull Object target, Object... args) throws SQLException {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            if (ex.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new AppRuntimeException(ex.getCause().getMessage(), ex.getCause());
+        } catch (IllegalAccessException ex) {
+            throw new AppRuntimeException(ex.getMessage(), ex);
+        }
+    }
+
+}
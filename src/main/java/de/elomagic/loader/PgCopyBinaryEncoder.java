@@ -0,0 +1,301 @@
+package de.elomagic.loader;
+
+import de.elomagic.AppRuntimeException;
+import de.elomagic.codec.BinaryEncoder;
+import de.elomagic.codec.BinaryOutput;
+import de.elomagic.codec.BinaryRowEncoder;
+import de.elomagic.codec.ColumnVector;
+import de.elomagic.codec.ValueCodec;
+import de.elomagic.dto.DbColumn;
+import de.elomagic.unloader.TextEncoder;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Encodes rows into the binary format of the PostgreSQL COPY command.
+ * <p>
+ * The file starts with the signature <code>PGCOPY\n\377\r\n\0</code>, flags and header extension length. Every tuple
+ * starts with his count of fields, followed by the fields as length and big endian value. NULL has the length -1. The
+ * file ends with the field count -1.
+ * <p>
+ * Text is written in UTF-8, so the client encoding of the COPY must be UTF8.
+ */
+public final class PgCopyBinaryEncoder implements BinaryRowEncoder {
+
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte)0xFF, '\r', '\n', 0};
+
+    /**
+     * Microseconds between 1970-01-01 and the PostgreSQL epoch 2000-01-01.
+     */
+    private static final long EPOCH_MICROS = 946_684_800_000_000L;
+    private static final int EPOCH_DAYS = 10_957;
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final ValueCodec[] codecs;
+    private final BinaryEncoder[] encoders;
+
+    private PgCopyBinaryEncoder(@NotNull ValueCodec[] codecs, @NotNull BinaryEncoder[] encoders) {
+        this.codecs = codecs;
+        this.encoders = encoders;
+    }
+
+    /**
+     * Creates the encoder of the columns of a table.
+     *
+     * @param columns Columns in order of the content file
+     * @param codecFactory Creates the codec which fetches the values of a column
+     * @return The encoder or null when a column is not supported in binary format
+     */
+    @Nullable
+    public static PgCopyBinaryEncoder create(@NotNull List<DbColumn> columns, @NotNull Function<DbColumn, ValueCodec> codecFactory) {
+        ValueCodec[] codecs = new ValueCodec[columns.size()];
+        BinaryEncoder[] encoders = new BinaryEncoder[columns.size()];
+        for (int i = 0; i < encoders.length; i++) {
+            DbColumn column = columns.get(i);
+            encoders[i] = createEncoder(column);
+            if (encoders[i] == null) {
+                return null;
+            }
+            codecs[i] = codecFactory.apply(column);
+        }
+
+        return new PgCopyBinaryEncoder(codecs, encoders);
+    }
+
+    /**
+     * Creates the binary encoder of a column. Depends on the vector layout of the codecs of
+     * {@link PostgresLoader#createValueCodec(DbColumn)}.
+     */
+    @Nullable
+    private static BinaryEncoder createEncoder(@NotNull DbColumn column) {
+        return switch (column.datatype) {
+            case BIGINT -> (v, row, out) -> {
+                out.putInt(8);
+                out.putLong(v.longs[row]);
+            };
+            case INTEGER -> (v, row, out) -> {
+                out.putInt(4);
+                out.putInt((int)v.longs[row]);
+            };
+            case SMALLINT, TINYINT -> (v, row, out) -> {
+                out.putInt(2);
+                out.putShort((short)v.longs[row]);
+            };
+            case BIT -> (v, row, out) -> {
+                out.putInt(1);
+                out.put(v.longs[row] != 0 ? (byte)1 : 0);
+            };
+            case NUMERIC, DECIMAL, UNSIGNED_INT, UNSIGNED_SMALLINT -> (v, row, out) -> writeNumeric((BigDecimal)v.objects[row], out);
+            case BINARY, LONG_BINARY -> new ByteaEncoder();
+            case CHAR, VARCHAR, LONG_VARCHAR -> new Utf8TextEncoder();
+            case DATE -> (v, row, out) -> {
+                out.putInt(4);
+                out.putInt((int)(v.longs[row] - EPOCH_DAYS));
+            };
+            case TIMESTAMP, DATETIME -> (v, row, out) -> {
+                out.putInt(8);
+                out.putLong(v.longs[row] - EPOCH_MICROS);
+            };
+            case DATETIME_OFFSET -> (v, row, out) -> {
+                out.putInt(8);
+                out.putLong(v.longs[row] - v.ints[row] * 1_000_000L - EPOCH_MICROS);
+            };
+            default -> null;
+        };
+    }
+
+    @NotNull
+    @Override
+    public ValueCodec[] getCodecs() {
+        return codecs;
+    }
+
+    @Override
+    public void writeHeader(@NotNull BinaryOutput out) {
+        out.put(SIGNATURE, 0, SIGNATURE.length);
+        // Flags
+        out.putInt(0);
+        // Length of header extension
+        out.putInt(0);
+    }
+
+    @Override
+    public void encode(@NotNull ColumnVector[] columns, int row, @NotNull BinaryOutput out) {
+        out.putShort((short)columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].nulls[row]) {
+                out.putInt(-1);
+            } else {
+                encoders[i].encode(columns[i], row, out);
+            }
+        }
+    }
+
+    @Override
+    public void writeTrailer(@NotNull BinaryOutput out) {
+        out.putShort((short)-1);
+    }
+
+    /**
+     * Writes a numeric as sign, scale and digits of base 10000, aligned to the decimal point.
+     */
+    static void writeNumeric(@NotNull BigDecimal value, @NotNull BinaryOutput out) {
+        int scale = Math.max(0, value.scale());
+        BigDecimal abs = value.abs().setScale(scale);
+        // Scale of the digits must be a multiple of 4
+        int paddedScale = (scale + 3) / 4 * 4;
+        String unscaled = abs.unscaledValue().toString() + "0".repeat(paddedScale - scale);
+        int groups = (unscaled.length() + 3) / 4;
+        int offset = groups * 4 - unscaled.length();
+
+        short[] digits = new short[groups];
+        for (int i = 0; i < groups; i++) {
+            int from = Math.max(0, i * 4 - offset);
+            int to = (i + 1) * 4 - offset;
+            digits[i] = Short.parseShort(unscaled.substring(from, to));
+        }
+
+        int first = 0;
+        while (first < groups && digits[first] == 0) {
+            first++;
+        }
+        int last = groups;
+        while (last > first && digits[last - 1] == 0) {
+            last--;
+        }
+
+        int count = last - first;
+        int weight = count == 0 ? 0 : groups - 1 - paddedScale / 4 - first;
+
+        out.putInt(8 + count * 2);
+        out.putShort((short)count);
+        out.putShort((short)weight);
+        out.putShort(value.signum() < 0 ? (short)0x4000 : 0);
+        out.putShort((short)scale);
+        for (int i = first; i < last; i++) {
+            out.putShort(digits[i]);
+        }
+    }
+
+    /**
+     * Bytes of binary columns. Large values were spilled into a file by the codec.
+     */
+    private static final class ByteaEncoder implements BinaryEncoder {
+
+        private final byte[] chunk = new byte[CHUNK_SIZE];
+
+        @Override
+        public void encode(@NotNull ColumnVector vector, int row, @NotNull BinaryOutput out) {
+            if (vector.objects[row] instanceof byte[] bytes) {
+                out.putInt(bytes.length);
+                out.put(bytes, 0, bytes.length);
+                return;
+            }
+
+            Path file = (Path)vector.objects[row];
+            try (InputStream in = Files.newInputStream(file)) {
+                out.putInt(Math.toIntExact(Files.size(file)));
+                int length;
+                while ((length = in.readNBytes(chunk, 0, chunk.length)) > 0) {
+                    out.put(chunk, 0, length);
+                }
+            } catch (IOException | ArithmeticException ex) {
+                throw new AppRuntimeException("Unable to encode large object: " + ex.getMessage(), ex);
+            } finally {
+                release(vector, row, file);
+            }
+        }
+
+    }
+
+    /**
+     * UTF-8 text of character columns. NUL characters are dropped, because PostgreSQL doesn't support them in text.
+     * Large values were spilled into a file of UTF-16 by the codec.
+     */
+    private static final class Utf8TextEncoder implements BinaryEncoder {
+
+        private final char[] chunk = new char[CHUNK_SIZE];
+        private final CharBuffer chunkText = CharBuffer.wrap(chunk);
+        private byte[] bytes = new byte[CHUNK_SIZE * 3 + 4];
+        private ByteBuffer target = ByteBuffer.wrap(bytes);
+
+        @Override
+        public void encode(@NotNull ColumnVector vector, int row, @NotNull BinaryOutput out) {
+            if (vector.objects[row] instanceof String value) {
+                if (bytes.length < value.length() * 3) {
+                    bytes = new byte[value.length() * 3];
+                    target = ByteBuffer.wrap(bytes);
+                }
+                int length = TextEncoder.encodeUtf8(value, 0, value.length(), target.clear(), true);
+                out.putInt(length);
+                out.put(bytes, 0, length);
+                return;
+            }
+
+            Path file = (Path)vector.objects[row];
+            try {
+                out.putInt(Math.toIntExact(countUtf8(file)));
+                try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_16BE)) {
+                    int carry = 0;
+                    int read;
+                    while ((read = in.read(chunk, carry, chunk.length - carry)) != -1) {
+                        int length = carry + read;
+                        // A high surrogate at the end is encoded together with the next chunk
+                        carry = Character.isHighSurrogate(chunk[length - 1]) ? 1 : 0;
+                        out.put(bytes, 0, TextEncoder.encodeUtf8(chunkText, 0, length - carry, target.clear(), true));
+                        if (carry == 1) {
+                            chunk[0] = chunk[length - 1];
+                        }
+                    }
+                    if (carry == 1) {
+                        throw new AppRuntimeException("Unable to encode value into UTF-8: Malformed surrogate at the end of value");
+                    }
+                }
+            } catch (IOException | ArithmeticException ex) {
+                throw new AppRuntimeException("Unable to encode large object: " + ex.getMessage(), ex);
+            } finally {
+                release(vector, row, file);
+            }
+        }
+
+        private long countUtf8(@NotNull Path file) throws IOException {
+            long count = 0;
+            try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_16BE)) {
+                int read;
+                while ((read = in.read(chunk)) != -1) {
+                    for (int i = 0; i < read; i++) {
+                        char c = chunk[i];
+                        // Each char of a surrogate pair counts 2 of the 4 bytes
+                        count += c == 0 ? 0 : c < 0x80 ? 1 : c < 0x800 || Character.isSurrogate(c) ? 2 : 3;
+                    }
+                }
+            }
+            return count;
+        }
+
+    }
+
+    private static void release(@NotNull ColumnVector vector, int row, @NotNull Path file) {
+        vector.objects[row] = null;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            // Deleted together with the spill directory at last
+        }
+    }
+
+}
@@ -0,0 +1,207 @@
+package de.elomagic.loader;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Table of contents (<code>toc.dat</code>) of a directory format archive of <code>pg_dump</code>, so the archive can
+ * be restored by <code>pg_restore -j</code> in parallel. The content of an entry of table data is read by pg_restore
+ * from a file in the same directory and sent as data of the COPY statement of the entry.
+ * <p>
+ * The archive is written in version 1.14, which is readable by pg_restore 14 and newer. Integers are written as sign
+ * byte followed by the absolute value in 4 bytes little endian, strings as length followed by the UTF-8 bytes or as
+ * length -1 when null.
+ */
+final class PgDirectoryArchive {
+
+    static final String TOC_FILE = "toc.dat";
+
+    private static final byte[] MAGIC = "PGDMP".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION_MAJOR = 1;
+    private static final int VERSION_MINOR = 14;
+    private static final int VERSION_REVISION = 0;
+    private static final int INT_SIZE = 4;
+    private static final int OFFSET_SIZE = 8;
+    /**
+     * Format code of the directory format (archDirectory). pg_restore rejects a directory with another format code
+     */
+    private static final int FORMAT_DIRECTORY = 5;
+    /**
+     * Version of the server and of pg_dump. Only informational
+     */
+    private static final String DUMP_VERSION = "14.0";
+
+    /**
+     * Sections of the entries. In parallel, pg_restore restores the pre-data section in order before the other
+     * sections.
+     */
+    enum Section {
+        PRE_DATA(2),
+        DATA(3),
+        POST_DATA(4);
+
+        private final int code;
+
+        Section(int code) {
+            this.code = code;
+        }
+    }
+
+    static final class Entry {
+
+        final int dumpId;
+        final String tag;
+        final String desc;
+        final Section section;
+        final String defn;
+        String dropStmt = "";
+        String copyStmt = "";
+        String namespace = "";
+        /**
+         * Entries which must be restored before. The first dependency of table data must be its table
+         */
+        final List<Integer> dependencies = new ArrayList<>();
+        /**
+         * Name of the data file in the directory of the archive or null when the entry has no data
+         */
+        String fileName;
+
+        private Entry(int dumpId, @NotNull String tag, @NotNull String desc, @NotNull Section section, @NotNull String defn) {
+            this.dumpId = dumpId;
+            this.tag = tag;
+            this.desc = desc;
+            this.section = section;
+            this.defn = defn;
+        }
+
+    }
+
+    private final String databaseName;
+    private final List<Entry> entries = new ArrayList<>();
+
+    PgDirectoryArchive(@NotNull String databaseName) {
+        this.databaseName = databaseName;
+    }
+
+    /**
+     * Adds an entry. The entries are restored in order of their section and dependencies.
+     *
+     * @param tag Name of the object
+     * @param desc Type of the object as named by pg_dump, like <code>TABLE</code>, <code>TABLE DATA</code>,
+     *             <code>INDEX</code> or <code>FK CONSTRAINT</code>
+     * @param section Section of the entry
+     * @param defn Statements which create the object
+     * @return The entry with the next dump ID
+     */
+    @NotNull
+    Entry add(@NotNull String tag, @NotNull String desc, @NotNull Section section, @NotNull String defn) {
+        Entry entry = new Entry(entries.size() + 1, tag, desc, section, defn);
+        entries.add(entry);
+        return entry;
+    }
+
+    /**
+     * Writes the table of contents.
+     *
+     * @param directory Directory of the archive
+     * @param created Time of creation
+     */
+    void write(@NotNull Path directory, @NotNull LocalDateTime created) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(directory.resolve(TOC_FILE)))) {
+            writeHeader(out, created);
+
+            writeInt(out, entries.size());
+            for (Entry entry : entries) {
+                writeEntry(out, entry);
+            }
+        }
+    }
+
+    private void writeHeader(@NotNull OutputStream out, @NotNull LocalDateTime created) throws IOException {
+        out.write(MAGIC);
+        out.write(VERSION_MAJOR);
+        out.write(VERSION_MINOR);
+        out.write(VERSION_REVISION);
+        out.write(INT_SIZE);
+        out.write(OFFSET_SIZE);
+        out.write(FORMAT_DIRECTORY);
+        // Compression level of the data files. Compressed files are detected by pg_restore by their suffix .gz
+        writeInt(out, 0);
+
+        // Fields of the C struct tm
+        writeInt(out, created.getSecond());
+        writeInt(out, created.getMinute());
+        writeInt(out, created.getHour());
+        writeInt(out, created.getDayOfMonth());
+        writeInt(out, created.getMonthValue() - 1);
+        writeInt(out, created.getYear() - 1900);
+        // Daylight saving time unknown
+        writeInt(out, -1);
+
+        writeString(out, databaseName);
+        writeString(out, DUMP_VERSION);
+        writeString(out, DUMP_VERSION);
+    }
+
+    private void writeEntry(@NotNull OutputStream out, @NotNull Entry entry) throws IOException {
+        writeInt(out, entry.dumpId);
+        writeInt(out, entry.fileName == null ? 0 : 1);
+        // OIDs of the catalog entry
+        writeString(out, "0");
+        writeString(out, "0");
+        writeString(out, entry.tag);
+        writeString(out, entry.desc);
+        writeInt(out, entry.section.code);
+        writeString(out, entry.defn);
+        writeString(out, entry.dropStmt);
+        writeString(out, entry.copyStmt);
+        writeString(out, entry.namespace);
+        // Default tablespace and table access method
+        writeString(out, null);
+        writeString(out, null);
+        // Without owner, no ownership is restored
+        writeString(out, "");
+        // WITH OIDS
+        writeString(out, "false");
+
+        for (int dependency : entry.dependencies) {
+            writeString(out, Integer.toString(dependency));
+        }
+        writeString(out, null);
+
+        // Extra entry data of the directory format
+        writeString(out, entry.fileName == null ? "" : entry.fileName);
+    }
+
+    static void writeInt(@NotNull OutputStream out, int value) throws IOException {
+        out.write(value < 0 ? 1 : 0);
+
+        int absolute = Math.abs(value);
+        for (int i = 0; i < INT_SIZE; i++) {
+            out.write(absolute & 0xFF);
+            absolute >>>= 8;
+        }
+    }
+
+    static void writeString(@NotNull OutputStream out, @Nullable String value) throws IOException {
+        if (value == null) {
+            writeInt(out, -1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+}
@@ -0,0 +1,159 @@
+package de.elomagic.loader;
+
+import de.elomagic.AppRuntimeException;
+import de.elomagic.Configuration;
+import de.elomagic.dto.DbForeignKey;
+import de.elomagic.dto.DbIndex;
+import de.elomagic.dto.DbSystem;
+import de.elomagic.dto.DbTable;
+import de.elomagic.dto.DbTableContent;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Loader which writes the schema and the unloaded table content as directory format archive of <code>pg_dump</code>
+ * into <code>reload-postgres-archive</code> of the output path, so tables, indexes and constraints of foreign keys
+ * are restored by the parallel scheduler of <code>pg_restore -j</code>.
+ * <p>
+ * Roles and the database are not part of an archive, so the SQL script only creates them. The content files are
+ * linked into the archive, so the table content is not copied.
+ */
+public class PostgresArchiveLoader extends PostgresLoader {
+
+    private static final Logger LOGGER = LogManager.getLogger(PostgresArchiveLoader.class);
+
+    static final String ARCHIVE_DIRECTORY = "reload-postgres-archive";
+
+    private static final String SCHEMA = "public";
+
+    @Override
+    public void export(@NotNull DbSystem system, @NotNull Writer writer) throws AppRuntimeException {
+        writeDatabase(writer);
+
+        Path directory = Paths.get(Configuration.getString(Configuration.TARGET_OUTPUT_PATH), ARCHIVE_DIRECTORY);
+        LOGGER.info("Writing archive '{}'", directory);
+
+        try {
+            writeArchive(system, directory);
+        } catch (IOException ex) {
+            throw new AppRuntimeException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Named pipes are consumed while unloading but an archive is restored afterwards.
+     */
+    @Override
+    public void prepareNamedPipes(@NotNull DbSystem system, @NotNull List<DbTable> tables) throws AppRuntimeException {
+        throw new AppRuntimeException("Named pipes are not supported by " + getClass().getName());
+    }
+
+    void writeArchive(@NotNull DbSystem system, @NotNull Path directory) throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+
+        PgDirectoryArchive archive = new PgDirectoryArchive(Configuration.getString(Configuration.TARGET_DATABASE_NAME));
+        // The DDL is written in UTF-8. Text content is decoded by the encoding of its COPY statement
+        archive.add("ENCODING", "ENCODING", PgDirectoryArchive.Section.PRE_DATA, "SET client_encoding = 'UTF8';\n");
+        archive.add("STDSTRINGS", "STDSTRINGS", PgDirectoryArchive.Section.PRE_DATA, "SET standard_conforming_strings = 'on';\n");
+
+        List<DbTable> tables = system.tables.values().stream().sorted(Comparator.comparing(DbTable::getId)).toList();
+
+        Map<String, Integer> tableIds = new HashMap<>();
+        for (DbTable table : tables) {
+            StringWriter defn = new StringWriter();
+            writeTable(defn, table);
+
+            PgDirectoryArchive.Entry entry = archive.add(table.name, "TABLE", PgDirectoryArchive.Section.PRE_DATA, defn.toString());
+            entry.dropStmt = "DROP TABLE %s;%n".formatted(table.name);
+            entry.namespace = SCHEMA;
+            tableIds.put(table.name, entry.dumpId);
+        }
+
+        Map<String, List<Integer>> dataIds = new HashMap<>();
+        for (DbTable table : tables) {
+            DbTableContent content = table.content;
+            // Content without file or marked as loaded was streamed into the target database
+            if (content == null || content.file == null || content.namedPipe || content.loaded) {
+                continue;
+            }
+
+            List<Integer> ids = new ArrayList<>();
+            for (Path file : content.shards.isEmpty() ? List.of(content.file) : content.shards) {
+                PgDirectoryArchive.Entry entry = archive.add(table.name, "TABLE DATA", PgDirectoryArchive.Section.DATA, "");
+                entry.copyStmt = createCopyStatement(table, "stdin") + "\n";
+                entry.namespace = SCHEMA;
+                // pg_restore truncates the table before the data of its table when the table was created in the
+                // same run, so further shards must be restored after the first shard
+                entry.dependencies.add(ids.isEmpty() ? tableIds.get(table.name) : ids.get(0));
+                entry.fileName = entry.dumpId + ".dat";
+
+                linkFile(file, directory.resolve(entry.fileName + (file.getFileName().toString().endsWith(".gz") ? ".gz" : "")));
+                ids.add(entry.dumpId);
+            }
+            dataIds.put(table.name, ids);
+        }
+
+        for (DbIndex index : system.indexes.values()) {
+            PgDirectoryArchive.Entry entry = archive.add(index.indexName, "INDEX", PgDirectoryArchive.Section.POST_DATA, createIndexStatement(system, index));
+            entry.dropStmt = "DROP INDEX \"%s\";%n".formatted(index.indexName);
+            entry.namespace = SCHEMA;
+            addTableDependencies(entry, index.tableName, tableIds, dataIds);
+        }
+
+        for (DbForeignKey fk : system.foreignKeys) {
+            PgDirectoryArchive.Entry entry = archive.add(fk.name, "FK CONSTRAINT", PgDirectoryArchive.Section.POST_DATA, createForeignKeyStatement(fk) + "\n");
+            entry.dropStmt = "ALTER TABLE %s DROP CONSTRAINT \"%s\";%n".formatted(fk.tableName, fk.name);
+            entry.namespace = SCHEMA;
+            addTableDependencies(entry, fk.tableName, tableIds, dataIds);
+            addTableDependencies(entry, fk.referenceTable, tableIds, dataIds);
+        }
+
+        archive.write(directory, LocalDateTime.now());
+    }
+
+    /**
+     * An object of the post-data section depends on its table and on all data of the table.
+     */
+    private void addTableDependencies(@NotNull PgDirectoryArchive.Entry entry, @NotNull String tableName, @NotNull Map<String, Integer> tableIds, @NotNull Map<String, List<Integer>> dataIds) {
+        Integer tableId = tableIds.get(tableName);
+        if (tableId != null) {
+            entry.dependencies.add(tableId);
+        }
+        entry.dependencies.addAll(dataIds.getOrDefault(tableName, List.of()));
+    }
+
+    /**
+     * Links the content file into the archive. When a link is not possible, like across file systems, the file is
+     * copied.
+     */
+    private void linkFile(@NotNull Path file, @NotNull Path link) throws IOException {
+        try {
+            Files.createLink(link, file.toAbsolutePath());
+        } catch (IOException | UnsupportedOperationException ex) {
+            LOGGER.debug("Unable to link '{}', copying it: {}", file, ex.getMessage());
+            Files.copy(file, link);
+        }
+    }
+
+}
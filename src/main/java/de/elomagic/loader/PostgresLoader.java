@@ -2,6 +2,12 @@ package de.elomagic.loader;
 
 import de.elomagic.AppRuntimeException;
 import de.elomagic.Configuration;
+import de.elomagic.codec.BinaryRowEncoder;
+import de.elomagic.codec.LobCodecs;
+import de.elomagic.codec.TemporalCodecs;
+import de.elomagic.codec.TextEscaper;
+import de.elomagic.codec.ValueCodec;
+import de.elomagic.codec.ValueCodecs;
 import de.elomagic.dto.DbColumn;
 import de.elomagic.dto.DbDataType;
 import de.elomagic.dto.DbForeignKey;
@@ -13,6 +19,7 @@ import de.elomagic.dto.DbTableConstraint;
 import de.elomagic.dto.DbTableContent;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
@@ -21,37 +28,63 @@ import org.jetbrains.annotations.Nullable;
 import java.io.IOException;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.HexFormat;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * TODO's
  * - Columns value defaults (To be checked)
  * - Strange column definition like "Feld2" char(20) NULL INLINE 20 PREFIX 8 (To be checked)
  * - DB Constraints
- * - Set Timestamp format
  *
  */
 public class PostgresLoader implements SchemaLoader {
 
     private static final Logger LOGGER = LogManager.getLogger(PostgresLoader.class);
 
+    static final String SPLIT_DIRECTORY = "reload-postgres";
+
     @Override
     public void export(@NotNull DbSystem system, @NotNull Writer writer) throws AppRuntimeException {
-        writeDatabase(writer);
-        // TODO Create db spaces ???
-        // TODO Create users ???
-        // TODO Create roles ???
-        // TODO Create dbspace permissions ???
-        // TODO Create sequences
-        writeTables(writer, system);
-        writeLoadTables(writer, system);
-        writeForeignKeys(writer, system);
-        writeIndexes(writer, system);
+        LoadProfile profile = LoadProfile.getConfigured();
+
+        if (Configuration.getBoolean(Configuration.TARGET_OUTPUT_SPLIT)) {
+            if (profile == LoadProfile.FAST) {
+                // Tables of the fast profile must be logged and get their keys between the data and the index phase
+                throw new AppRuntimeException("Load profile " + profile + " is not supported by split SQL scripts.");
+            }
+            exportSplit(system, writer);
+            return;
+        }
+
+        if (hasNamedPipes(system)) {
+            // Database and tables are already created by the schema script of the named pipes
+            writeConnect(writer);
+        } else {
+            writeDatabase(writer);
+            // TODO Create db spaces ???
+            // TODO Create users ???
+            // TODO Create roles ???
+            // TODO Create dbspace permissions ???
+            // TODO Create sequences
+            writeTables(writer, system, profile);
+        }
+        writeLoadTables(writer, system, profile);
+        if (profile == LoadProfile.FAST) {
+            writeFastLoadFinish(writer, system);
+        } else {
+            writeForeignKeys(writer, system);
+            writeIndexes(writer, system);
+        }
         // TODO Create functions (skeletons ?)
         // TODO Create views
         // TODO Create procedures (skeletons ?)
@@ -61,6 +94,236 @@ public class PostgresLoader implements SchemaLoader {
         LOGGER.debug("Writing SQL done");
     }
 
+    /**
+     * Writes the phases of the export into separate scripts in <code>reload-postgres</code> of the output path:
+     * <ol>
+     *     <li><b>pre-data.sql</b> Database and tables with their keys</li>
+     *     <li><b>data/&lt;table&gt;.sql</b> Content of a table. The table is truncated before in the same transaction, so the script can be rerun until the foreign keys are created</li>
+     *     <li><b>indexes/&lt;name&gt;.sql</b> An index. An existing one is dropped before</li>
+     *     <li><b>foreign-keys/&lt;name&gt;.sql</b> A constraint of a foreign key. An existing one is dropped before</li>
+     * </ol>
+     * The phases must be run in order, because a foreign key may reference the columns of a unique index. The scripts
+     * of the data and index phase don't depend on each other within their phase, so they can be run in parallel
+     * sessions, like by <code>psql -d database -f</code>. The scripts of the foreign key phase lock both tables, so
+     * parallel sessions may deadlock when foreign keys reference each others table. A data script can't be rerun
+     * after the foreign keys are created, because a referenced table can't be truncated. The given writer includes all
+     * scripts in order.
+     */
+    private void exportSplit(@NotNull DbSystem system, @NotNull Writer writer) throws AppRuntimeException {
+        Path directory = Paths.get(Configuration.getString(Configuration.TARGET_OUTPUT_PATH), SPLIT_DIRECTORY);
+        Path dataDirectory = directory.resolve("data");
+        Path indexDirectory = directory.resolve("indexes");
+        Path foreignKeyDirectory = directory.resolve("foreign-keys");
+
+        LOGGER.info("Writing split SQL scripts into '{}'", directory);
+
+        try {
+            for (Path path : List.of(directory, dataDirectory, indexDirectory, foreignKeyDirectory)) {
+                Files.createDirectories(path);
+                // Scripts of removed objects must not be run by a runner of the whole directory
+                try (Stream<Path> files = Files.list(path)) {
+                    for (Path file : files.filter(f -> f.getFileName().toString().endsWith(".sql")).toList()) {
+                        Files.delete(file);
+                    }
+                }
+            }
+
+            Path preData = directory.resolve("pre-data.sql");
+            try (Writer out = Files.newBufferedWriter(preData)) {
+                if (hasNamedPipes(system)) {
+                    writeConnect(out);
+                } else {
+                    writeDatabase(out);
+                    writeTables(out, system, LoadProfile.SAFE);
+                }
+            }
+            writeInclude(writer, directory, preData);
+
+            Set<String> scriptNames = new HashSet<>();
+            for (DbTable table : system.tables.values()) {
+                if (!isLoadable(table.content)) {
+                    continue;
+                }
+
+                Path file = dataDirectory.resolve(createScriptName(scriptNames, table.name));
+                try (Writer out = Files.newBufferedWriter(file)) {
+                    out.append("BEGIN;\nTRUNCATE TABLE %s;\n".formatted(table.name));
+                    writeLoadTable(out, table, false);
+                    out.append("\nCOMMIT;\n");
+                }
+                writeInclude(writer, directory, file);
+            }
+
+            scriptNames.clear();
+            for (DbIndex index : system.indexes.values()) {
+                Path file = indexDirectory.resolve(createScriptName(scriptNames, index.indexName));
+                try (Writer out = Files.newBufferedWriter(file)) {
+                    out.append("DROP INDEX IF EXISTS \"%s\";\n".formatted(index.indexName));
+                    out.append(createIndexStatement(system, index));
+                }
+                writeInclude(writer, directory, file);
+            }
+
+            scriptNames.clear();
+            for (DbForeignKey fk : system.foreignKeys) {
+                Path file = foreignKeyDirectory.resolve(createScriptName(scriptNames, fk.name));
+                try (Writer out = Files.newBufferedWriter(file)) {
+                    out.append("ALTER TABLE %s DROP CONSTRAINT IF EXISTS \"%s\";\n".formatted(fk.tableName, fk.name));
+                    out.append(createForeignKeyStatement(fk)).append("\n");
+                }
+                writeInclude(writer, directory, file);
+            }
+        } catch (IOException ex) {
+            throw new AppRuntimeException(ex.getMessage(), ex);
+        }
+
+        LOGGER.debug("Writing split SQL done");
+    }
+
+    /**
+     * Returns the file name of the script of an object. Characters which are not portable in file names are replaced.
+     * Names which are already used in the directory get a counter, also when they differ only in case, because file
+     * systems may ignore the case.
+     *
+     * @param scriptNames Lower case names of the scripts of the directory. The returned name is added
+     * @param name Name of the object
+     * @return File name of the script
+     */
+    @NotNull
+    static String createScriptName(@NotNull Set<String> scriptNames, @NotNull String name) {
+        String baseName = name.replaceAll("[^A-Za-z0-9_.-]", "_");
+        String scriptName = baseName;
+        for (int i = 2; !scriptNames.add(scriptName.toLowerCase(Locale.ROOT)); i++) {
+            scriptName = baseName + "-" + i;
+        }
+
+        return scriptName + ".sql";
+    }
+
+    /**
+     * Writes a psql include of a script relative to the including script.
+     */
+    private static void writeInclude(@NotNull Writer writer, @NotNull Path directory, @NotNull Path file) throws IOException {
+        writer.append("\\ir %s/%s%n".formatted(SPLIT_DIRECTORY, directory.relativize(file).toString().replace("\\", "/")));
+    }
+
+    /**
+     * Writes the schema script and the shell script <code>reload-postgres-pipes.sh</code>, which creates the schema
+     * and starts a psql <code>\copy</code> per named pipe. The sessions are loading in parallel while the pipes are
+     * written.
+     */
+    @Override
+    public void prepareNamedPipes(@NotNull DbSystem system, @NotNull List<DbTable> tables) throws AppRuntimeException {
+        Path path = Paths.get(Configuration.getString(Configuration.TARGET_OUTPUT_PATH));
+        Path schemaFile = path.resolve("reload-postgres-schema.sql");
+        Path scriptFile = path.resolve("reload-postgres-pipes.sh");
+
+        LOGGER.info("Writing load script of named pipes '{}'", scriptFile);
+
+        try {
+            Files.createDirectories(path);
+
+            try (Writer writer = Files.newBufferedWriter(schemaFile)) {
+                writeDatabase(writer);
+                writeTables(writer, system, LoadProfile.getConfigured());
+            }
+
+            try (Writer writer = Files.newBufferedWriter(scriptFile)) {
+                writePipesScript(writer, tables, schemaFile);
+            }
+
+            if (!scriptFile.toFile().setExecutable(true)) {
+                LOGGER.warn("Unable to make script '{}' executable", scriptFile);
+            }
+        } catch (IOException ex) {
+            throw new AppRuntimeException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Writes a bash script, because the count of parallel psql sessions is limited by <code>wait -n</code>. A pipe
+     * which gets no reader within the timeout fails the unload.
+     */
+    private void writePipesScript(@NotNull Writer writer, @NotNull List<DbTable> tables, @NotNull Path schemaFile) throws IOException {
+        writer.append("""
+                #!/bin/bash
+                # Loads the table content from the named pipes while the unloader writes into them, so it must be
+                # started together with the unload. Connection options are read by psql from PGHOST, PGPORT, PGUSER, ...
+                # Every pipe holds its own psql session until its table is unloaded. The sessions are started in order
+                # of the unload and limited by de.elomagic.dbtk.target.pool.size, which should not be less than the
+                # count of parallel unloading connections.
+
+                psql -v ON_ERROR_STOP=1 -f %s || exit 1
+
+                max_sessions=%d
+                running=0
+                status=0
+
+                start() {
+                    if [ "$running" -ge "$max_sessions" ]; then
+                        wait -n || status=1
+                        running=$((running - 1))
+                    fi
+                    "$@" &
+                    running=$((running + 1))
+                }
+
+                """.formatted(
+                        quoteShell(schemaFile.toAbsolutePath().toString()),
+                        Configuration.getInt(Configuration.TARGET_POOL_SIZE)));
+
+        for (DbTable table : tables) {
+            DbTableContent content = table.content;
+            if (content == null || !content.namedPipe) {
+                continue;
+            }
+
+            String copy = createCopyStatement(table, createCopySource(content.file.toAbsolutePath().toString()))
+                    .replaceAll("\\s*\n\\s*", " ");
+            // psql meta command must be a single line without semicolon
+            copy = "\\copy" + copy.substring("COPY".length(), copy.length() - 1);
+
+            writer.append("start %spsql -v ON_ERROR_STOP=1 -d %s -c %s%n".formatted(
+                    content.format == DbTableContent.Format.BINARY ? "env PGCLIENTENCODING=UTF8 " : "",
+                    quoteShell(Configuration.getString(Configuration.TARGET_DATABASE_NAME)),
+                    quoteShell(copy)));
+        }
+
+        writer.append("""
+
+                while [ "$running" -gt 0 ]; do
+                    wait -n || status=1
+                    running=$((running - 1))
+                done
+                exit $status
+                """);
+    }
+
+    private static boolean hasNamedPipes(@NotNull DbSystem system) {
+        return system.tables.values().stream().anyMatch(t -> t.content != null && t.content.namedPipe);
+    }
+
+    @NotNull
+    private static String quoteShell(@NotNull String value) {
+        return "'" + value.replace("'", "'\\''") + "'";
+    }
+
+    /**
+     * @return Source of a COPY statement. Compressed files are decompressed by a program
+     */
+    @NotNull
+    private static String createCopySource(@NotNull String file) {
+        return file.endsWith(".gz") ? "PROGRAM 'gzip -dc \"%s\"'".formatted(file) : "'%s'".formatted(file);
+    }
+
+    private void writeConnect(@NotNull Writer writer) throws AppRuntimeException {
+        try {
+            writer.append("\\connect \"%s\"%n".formatted(Configuration.getString(Configuration.TARGET_DATABASE_NAME)));
+        } catch (IOException ex) {
+            throw new AppRuntimeException(ex.getMessage(), ex);
+        }
+    }
+
     private void writeSectionDescription(@NotNull Writer writer, @NotNull String text) throws IOException {
         writer.append("""
             
@@ -74,18 +337,13 @@ public class PostgresLoader implements SchemaLoader {
                 StringUtils.leftPad("", 49, "-")));
     }
 
-    private void writeDatabase(@NotNull Writer writer) throws AppRuntimeException {
+    protected void writeDatabase(@NotNull Writer writer) throws AppRuntimeException {
+        writeRoles(writer);
+
         LOGGER.info("Writing database init SQL");
 
        final String SQL =
                 """
-                -- Create Admin user role
-                CREATE ROLE "%s" WITH LOGIN NOSUPERUSER INHERIT NOCREATEDB NOCREATEROLE NOREPLICATION ENCRYPTED PASSWORD  'SCRAM-SHA-256$4096:ABr/j0LV6omVjLpGJy7vrA==$5nwquL9wWK4hq17VYPs28scvQY1ylc9zcNoLI55q6xE=:wMDJ11tD/yXtH+8ya/kTvMO/yRltaKVybHX2mLqa0Ic=';
-                -- Create default user role
-                CREATE ROLE "%s" WITH LOGIN NOSUPERUSER INHERIT NOCREATEDB NOCREATEROLE NOREPLICATION ENCRYPTED PASSWORD  'SCRAM-SHA-256$4096:ABr/j0LV6omVjLpGJy7vrA==$5nwquL9wWK4hq17VYPs28scvQY1ylc9zcNoLI55q6xE=:wMDJ11tD/yXtH+8ya/kTvMO/yRltaKVybHX2mLqa0Ic=';
-                -- Create backup user role
-                CREATE ROLE "%s" WITH NOLOGIN NOSUPERUSER INHERIT NOCREATEDB NOCREATEROLE REPLICATION ENCRYPTED PASSWORD  'SCRAM-SHA-256$4096:ABr/j0LV6omVjLpGJy7vrA==$5nwquL9wWK4hq17VYPs28scvQY1ylc9zcNoLI55q6xE=:wMDJ11tD/yXtH+8ya/kTvMO/yRltaKVybHX2mLqa0Ic=';
-                                                
                 -- TODO Must be configurable
                 DROP DATABASE IF EXISTS "%s";
                 
@@ -99,9 +357,6 @@ public class PostgresLoader implements SchemaLoader {
                     
                 \\connect "%s"
                 """.formatted(
-                        Configuration.getString(Configuration.TARGET_ADMIN_ROLE),
-                        Configuration.getString(Configuration.TARGET_USER_ROLE),
-                        Configuration.getString(Configuration.TARGET_BACKUP_ROLE),
                         Configuration.getString(Configuration.TARGET_DATABASE_NAME),
                         Configuration.getString(Configuration.TARGET_DATABASE_NAME),
                         Configuration.getString(Configuration.TARGET_USER_ROLE),
@@ -117,7 +372,34 @@ public class PostgresLoader implements SchemaLoader {
         }
     }
 
-    private void writeTables(@NotNull Writer writer, @NotNull DbSystem system) throws AppRuntimeException {
+    /**
+     * Writes the roles only. Unlike {@link #writeDatabase(Writer)}, an existing target database is not dropped.
+     */
+    protected void writeRoles(@NotNull Writer writer) throws AppRuntimeException {
+        LOGGER.info("Writing roles SQL");
+
+       final String SQL =
+                """
+                -- Create Admin user role
+                CREATE ROLE "%s" WITH LOGIN NOSUPERUSER INHERIT NOCREATEDB NOCREATEROLE NOREPLICATION ENCRYPTED PASSWORD  'SCRAM-SHA-256$4096:ABr/j0LV6omVjLpGJy7vrA==$5nwquL9wWK4hq17VYPs28scvQY1ylc9zcNoLI55q6xE=:wMDJ11tD/yXtH+8ya/kTvMO/yRltaKVybHX2mLqa0Ic=';
+                -- Create default user role
+                CREATE ROLE "%s" WITH LOGIN NOSUPERUSER INHERIT NOCREATEDB NOCREATEROLE NOREPLICATION ENCRYPTED PASSWORD  'SCRAM-SHA-256$4096:ABr/j0LV6omVjLpGJy7vrA==$5nwquL9wWK4hq17VYPs28scvQY1ylc9zcNoLI55q6xE=:wMDJ11tD/yXtH+8ya/kTvMO/yRltaKVybHX2mLqa0Ic=';
+                -- Create backup user role
+                CREATE ROLE "%s" WITH NOLOGIN NOSUPERUSER INHERIT NOCREATEDB NOCREATEROLE REPLICATION ENCRYPTED PASSWORD  'SCRAM-SHA-256$4096:ABr/j0LV6omVjLpGJy7vrA==$5nwquL9wWK4hq17VYPs28scvQY1ylc9zcNoLI55q6xE=:wMDJ11tD/yXtH+8ya/kTvMO/yRltaKVybHX2mLqa0Ic=';
+
+                """.formatted(
+                        Configuration.getString(Configuration.TARGET_ADMIN_ROLE),
+                        Configuration.getString(Configuration.TARGET_USER_ROLE),
+                        Configuration.getString(Configuration.TARGET_BACKUP_ROLE)
+                        );
+        try {
+            writer.append(SQL);
+        } catch (Exception ex) {
+            throw new AppRuntimeException(ex.getMessage(), ex);
+        }
+    }
+
+    private void writeTables(@NotNull Writer writer, @NotNull DbSystem system, @NotNull LoadProfile profile) throws AppRuntimeException {
         LOGGER.info("Writing tables SQL");
         try {
             writeSectionDescription(writer,"Create tables");
@@ -125,19 +407,28 @@ public class PostgresLoader implements SchemaLoader {
             system.tables.values()
                     .stream()
                     .sorted(Comparator.comparing(DbTable::getId))
-                    .forEach(t -> writeTable(writer, t));
+                    .forEach(t -> writeTable(writer, t, profile));
         } catch (Exception ex) {
             throw new AppRuntimeException(ex.getMessage(), ex);
         }
     }
 
-    private void writeTable(@NotNull Writer writer, @NotNull DbTable table) throws AppRuntimeException {
-        final String CREATE_TABLE_PATTERN = "\nCREATE TABLE %s (\n%s\n);\n";
+    protected void writeTable(@NotNull Writer writer, @NotNull DbTable table) throws AppRuntimeException {
+        writeTable(writer, table, LoadProfile.SAFE);
+    }
+
+    /**
+     * In the fast profile, the table is unlogged and created without keys and comments, see
+     * {@link #writeFastLoadFinish(Writer, DbSystem)}.
+     */
+    private void writeTable(@NotNull Writer writer, @NotNull DbTable table, @NotNull LoadProfile profile) throws AppRuntimeException {
+        final String CREATE_TABLE_PATTERN = "\nCREATE %sTABLE %s (\n%s\n);\n";
 
         LOGGER.debug("Writing table SQL '{}'", table.name);
 
+        boolean fast = profile == LoadProfile.FAST;
         try {
-            String columns = writeTableColumns(table);
+            String columns = writeTableColumns(table, !fast);
 
             writer.append("\n----------------------------------------------------------\n\n");
             table.columns
@@ -147,7 +438,11 @@ public class PostgresLoader implements SchemaLoader {
                     .filter(c -> c.autoinc)
                     .forEach(c -> writeSequencerSql(writer, table, c));
 
-            writer.append(String.format(CREATE_TABLE_PATTERN, table.name, columns));
+            writer.append(String.format(CREATE_TABLE_PATTERN, fast ? "UNLOGGED " : "", table.name, columns));
+
+            if (fast) {
+                return;
+            }
 
             writer.append("\n");
             writeTableConstraints(writer, table);
@@ -174,21 +469,51 @@ public class PostgresLoader implements SchemaLoader {
         }
     }
 
+    /**
+     * @param primaryKey false when the primary key is added after the content, see {@link #createPrimaryKeyStatement(DbTable)}
+     */
     @NotNull
-    private String writeTableColumns(@NotNull DbTable table) throws AppRuntimeException {
+    private String writeTableColumns(@NotNull DbTable table, boolean primaryKey) throws AppRuntimeException {
         try {
-            return table.columns
+            List<String> primaryKeys = primaryKey ? getPrimaryKeyColumns(table) : List.of();
+
+            // Composite primary keys must be declared as table constraint
+            boolean inlinePrimaryKey = primaryKeys.size() == 1;
+
+            String columns = table.columns
                     .values()
                     .stream()
                     .sorted(Comparator.comparing(DbColumn::getIndex))
-                    .map(c -> convertDbColumnToSql(table, c))
+                    .map(c -> convertDbColumnToSql(table, c, inlinePrimaryKey))
                     .collect(Collectors.joining(",\n"));
+
+            return inlinePrimaryKey || primaryKeys.isEmpty()
+                    ? columns
+                    : columns + ",\n\tPRIMARY KEY (%s)".formatted(String.join(", ", primaryKeys));
         } catch (Exception ex) {
             throw new AppRuntimeException(ex.getMessage(), ex);
         }
     }
 
-    private String convertDbColumnToSql(@NotNull DbTable table, @NotNull DbColumn column) {
+    @NotNull
+    private List<String> getPrimaryKeyColumns(@NotNull DbTable table) {
+        return table
+                .getPrimaryKeyColumns()
+                .stream()
+                .map(this::wrapReservedWords)
+                .toList();
+    }
+
+    /**
+     * @return Statement which adds the primary key to an existing table or null when the table has no primary key
+     */
+    @Nullable
+    private String createPrimaryKeyStatement(@NotNull DbTable table) {
+        List<String> primaryKeys = getPrimaryKeyColumns(table);
+        return primaryKeys.isEmpty() ? null : "ALTER TABLE %s ADD PRIMARY KEY ( %s );%n".formatted(table.name, String.join(", ", primaryKeys));
+    }
+
+    private String convertDbColumnToSql(@NotNull DbTable table, @NotNull DbColumn column, boolean inlinePrimaryKey) {
         StringBuilder sb = new StringBuilder("\t");
 
         // Wrapped reserved words
@@ -202,7 +527,7 @@ public class PostgresLoader implements SchemaLoader {
 
         // TODO Uniqueness
 
-        if (column.primaryKey) {
+        if (column.primaryKey && inlinePrimaryKey) {
             sb.append(" PRIMARY KEY");
         }
 
@@ -294,102 +619,240 @@ public class PostgresLoader implements SchemaLoader {
         }
     }
 
-    private void writeForeignKeys(@NotNull Writer writer, @NotNull DbSystem system) {
+    protected void writeForeignKeys(@NotNull Writer writer, @NotNull DbSystem system) {
         try {
             writeSectionDescription(writer,"Create foreign keys");
 
-            final String SQL = """
-                    ALTER TABLE %s
-                        ADD CONSTRAINT "%s"
-                        FOREIGN KEY ( %s )
-                        REFERENCES %s ( %s )
-                        %s %s
-                    """;
             for (DbForeignKey fk : system.foreignKeys) {
-                writer.append(String.format(SQL,
-                        fk.tableName,
-                        fk.name,
-                        String.join(", ", fk
-                                .fkColumns
-                                .stream()
-                                .map(c -> "%s %s".formatted(c.getKey(), c.getValue() ? "DESC" : "ASC"))
-                                .toList()),
-                        fk.referenceTable,
-                        String.join(", ", fk
-                                .referenceColumns
-                                .stream()
-                                .toList()),
-                        mapRefAction("ON DELETE", fk.actionOnDelete),
-                        mapRefAction("ON UPDATE", fk.actionOnUpdate)
-                ).trim());
-
-                writer.append(";\n\n");
+                writer.append(createForeignKeyStatement(fk));
+                writer.append("\n\n");
             }
         } catch (Exception ex) {
             throw new AppRuntimeException(ex.getMessage(), ex);
         }
     }
 
-    private void writeIndexes(@NotNull Writer writer, @NotNull DbSystem system) {
+    /**
+     * @return Statement which adds the constraint of the foreign key
+     */
+    @NotNull
+    protected String createForeignKeyStatement(@NotNull DbForeignKey fk) {
+        final String SQL = """
+                ALTER TABLE %s
+                    ADD CONSTRAINT "%s"
+                    FOREIGN KEY ( %s )
+                    REFERENCES %s ( %s )
+                    %s %s
+                """;
+
+        return String.format(SQL,
+                fk.tableName,
+                fk.name,
+                // PostgreSQL doesn't accept a sort order in the column list of a foreign key
+                String.join(", ", fk
+                        .fkColumns
+                        .stream()
+                        .map(Pair::getKey)
+                        .toList()),
+                fk.referenceTable,
+                String.join(", ", fk
+                        .referenceColumns
+                        .stream()
+                        .toList()),
+                mapRefAction("ON DELETE", fk.actionOnDelete),
+                mapRefAction("ON UPDATE", fk.actionOnUpdate)
+        ).trim() + ";";
+    }
+
+    protected void writeIndexes(@NotNull Writer writer, @NotNull DbSystem system) {
         try {
             writeSectionDescription(writer,"Create indexes");
 
-            final String SQL = "CREATE %sINDEX \"%s\" ON %s ( %s );\n";
-            final String SQL_COMMENT = "COMMENT ON INDEX %s IS '%s';\n";
-
             for (DbIndex index : system.indexes.values()) {
-                writer.append(String.format(SQL,
-                        index.unique ? "UNIQUE " : "",
-                        index.indexName,
-                        index.tableName,
-                        String.join(", ", index
-                                .columns
-                                .stream()
-                                .map(c -> "%s %s".formatted(c.getKey(), c.getValue() ? "DESC" : "ASC"))
-                                .collect(Collectors.toSet()))));
-
-                if (system.indexComments.containsKey(index.indexName)) {
-                    DbIndexComment indexComment = system.indexComments.get(index.indexName);
-                    writer.append((String.format(SQL_COMMENT,
-                            index.indexName,
-                            indexComment.comment)));
+                writer.append(createIndexStatement(system, index));
+            }
+        } catch (Exception ex) {
+            throw new AppRuntimeException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * @return Statement which creates the index including its comment
+     */
+    @NotNull
+    protected String createIndexStatement(@NotNull DbSystem system, @NotNull DbIndex index) {
+        final String SQL = "CREATE %sINDEX \"%s\" ON %s ( %s );\n";
+        final String SQL_COMMENT = "COMMENT ON INDEX \"%s\" IS '%s';\n";
+
+        String sql = String.format(SQL,
+                index.unique ? "UNIQUE " : "",
+                index.indexName,
+                index.tableName,
+                String.join(", ", index
+                        .columns
+                        .stream()
+                        .map(c -> "%s %s".formatted(c.getKey(), c.getValue() ? "DESC" : "ASC"))
+                        .collect(Collectors.toSet())));
+
+        if (system.indexComments.containsKey(index.indexName)) {
+            DbIndexComment indexComment = system.indexComments.get(index.indexName);
+            sql += String.format(SQL_COMMENT,
+                    index.indexName,
+                    escapeString(indexComment.comment));
+        }
+
+        return sql;
+    }
+
+    /**
+     * Writes the remaining objects of the fast profile after the content is loaded. The tables are logged first, so
+     * keys and indexes are built once into the WAL instead of being rebuilt by <code>SET LOGGED</code>, and before the
+     * foreign keys, because a logged table can't reference an unlogged table. Keys and indexes are created with more
+     * maintenance memory and workers.
+     */
+    private void writeFastLoadFinish(@NotNull Writer writer, @NotNull DbSystem system) {
+        List<DbTable> tables = system.tables.values().stream().sorted(Comparator.comparing(DbTable::getId)).toList();
+
+        try {
+            writeSectionDescription(writer, "Log tables");
+            for (DbTable table : tables) {
+                writer.append("ALTER TABLE %s SET LOGGED;%n".formatted(table.name));
+            }
+
+            writeSectionDescription(writer, "Create keys and indexes");
+            writer.append("SET maintenance_work_mem = '%s';%nSET max_parallel_maintenance_workers = %d;%n".formatted(
+                    Configuration.getString(Configuration.TARGET_LOAD_MAINTENANCE_WORK_MEM),
+                    Configuration.getInt(Configuration.TARGET_LOAD_MAINTENANCE_WORKERS)));
+
+            writer.append("\nBEGIN;\n");
+            for (DbTable table : tables) {
+                String primaryKey = createPrimaryKeyStatement(table);
+                if (primaryKey != null) {
+                    writer.append(primaryKey);
                 }
+                writeTableConstraints(writer, table);
+            }
+            for (DbIndex index : system.indexes.values()) {
+                writer.append(createIndexStatement(system, index));
             }
+            writer.append("COMMIT;\n");
+
+            writeSectionDescription(writer, "Create foreign keys");
+            writer.append("BEGIN;\n");
+            for (DbForeignKey fk : system.foreignKeys) {
+                writer.append(createForeignKeyStatement(fk)).append("\n");
+            }
+            writer.append("COMMIT;\n");
+
+            writeSectionDescription(writer, "Create comments");
+            writer.append("BEGIN;\n");
+            for (DbTable table : tables) {
+                writeTableComment(writer, table);
+                writeColumnsComments(writer, table);
+            }
+            writer.append("COMMIT;\n");
+
+            writeSectionDescription(writer, "Update statistics");
+            writer.append("ANALYZE;\n");
         } catch (Exception ex) {
             throw new AppRuntimeException(ex.getMessage(), ex);
         }
     }
 
-    private void writeLoadTables(@NotNull Writer writer, @NotNull DbSystem system) {
+    private void writeLoadTables(@NotNull Writer writer, @NotNull DbSystem system, @NotNull LoadProfile profile) {
         try {
             writeSectionDescription(writer,"Reload data");
 
-            final String SQL = """
-                
-                COPY %s ( %s )
-                    FROM '%s'
-                    ( FORMAT TEXT, DELIMITER ',', ENCODING '%s' );
-                """;
+            if (profile == LoadProfile.FAST) {
+                // psql would continue after a failed statement, so keys would be created on partly loaded tables and
+                // the statements after a failure in a transaction would be ignored until its end
+                writer.append("\\set ON_ERROR_STOP on\n");
+            }
 
             for (DbTable table : system.tables.values()) {
-                DbTableContent content = table.content;
-                if (content == null) {
+                if (!isLoadable(table.content)) {
                     continue;
                 }
 
-                List<String> columns = content.columns.stream().map(this::wrapReservedWords).toList();
-
-                writer.append(String.format(SQL,
-                        table.name,
-                        String.join(",", columns),
-                        Paths.get("/db_unloaded", content.file.getParent().getFileName().toString(), content.file.getFileName().toString()).toString().replace("\\", "/"),
-                        Configuration.getString(Configuration.SOURCE_ENCODING)));
+                if (profile == LoadProfile.FAST) {
+                    // COPY FREEZE requires a table which is created or truncated in the same transaction
+                    writer.append("\nBEGIN;\nTRUNCATE TABLE %s;\n".formatted(table.name));
+                    writeLoadTable(writer, table, true);
+                    writer.append("COMMIT;\n");
+                } else {
+                    writeLoadTable(writer, table, false);
+                }
             }
         } catch (Exception ex) {
             throw new AppRuntimeException(ex.getMessage(), ex);
         }
     }
 
+    /**
+     * Content without file or marked as loaded was streamed into the target database, named pipes are loaded while
+     * unloading.
+     *
+     * @return true when the content must be loaded by the script
+     */
+    protected static boolean isLoadable(@Nullable DbTableContent content) {
+        return content != null && content.file != null && !content.namedPipe && !content.loaded;
+    }
+
+    /**
+     * @param freeze true when the rows are written frozen. The table must be created or truncated in the current
+     *               transaction
+     */
+    private void writeLoadTable(@NotNull Writer writer, @NotNull DbTable table, boolean freeze) throws IOException {
+        DbTableContent content = table.content;
+
+        List<Path> files = content.shards.isEmpty() ? List.of(content.file) : content.shards;
+        if (files.size() > 1 && !freeze) {
+            writer.append("%n-- The %d shards of table %s are independent and can be loaded concurrently in separate sessions%n".formatted(files.size(), table.name));
+        }
+
+        for (Path path : files) {
+            String file = Paths.get("/db_unloaded", path.getParent().getFileName().toString(), path.getFileName().toString()).toString().replace("\\", "/");
+            // Compressed files are decompressed by the database server
+            file = createCopySource(file);
+
+            writer.append("\n");
+            if (content.format == DbTableContent.Format.BINARY) {
+                writer.append("SET client_encoding TO 'UTF8';\n");
+            }
+            writer.append(createCopyStatement(table, file, freeze)).append("\n");
+        }
+    }
+
+    /**
+     * Creates the COPY statement of the content of a table.
+     *
+     * @param table Table with content
+     * @param source Source of the COPY statement like <code>STDIN</code> or a quoted file name
+     * @return The statement
+     */
+    @NotNull
+    protected String createCopyStatement(@NotNull DbTable table, @NotNull String source) {
+        return createCopyStatement(table, source, false);
+    }
+
+    @NotNull
+    private String createCopyStatement(@NotNull DbTable table, @NotNull String source, boolean freeze) {
+        DbTableContent content = table.content;
+        List<String> columns = content.columns.stream().map(this::wrapReservedWords).toList();
+
+        return """
+                COPY %s ( %s )
+                    FROM %s
+                    ( %s );""".formatted(
+                        table.name,
+                        String.join(",", columns),
+                        source,
+                        (content.format == DbTableContent.Format.BINARY
+                                ? "FORMAT BINARY"
+                                : "FORMAT TEXT, DELIMITER ',', ENCODING '%s'".formatted(Configuration.getString(Configuration.SOURCE_ENCODING)))
+                                + (freeze ? ", FREEZE" : ""));
+    }
+
     @NotNull
     private String mapToPSqlDataType(@NotNull DbColumn column) {
         return switch (column.datatype) {
@@ -419,6 +882,7 @@ public class PostgresLoader implements SchemaLoader {
             case CASCADE -> prefix + " CASCADE";
             case RESTRICT -> prefix + " RESTRICT";
             case SET_NULL -> prefix + " SET NULL";
+            case SET_DEFAULT -> prefix + " SET DEFAULT";
         };
     }
 
@@ -454,17 +918,36 @@ public class PostgresLoader implements SchemaLoader {
         return switch (column.datatype) {
             case BINARY, LONG_BINARY -> ("\\\\x" + HexFormat.of().formatHex(rawValue.getBytes(StandardCharsets.UTF_8)));
             case INTEGER, NUMERIC, SMALLINT, BIGINT, TINYINT -> rawValue;
-            default -> rawValue
-                    .replace("\\", "\\\\")
-                    .replace("\u0000", "")
-                    .replace("\"", "\\\"")
-                    .replace("\b", "\\b")
-                    .replace("\f", "\\f")
-                    .replace("\n", "\\n")
-                    .replace("\r", "\\r")
-                    .replace("\t", "\\t")
-                    .replace(",", "\\,");
+            default -> TextEscaper.POSTGRES.escape(rawValue);
+        };
+    }
+
+    /**
+     * Creates a codec which reads the values by the native getter of the datatype of the column.
+     */
+    @NotNull
+    @Override
+    public ValueCodec createValueCodec(@NotNull DbColumn column) {
+        return switch (column.datatype) {
+            case BINARY -> ValueCodecs.ofBytes("\\\\x");
+            case LONG_BINARY -> LobCodecs.ofBinaryStream("\\\\x", Configuration.getInt(Configuration.SOURCE_LOB_INLINE_SIZE));
+            case LONG_VARCHAR, XML -> LobCodecs.ofCharacterStream(TextEscaper.POSTGRES, "", Configuration.getInt(Configuration.SOURCE_LOB_INLINE_SIZE));
+            case INTEGER, SMALLINT, BIGINT, TINYINT, BIT -> ValueCodecs.ofLong();
+            case NUMERIC, DECIMAL, UNSIGNED_INT, UNSIGNED_SMALLINT -> ValueCodecs.ofDecimal();
+            case TIMESTAMP, DATETIME -> TemporalCodecs.ofTimestamp();
+            case DATETIME_OFFSET -> TemporalCodecs.ofTimestampWithOffset();
+            case DATE -> TemporalCodecs.ofDate();
+            default -> ValueCodecs.ofText(TextEscaper.POSTGRES, "");
         };
     }
 
+    /**
+     * Creates an encoder of the binary COPY format when all columns are supported.
+     */
+    @Nullable
+    @Override
+    public BinaryRowEncoder createBinaryRowEncoder(@NotNull List<DbColumn> columns) {
+        return PgCopyBinaryEncoder.create(columns, this::createValueCodec);
+    }
+
 }
@@ -0,0 +1,159 @@
+package de.elomagic.loader;
+
+import de.elomagic.AppRuntimeException;
+import de.elomagic.ConnectionPool;
+import de.elomagic.DbUtils;
+import de.elomagic.dto.DbForeignKey;
+import de.elomagic.dto.DbIndex;
+import de.elomagic.dto.DbSystem;
+import de.elomagic.dto.DbTable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Loader which creates the schema and loads the unloaded content files directly into the target database by a
+ * dependency graph of tasks, which are run in parallel sessions of the target connection pool.
+ * <p>
+ * A table is created first, then its content files or shards are copied by <code>COPY ... FROM STDIN</code> and
+ * after all its content its indexes are created. The constraint of a foreign key is created when both of its tables
+ * are loaded and indexed. So large tables don't wait on each other like in the sequential SQL script and a failure
+ * only stops the tasks which depend on it.
+ * <p>
+ * The target database must be created before this loader is run, because the tasks are run in sessions of the target
+ * database. The SQL script only creates the roles and never drops or creates the database, so it can be run after the
+ * load without losing the loaded content. The PostgreSQL JDBC driver is accessed by reflection, so it is only required
+ * on the classpath when this loader is used.
+ */
+public class PostgresParallelLoader extends PostgresLoader {
+
+    private static final Logger LOGGER = LogManager.getLogger(PostgresParallelLoader.class);
+
+    @Override
+    public void export(@NotNull DbSystem system, @NotNull Writer writer) throws AppRuntimeException {
+        // The database was created before and is loaded by this run, so the script must not recreate it
+        writeRoles(writer);
+
+        List<MigrationTask> tasks = createTasks(system);
+
+        boolean done;
+        try (ConnectionPool pool = DbUtils.createTargetConnectionPool()) {
+            done = new MigrationExecutor(pool).run(tasks);
+        }
+
+        if (!done) {
+            List<String> failed = tasks.stream()
+                    .filter(t -> t.getState() == MigrationTask.State.FAILED)
+                    .map(MigrationTask::getName)
+                    .toList();
+            throw new AppRuntimeException("Migration of the target database failed. Failed tasks: " + String.join(", ", failed));
+        }
+    }
+
+    /**
+     * Content files are loaded after unloading but named pipes must be consumed while unloading.
+     */
+    @Override
+    public void prepareNamedPipes(@NotNull DbSystem system, @NotNull List<DbTable> tables) throws AppRuntimeException {
+        throw new AppRuntimeException("Named pipes are not supported by " + getClass().getName());
+    }
+
+    /**
+     * Creates the tasks of the migration.
+     *
+     * @param system Schema and unloaded content
+     * @return Tasks ordered like the sequential SQL script, so the executor starts them in this order
+     */
+    @NotNull
+    List<MigrationTask> createTasks(@NotNull DbSystem system) {
+        List<MigrationTask> tasks = new ArrayList<>();
+
+        // Tasks after which a table is created and completely loaded
+        Map<String, List<MigrationTask>> loadedTables = new HashMap<>();
+        for (DbTable table : system.tables.values().stream().sorted(Comparator.comparing(DbTable::getId)).toList()) {
+            StringWriter sql = new StringWriter();
+            writeTable(sql, table);
+
+            MigrationTask create = new MigrationTask("create table " + table.name, con -> PgCopyApi.execute(con, sql.toString()));
+            tasks.add(create);
+
+            List<MigrationTask> copies = new ArrayList<>();
+            if (isLoadable(table.content)) {
+                String copyStatement = createCopyStatement(table, "STDIN");
+                for (Path file : table.content.shards.isEmpty() ? List.of(table.content.file) : table.content.shards) {
+                    MigrationTask copy = new MigrationTask("copy " + file.getFileName(), con -> copy(con, copyStatement, file));
+                    copies.add(copy.dependsOn(List.of(create)));
+                }
+            }
+            tasks.addAll(copies);
+            loadedTables.put(table.name, copies.isEmpty() ? List.of(create) : copies);
+        }
+
+        // Tasks after which a table is loaded and all its indexes are created
+        Map<String, List<MigrationTask>> indexedTables = new HashMap<>();
+        for (DbIndex index : system.indexes.values()) {
+            String sql = createIndexStatement(system, index);
+
+            MigrationTask task = new MigrationTask("index " + index.indexName, con -> PgCopyApi.execute(con, sql));
+            task.dependsOn(loadedTables.getOrDefault(index.tableName, List.of()));
+            tasks.add(task);
+            indexedTables.computeIfAbsent(index.tableName, name -> new ArrayList<>()).add(task);
+        }
+
+        for (DbForeignKey fk : system.foreignKeys) {
+            String sql = createForeignKeyStatement(fk);
+
+            MigrationTask task = new MigrationTask("foreign key " + fk.name, con -> PgCopyApi.execute(con, sql));
+            for (String tableName : List.of(fk.tableName, fk.referenceTable)) {
+                task.dependsOn(indexedTables.getOrDefault(tableName, loadedTables.getOrDefault(tableName, List.of())));
+            }
+            tasks.add(task);
+        }
+
+        return tasks;
+    }
+
+    /**
+     * Streams a content file into a <code>COPY ... FROM STDIN</code> operation. Compressed files are decompressed by
+     * the client.
+     */
+    private void copy(@NotNull Connection con, @NotNull String sql, @NotNull Path file) throws SQLException, IOException {
+        try (InputStream in = openContentFile(file)) {
+            Object copyIn = PgCopyApi.copyIn(con, sql);
+            try {
+                byte[] buffer = new byte[PgCopyApi.BUFFER_SIZE];
+                int length;
+                while ((length = in.read(buffer)) != -1) {
+                    PgCopyApi.writeToCopy(copyIn, buffer, 0, length);
+                }
+                long rows = PgCopyApi.endCopy(copyIn);
+                LOGGER.debug("{} rows of file '{}' copied", rows, file);
+            } finally {
+                PgCopyApi.cancelCopy(copyIn);
+            }
+        }
+    }
+
+    @NotNull
+    private static InputStream openContentFile(@NotNull Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        return file.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(in, PgCopyApi.BUFFER_SIZE) : in;
+    }
+
+}
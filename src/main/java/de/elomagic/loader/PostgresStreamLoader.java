@@ -0,0 +1,190 @@
+package de.elomagic.loader;
+
+import de.elomagic.AppRuntimeException;
+import de.elomagic.ConnectionPool;
+import de.elomagic.DbUtils;
+import de.elomagic.dto.DbSystem;
+import de.elomagic.dto.DbTable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loader which streams the table content by <code>COPY ... FROM STDIN</code> directly into the target database
+ * instead of writing content files.
+ * <p>
+ * A table is created when its content is streamed the first time. Every stream loads in its own transaction and
+ * session of the target connection pool. Constraints of foreign keys and indexes are created by
+ * {@link #export(DbSystem, Writer)} after all content is loaded. The SQL script is still written, but without the COPY
+ * statements of the streamed tables.
+ * <p>
+ * The PostgreSQL JDBC driver is accessed by reflection, so it is only required on the classpath when this loader is
+ * used.
+ */
+public class PostgresStreamLoader extends PostgresLoader {
+
+    private static final Logger LOGGER = LogManager.getLogger(PostgresStreamLoader.class);
+
+    private final Map<String, Boolean> createdTables = new ConcurrentHashMap<>();
+    private ConnectionPool pool;
+
+    /**
+     * Stream into a running <code>COPY ... FROM STDIN</code> operation.
+     */
+    private static final class CopyStream implements ContentStream {
+
+        private final ConnectionPool.PooledConnection pooled;
+        private final Object copyIn;
+        private final byte[] buffer = new byte[PgCopyApi.BUFFER_SIZE];
+        private boolean committed;
+        private boolean open = true;
+
+        private CopyStream(@NotNull ConnectionPool.PooledConnection pooled, @NotNull String sql) throws SQLException {
+            this.pooled = pooled;
+
+            Connection con = pooled.getConnection();
+            con.setAutoCommit(false);
+            copyIn = PgCopyApi.copyIn(con, sql);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            int count = src.remaining();
+            try {
+                while (src.hasRemaining()) {
+                    int length = Math.min(src.remaining(), buffer.length);
+                    src.get(buffer, 0, length);
+                    PgCopyApi.writeToCopy(copyIn, buffer, 0, length);
+                }
+            } catch (SQLException ex) {
+                throw new IOException(ex.getMessage(), ex);
+            }
+            return count;
+        }
+
+        @Override
+        public long commit() throws IOException {
+            try {
+                long rows = PgCopyApi.endCopy(copyIn);
+                pooled.getConnection().commit();
+                committed = true;
+                return rows;
+            } catch (SQLException ex) {
+                throw new IOException(ex.getMessage(), ex);
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!open) {
+                return;
+            }
+
+            open = false;
+            try {
+                Connection con = pooled.getConnection();
+                if (!committed) {
+                    PgCopyApi.cancelCopy(copyIn);
+                    con.rollback();
+                }
+                con.setAutoCommit(true);
+            } catch (SQLException | RuntimeException ex) {
+                pooled.invalidate();
+                throw new IOException(ex.getMessage(), ex);
+            } finally {
+                pooled.close();
+            }
+        }
+
+    }
+
+    @Override
+    public boolean isStreamingContent() {
+        return true;
+    }
+
+    @Override
+    @NotNull
+    public ContentStream openContentStream(@NotNull DbTable table) throws AppRuntimeException {
+        ConnectionPool.PooledConnection pooled = getPool().borrow();
+        try {
+            createTable(pooled.getConnection(), table);
+
+            LOGGER.debug("Streaming content of table '{}'", table.name);
+            return new CopyStream(pooled, createCopyStatement(table, "STDIN"));
+        } catch (SQLException | RuntimeException ex) {
+            pooled.invalidate();
+            pooled.close();
+            throw new AppRuntimeException(ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public void export(@NotNull DbSystem system, @NotNull Writer writer) throws AppRuntimeException {
+        super.export(system, writer);
+
+        LOGGER.info("Creating remaining tables, foreign keys and indexes in target database");
+        try (ConnectionPool.PooledConnection pooled = getPool().borrow()) {
+            for (DbTable table : system.tables.values().stream().sorted(Comparator.comparing(DbTable::getId)).toList()) {
+                createTable(pooled.getConnection(), table);
+            }
+
+            StringWriter sql = new StringWriter();
+            writeForeignKeys(sql, system);
+            writeIndexes(sql, system);
+            PgCopyApi.execute(pooled.getConnection(), sql.toString());
+        } catch (SQLException ex) {
+            throw new AppRuntimeException(ex.getMessage(), ex);
+        } finally {
+            closePool();
+        }
+    }
+
+    /**
+     * Creates the table in the target database, when not already done.
+     */
+    private void createTable(@NotNull Connection con, @NotNull DbTable table) {
+        createdTables.computeIfAbsent(table.name, name -> {
+            StringWriter sql = new StringWriter();
+            writeTable(sql, table);
+            try {
+                PgCopyApi.execute(con, sql.toString());
+            } catch (SQLException ex) {
+                throw new AppRuntimeException(ex.getMessage(), ex);
+            }
+            return Boolean.TRUE;
+        });
+    }
+
+    @NotNull
+    private synchronized ConnectionPool getPool() {
+        if (pool == null) {
+            pool = DbUtils.createTargetConnectionPool();
+        }
+        return pool;
+    }
+
+    private synchronized void closePool() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+
+}
@@ -1,13 +1,18 @@
 package de.elomagic.loader;
 
 import de.elomagic.AppRuntimeException;
+import de.elomagic.codec.BinaryRowEncoder;
+import de.elomagic.codec.ValueCodec;
+import de.elomagic.codec.ValueCodecs;
 import de.elomagic.dto.DbColumn;
 import de.elomagic.dto.DbSystem;
+import de.elomagic.dto.DbTable;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.Writer;
+import java.util.List;
 
 public interface SchemaLoader {
 
@@ -16,4 +21,59 @@ public interface SchemaLoader {
     @Nullable
     String denormalizeValue(@Nullable String rawValue, @NotNull DbColumn column);
 
+    /**
+     * Creates the codec of the values of a column. Called once per column and table unload.
+     * <p>
+     * The default codec reads the values as string and denormalizes them by {@link #denormalizeValue(String, DbColumn)}.
+     *
+     * @param column Column of the values
+     * @return The codec
+     */
+    @NotNull
+    default ValueCodec createValueCodec(@NotNull DbColumn column) {
+        return ValueCodecs.ofString(value -> denormalizeValue(value, column));
+    }
+
+    /**
+     * Creates the encoder of the rows of a binary content file.
+     *
+     * @param columns Columns in order of the content file
+     * @return The encoder or null when the binary format is not supported for the columns
+     */
+    @Nullable
+    default BinaryRowEncoder createBinaryRowEncoder(@NotNull List<DbColumn> columns) {
+        return null;
+    }
+
+    /**
+     * Prepares the consumer of the named pipes of the table content, like a load script, which must be started together
+     * with the unload. Called after the schema is imported and before the content is written into the pipes.
+     *
+     * @param system Imported schema. Tables with content in named pipes are marked by {@link de.elomagic.dto.DbTableContent#namedPipe}
+     * @param tables Tables in order of the unload, so the consumer can open the pipes in the same order
+     */
+    default void prepareNamedPipes(@NotNull DbSystem system, @NotNull List<DbTable> tables) throws AppRuntimeException {
+        throw new AppRuntimeException("Named pipes are not supported by " + getClass().getName());
+    }
+
+    /**
+     * @return true when the content of the tables is streamed by {@link #openContentStream(DbTable)} into the target
+     * database instead of written into content files
+     */
+    default boolean isStreamingContent() {
+        return false;
+    }
+
+    /**
+     * Opens a stream of the content of a table into the target database. A table may be streamed by several streams
+     * in parallel, for example one per chunk.
+     *
+     * @param table Table with prepared content description (columns, encoding and format)
+     * @return The stream which must be committed and closed
+     */
+    @NotNull
+    default ContentStream openContentStream(@NotNull DbTable table) throws AppRuntimeException {
+        throw new AppRuntimeException("Streaming of table content is not supported by " + getClass().getName());
+    }
+
 }
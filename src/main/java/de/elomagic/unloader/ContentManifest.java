@@ -0,0 +1,52 @@
+package de.elomagic.unloader;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Manifest of the SHA-256 checksums of the table content in the format of <code>sha256sum</code>, so the files can be
+ * verified by <code>sha256sum -c</code>. Checksums are of the written files, so a compressed file has the checksum of
+ * its compressed bytes.
+ */
+public final class ContentManifest {
+
+    private static final Logger LOGGER = LogManager.getLogger(ContentManifest.class);
+
+    private final Map<String, String> checksums = new ConcurrentSkipListMap<>();
+
+    /**
+     * @param name Name of the file relative to the manifest
+     * @param checksum Checksum in hex
+     */
+    void add(@NotNull String name, @NotNull String checksum) {
+        checksums.put(name, checksum);
+    }
+
+    public boolean isEmpty() {
+        return checksums.isEmpty();
+    }
+
+    /**
+     * Writes the checksums ordered by file name.
+     *
+     * @param file File of the manifest. Will be replaced
+     */
+    public void write(@NotNull Path file) throws IOException {
+        LOGGER.info("Writing {} checksums into manifest '{}'", checksums.size(), file);
+
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            for (Map.Entry<String, String> entry : checksums.entrySet()) {
+                writer.append(entry.getValue()).append("  ").append(entry.getKey()).append('\n');
+            }
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+package de.elomagic.unloader;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Target of the encoded content of a table. The {@link TableUnloadPipeline} writes into every sink by its own write
+ * stage, so the source is read only once, no matter how many sinks are written.
+ */
+public interface ContentSink extends AutoCloseable {
+
+    /**
+     * Opens the channel of a shard. Called with the first bytes of a shard. The channel is closed at the end of the
+     * shard.
+     *
+     * @param shard Index of the shard
+     * @param sharded true when the content is written in shards
+     * @return The channel
+     */
+    @NotNull
+    WritableByteChannel open(int shard, boolean sharded) throws IOException;
+
+    /**
+     * @return Compression of the bytes written into the channels
+     */
+    @NotNull
+    default OutputCompression getCompression() {
+        return OutputCompression.NONE;
+    }
+
+    /**
+     * @return false when the shards can't be separated, like by a single stream
+     */
+    default boolean isShardable() {
+        return true;
+    }
+
+    /**
+     * @return Written files in order
+     */
+    @NotNull
+    default List<Path> getFiles() {
+        return List.of();
+    }
+
+    /**
+     * Called after the whole content was written.
+     */
+    default void commit() throws IOException {
+    }
+
+    /**
+     * Releases the sink. Content which isn't committed may be discarded.
+     */
+    @Override
+    default void close() throws IOException {
+    }
+
+}
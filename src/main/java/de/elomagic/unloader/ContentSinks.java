@@ -0,0 +1,454 @@
+package de.elomagic.unloader;
+
+import de.elomagic.AppRuntimeException;
+import de.elomagic.Configuration;
+import de.elomagic.DbUtils;
+import de.elomagic.dto.DbTable;
+import de.elomagic.loader.ContentStream;
+import de.elomagic.loader.SchemaLoader;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Factories of {@link ContentSink}s and the unload of a table into the configured sinks.
+ */
+public final class ContentSinks {
+
+    private static final Logger LOGGER = LogManager.getLogger(ContentSinks.class);
+
+    /**
+     * Kinds of the configurable sinks.
+     */
+    public enum Kind {
+        /**
+         * Content file
+         */
+        FILE,
+        /**
+         * Gzip compressed content file
+         */
+        GZIP,
+        /**
+         * COPY stream into the target database
+         */
+        COPY,
+        /**
+         * SHA-256 checksums of the written files in the manifest
+         */
+        SHA256
+    }
+
+    private ContentSinks() {
+    }
+
+    /**
+     * @return Configured kinds of sinks or empty when the content is written as configured by the other output
+     * properties
+     */
+    @NotNull
+    public static List<Kind> getConfigured() {
+        String sinks = Configuration.getString(Configuration.TARGET_OUTPUT_SINKS);
+        if (sinks == null || sinks.isBlank()) {
+            return List.of();
+        }
+
+        List<Kind> kinds = Arrays.stream(sinks.split(","))
+                .map(String::trim)
+                .map(s -> {
+                    try {
+                        return Kind.valueOf(s.toUpperCase(Locale.ROOT));
+                    } catch (IllegalArgumentException ex) {
+                        throw new AppRuntimeException("Unsupported output sink '" + s + "'.");
+                    }
+                })
+                .distinct()
+                .toList();
+
+        if (kinds.contains(Kind.SHA256) && getLoadableKind(kinds) == null) {
+            throw new AppRuntimeException("Output sink sha256 requires the sink file or gzip, whose files are checksummed.");
+        }
+
+        return kinds;
+    }
+
+    /**
+     * Returns the configured kinds of sinks and fails before the first table is unloaded, when they are not supported.
+     *
+     * @param targetLoader Loader of the target database
+     * @return Configured kinds of sinks or empty when the content is written as configured by the other output
+     * properties
+     * @throws AppRuntimeException Thrown when the copy sink is configured but the loader doesn't stream content
+     */
+    @NotNull
+    public static List<Kind> getConfigured(@NotNull SchemaLoader targetLoader) throws AppRuntimeException {
+        List<Kind> kinds = getConfigured();
+        if (kinds.contains(Kind.COPY) && !targetLoader.isStreamingContent()) {
+            throw new AppRuntimeException("Output sink copy requires a loader which streams the content, like the de.elomagic.loader.PostgresStreamLoader, but " + targetLoader.getClass().getName() + " is configured.");
+        }
+
+        return kinds;
+    }
+
+    /**
+     * @param table Table of the content
+     * @return Uncompressed content file of the table, which names the files and checksums of the sinks
+     */
+    @NotNull
+    public static Path getContentFile(@NotNull DbTable table) {
+        return Path.of(Configuration.getString(Configuration.TARGET_OUTPUT_PATH), "unloaded", table.name + ".dat");
+    }
+
+    /**
+     * @return File of the checksums of the table content
+     */
+    @NotNull
+    public static Path getManifestFile() {
+        return Path.of(Configuration.getString(Configuration.TARGET_OUTPUT_PATH), "unloaded", "manifest.sha256");
+    }
+
+    /**
+     * @param kinds Kinds of sinks
+     * @return Kind of the sink, which writes the file to be loaded into the target database. The uncompressed file
+     * is preferred. Null when no file is written
+     */
+    @Nullable
+    private static Kind getLoadableKind(@NotNull List<Kind> kinds) {
+        return kinds.contains(Kind.FILE) ? Kind.FILE : kinds.contains(Kind.GZIP) ? Kind.GZIP : null;
+    }
+
+    /**
+     * @param file Uncompressed content file
+     * @param kinds Kinds of sinks
+     * @return File to be loaded into the target database or null when no file is written
+     */
+    @Nullable
+    public static Path getLoadableFile(@NotNull Path file, @NotNull List<Kind> kinds) {
+        Kind kind = getLoadableKind(kinds);
+        if (kind == null) {
+            return null;
+        }
+
+        return kind == Kind.GZIP ? getCompressedFile(file) : file;
+    }
+
+    @NotNull
+    private static Path getCompressedFile(@NotNull Path file) {
+        return file.resolveSibling(file.getFileName() + OutputCompression.GZIP.getFileSuffix());
+    }
+
+    /**
+     * Creates the sinks of a table. The checksums of the sha256 sink are taken from the written files, so they have no
+     * sink of their own.
+     *
+     * @param kinds Kinds of sinks
+     * @param file Uncompressed content file like <code>table.dat</code>
+     * @param table Table of the content
+     * @param targetLoader Loader of the COPY stream
+     * @param manifest Manifest of the checksums
+     * @return The sinks by their kind, which must be closed
+     */
+    @NotNull
+    public static Map<Kind, ContentSink> create(@NotNull List<Kind> kinds, @NotNull Path file, @NotNull DbTable table, @NotNull SchemaLoader targetLoader, @NotNull ContentManifest manifest) {
+        boolean digest = kinds.contains(Kind.SHA256);
+        Map<Kind, ContentSink> sinks = new LinkedHashMap<>();
+        try {
+            for (Kind kind : kinds) {
+                switch (kind) {
+                    case FILE -> sinks.put(kind, withDigest(ofFile(file, OutputCompression.NONE), digest ? manifest : null));
+                    case GZIP -> sinks.put(kind, withDigest(ofFile(getCompressedFile(file), OutputCompression.GZIP), digest ? manifest : null));
+                    case COPY -> sinks.put(kind, ofStream(targetLoader.openContentStream(table)));
+                    case SHA256 -> {
+                        // Checksums of the file sinks
+                    }
+                }
+            }
+            return sinks;
+        } catch (RuntimeException ex) {
+            close(List.copyOf(sinks.values()), ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Unloads the rows of a query into the sinks of a table. The rows are read only once, no matter how many sinks are
+     * written.
+     *
+     * @param pipeline Pipeline of the table. The shard limits are set by the configuration
+     * @param kinds Kinds of sinks
+     * @param con Connection of the source database
+     * @param sql Query of the rows
+     * @param parameters Parameters of the query
+     * @param table Table of the content
+     * @param targetLoader Loader of the COPY stream
+     * @param manifest Manifest of the checksums
+     * @return Written files of the sink which is loaded into the target database. Empty when no file is written
+     */
+    @NotNull
+    public static List<Path> unload(@NotNull TableUnloadPipeline pipeline, @NotNull List<Kind> kinds, @NotNull Connection con, @NotNull String sql, @NotNull List<?> parameters, @NotNull DbTable table, @NotNull SchemaLoader targetLoader, @NotNull ContentManifest manifest) throws IOException, SQLException {
+        pipeline.withShardLimits(Configuration.getLong(Configuration.TARGET_OUTPUT_SHARD_SIZE), Configuration.getLong(Configuration.TARGET_OUTPUT_SHARD_ROWS));
+
+        Map<Kind, ContentSink> sinks = create(kinds, getContentFile(table), table, targetLoader, manifest);
+        try (PreparedStatement stmt = DbUtils.createPrepareStatement(con, sql, parameters)) {
+            stmt.setFetchSize(TableUnloadPipeline.DEFAULT_BATCH_ROWS);
+            try (ResultSet rs = stmt.executeQuery()) {
+                long rows = pipeline.run(rs, List.copyOf(sinks.values()));
+                LOGGER.debug("{} rows of table '{}' unloaded into sinks {}", rows, table.name, kinds);
+            }
+        } finally {
+            close(List.copyOf(sinks.values()));
+        }
+
+        Kind loadable = getLoadableKind(kinds);
+        return loadable == null ? List.of() : sinks.get(loadable).getFiles();
+    }
+
+    /**
+     * Closes all sinks.
+     *
+     * @param sinks Sinks to close
+     * @throws IOException First failure. Further failures are suppressed
+     */
+    public static void close(@NotNull List<ContentSink> sinks) throws IOException {
+        IOException failure = new IOException("Unable to close content sinks");
+        close(sinks, failure);
+        if (failure.getSuppressed().length > 0) {
+            throw failure;
+        }
+    }
+
+    private static void close(@NotNull List<ContentSink> sinks, @NotNull Exception failure) {
+        for (ContentSink sink : sinks) {
+            try {
+                sink.close();
+            } catch (IOException | RuntimeException ex) {
+                failure.addSuppressed(ex);
+            }
+        }
+    }
+
+    /**
+     * Writes the content into a file or into shards of the file, see {@link TableUnloadPipeline#getShardFile(Path, int)}.
+     *
+     * @param file Content file. Will be replaced
+     * @param compression Compression of the file
+     * @return The sink
+     */
+    @NotNull
+    public static ContentSink ofFile(@NotNull Path file, @NotNull OutputCompression compression) {
+        List<Path> files = new ArrayList<>();
+        return new ContentSink() {
+            @Override
+            @NotNull
+            public WritableByteChannel open(int shard, boolean sharded) throws IOException {
+                Path shardFile = sharded ? TableUnloadPipeline.getShardFile(file, shard) : file;
+                WritableByteChannel channel = FileChannel.open(shardFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                files.add(shardFile);
+                return channel;
+            }
+
+            @Override
+            @NotNull
+            public OutputCompression getCompression() {
+                return compression;
+            }
+
+            @Override
+            @NotNull
+            public List<Path> getFiles() {
+                return files;
+            }
+        };
+    }
+
+    /**
+     * Writes the content into a channel. The channel will not be closed.
+     *
+     * @param channel Target channel
+     * @param compression Compression of the written bytes
+     * @return The sink
+     */
+    @NotNull
+    public static ContentSink ofChannel(@NotNull WritableByteChannel channel, @NotNull OutputCompression compression) {
+        return new ContentSink() {
+            @Override
+            @NotNull
+            public WritableByteChannel open(int shard, boolean sharded) {
+                return new UnclosedChannel(channel);
+            }
+
+            @Override
+            @NotNull
+            public OutputCompression getCompression() {
+                return compression;
+            }
+
+            @Override
+            public boolean isShardable() {
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Writes the content into a stream of the target database. The stream is committed with the sink.
+     *
+     * @param stream Stream of the target database
+     * @return The sink
+     */
+    @NotNull
+    public static ContentSink ofStream(@NotNull ContentStream stream) {
+        return new ContentSink() {
+            @Override
+            @NotNull
+            public WritableByteChannel open(int shard, boolean sharded) {
+                return new UnclosedChannel(stream);
+            }
+
+            @Override
+            public boolean isShardable() {
+                return false;
+            }
+
+            @Override
+            public void commit() throws IOException {
+                stream.commit();
+            }
+
+            @Override
+            public void close() throws IOException {
+                stream.close();
+            }
+        };
+    }
+
+    /**
+     * Adds the SHA-256 checksums of the files of a sink to the manifest when the sink is committed. The checksum is
+     * named after the written file and is of the written bytes, so a compressed file has the checksum of its
+     * compressed bytes. In shards, every shard gets its own checksum.
+     *
+     * @param sink Sink of files
+     * @param manifest Target of the checksums or null when no checksums are required
+     * @return The sink
+     */
+    @NotNull
+    public static ContentSink withDigest(@NotNull ContentSink sink, @Nullable ContentManifest manifest) {
+        if (manifest == null) {
+            return sink;
+        }
+
+        Map<String, String> checksums = new LinkedHashMap<>();
+        return new ContentSink() {
+            @Override
+            @NotNull
+            public WritableByteChannel open(int shard, boolean sharded) throws IOException {
+                MessageDigest digest;
+                try {
+                    digest = MessageDigest.getInstance("SHA-256");
+                } catch (NoSuchAlgorithmException ex) {
+                    throw new AppRuntimeException(ex.getMessage(), ex);
+                }
+
+                WritableByteChannel channel = sink.open(shard, sharded);
+                List<Path> files = sink.getFiles();
+                String name = files.get(files.size() - 1).getFileName().toString();
+
+                return new WritableByteChannel() {
+                    @Override
+                    public int write(ByteBuffer src) throws IOException {
+                        ByteBuffer written = src.duplicate();
+                        int count = channel.write(src);
+                        digest.update(written.limit(written.position() + count));
+                        return count;
+                    }
+
+                    @Override
+                    public boolean isOpen() {
+                        return channel.isOpen();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        if (channel.isOpen()) {
+                            checksums.put(name, HexFormat.of().formatHex(digest.digest()));
+                        }
+                        channel.close();
+                    }
+                };
+            }
+
+            @Override
+            @NotNull
+            public OutputCompression getCompression() {
+                return sink.getCompression();
+            }
+
+            @Override
+            public boolean isShardable() {
+                return sink.isShardable();
+            }
+
+            @Override
+            @NotNull
+            public List<Path> getFiles() {
+                return sink.getFiles();
+            }
+
+            @Override
+            public void commit() throws IOException {
+                sink.commit();
+                checksums.forEach(manifest::add);
+            }
+
+            @Override
+            public void close() throws IOException {
+                sink.close();
+            }
+        };
+    }
+
+    /**
+     * Channel which doesn't close the delegate.
+     */
+    private record UnclosedChannel(@NotNull WritableByteChannel delegate) implements WritableByteChannel {
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return delegate.write(src);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return delegate.isOpen();
+        }
+
+        @Override
+        public void close() {
+            // Closed by the owner of the delegate
+        }
+
+    }
+
+}
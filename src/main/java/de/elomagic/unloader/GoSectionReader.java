@@ -0,0 +1,255 @@
+package de.elomagic.unloader;
+
+import de.elomagic.AppRuntimeException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Incremental tokenizer which splits a SQLAnywhere reload script into GO sections.
+ * <p>
+ * The script is read in fixed size chunks from a {@link ReadableByteChannel} and decoded on the fly. CRLF line breaks
+ * are treated like LF. A section starts on a line beginning with a word character and ends with the first "go"
+ * followed by an empty line, which is the same semantic as the former regular expression <code>(^\w.*?go\n\n)</code>.
+ * <p>
+ * Heap usage is bounded by the chunk size plus the largest section.
+ */
+public class GoSectionReader implements Iterator<String>, Closeable {
+
+    private static final Logger LOGGER = LogManager.getLogger(GoSectionReader.class);
+
+    private static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+    // Must hold at least one encoded char of any charset
+    private static final int MIN_CHUNK_SIZE = 8;
+
+    private final ReadableByteChannel channel;
+    private final CharsetDecoder decoder;
+    private final ByteBuffer bytes;
+    private final CharBuffer chars;
+    private final StringBuilder section = new StringBuilder();
+
+    private boolean endOfInput;
+    private boolean flushed;
+    private boolean pendingCR;
+    private boolean lineStart = true;
+    private boolean inSection;
+    private String next;
+    private long count;
+
+    public GoSectionReader(@NotNull ReadableByteChannel channel, @NotNull Charset encoding) {
+        this(channel, encoding, DEFAULT_CHUNK_SIZE);
+    }
+
+    public GoSectionReader(@NotNull ReadableByteChannel channel, @NotNull Charset encoding, int chunkSize) {
+        this.channel = channel;
+        this.decoder = encoding
+                .newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        this.bytes = ByteBuffer.allocateDirect(Math.max(chunkSize, MIN_CHUNK_SIZE));
+        this.chars = CharBuffer.allocate(Math.max(chunkSize, MIN_CHUNK_SIZE));
+        // Decoded chars are read from the buffer, so it starts empty in read mode
+        this.chars.flip();
+    }
+
+    /**
+     * Opens the given file and returns a lazy stream of his GO sections.
+     * <p>
+     * The returned stream must be closed to release the file.
+     *
+     * @param file Reload script
+     * @param encoding Encoding of the reload script
+     * @return Lazy stream of GO sections
+     */
+    @NotNull
+    public static Stream<String> stream(@NotNull Path file, @NotNull Charset encoding) throws IOException {
+        GoSectionReader reader = new GoSectionReader(FileChannel.open(file, StandardOpenOption.READ), encoding);
+
+        return StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(reader, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(reader::closeQuietly);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = readSection();
+        }
+
+        return next != null;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        String result = next;
+        next = null;
+        return result;
+    }
+
+    /**
+     * @return Count of sections returned so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private String readSection() {
+        while (true) {
+            while (chars.hasRemaining()) {
+                char c = chars.get();
+
+                if (pendingCR) {
+                    pendingCR = false;
+                    if (c != '\n') {
+                        // Single CR is kept. It never completes a section
+                        accept('\r');
+                    }
+                }
+
+                if (c == '\r') {
+                    pendingCR = true;
+                } else if (accept(c)) {
+                    return emit();
+                }
+            }
+
+            if (!fill()) {
+                if (pendingCR) {
+                    pendingCR = false;
+                    accept('\r');
+                }
+
+                // An unterminated section at the end of the script is not a GO section
+                LOGGER.debug("{} GO sections found.", count);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Processes a single, line break normalized character.
+     *
+     * @return true when the character completes a GO section
+     */
+    private boolean accept(char c) {
+        if (!inSection) {
+            if (lineStart && isWordChar(c)) {
+                inSection = true;
+                section.append(c);
+            } else {
+                lineStart = isLineTerminator(c);
+            }
+
+            return false;
+        }
+
+        section.append(c);
+
+        return c == '\n' && endsWithGo();
+    }
+
+    private String emit() {
+        String result = section.toString();
+        LOGGER.trace("GO found: {}", result);
+        section.setLength(0);
+        inSection = false;
+        lineStart = true;
+        count++;
+        return result;
+    }
+
+    private boolean endsWithGo() {
+        // The leading word character of a section can't be part of the closing "go\n\n"
+        int length = section.length();
+        return length >= 5
+                && section.charAt(length - 2) == '\n'
+                && section.charAt(length - 3) == 'o'
+                && section.charAt(length - 4) == 'g';
+    }
+
+    /**
+     * Reads and decodes the next chunk of the channel.
+     *
+     * @return false when no more chars available
+     */
+    private boolean fill() {
+        if (flushed) {
+            return false;
+        }
+
+        try {
+            chars.compact();
+
+            while (chars.position() == 0) {
+                if (!endOfInput && channel.read(bytes) == -1) {
+                    endOfInput = true;
+                }
+
+                bytes.flip();
+                CoderResult result = decoder.decode(bytes, chars, endOfInput);
+                bytes.compact();
+                if (result.isError()) {
+                    result.throwException();
+                }
+
+                if (endOfInput) {
+                    decoder.flush(chars);
+                    flushed = true;
+                    break;
+                }
+            }
+
+            chars.flip();
+            return chars.hasRemaining();
+        } catch (IOException ex) {
+            throw new AppRuntimeException("Unable to read reload script: " + ex.getMessage(), ex);
+        }
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+}
@@ -0,0 +1,68 @@
+package de.elomagic.unloader;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses a block into a complete gzip member (RFC 1952).
+ * <p>
+ * Every member has his own header and trailer and doesn't depend on other members, so blocks can be compressed
+ * concurrently and written in order.
+ */
+final class GzipBlockCompressor {
+
+    private static final byte[] HEADER = {
+            0x1F, (byte)0x8B,
+            // Deflate, no flags
+            Deflater.DEFLATED, 0,
+            // No modification time
+            0, 0, 0, 0,
+            // No extra flags, unknown OS
+            0, (byte)0xFF
+    };
+
+    private static final ThreadLocal<Deflater> DEFLATERS = ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+
+    private GzipBlockCompressor() {
+    }
+
+    /**
+     * @param block Bytes to compress. Will be consumed
+     * @return Flipped buffer of the gzip member
+     */
+    @NotNull
+    static ByteBuffer compress(@NotNull ByteBuffer block) {
+        int length = block.remaining();
+
+        CRC32 crc = new CRC32();
+        crc.update(block.duplicate());
+
+        Deflater deflater = DEFLATERS.get();
+        deflater.reset();
+        deflater.setInput(block);
+        deflater.finish();
+
+        // Stored blocks of deflate grow by 5 bytes per 16 KB in worst case
+        ByteBuffer out = ByteBuffer.allocate(HEADER.length + length + (length >> 12) + 64).order(ByteOrder.LITTLE_ENDIAN);
+        out.put(HEADER);
+        while (!deflater.finished()) {
+            if (!out.hasRemaining()) {
+                out = ByteBuffer.allocate(out.capacity() * 2).order(ByteOrder.LITTLE_ENDIAN).put(out.flip());
+            }
+            deflater.deflate(out);
+        }
+
+        if (out.remaining() < 8) {
+            out = ByteBuffer.allocate(out.capacity() + 8).order(ByteOrder.LITTLE_ENDIAN).put(out.flip());
+        }
+        out.putInt((int)crc.getValue());
+        out.putInt(length);
+
+        return out.flip();
+    }
+
+}
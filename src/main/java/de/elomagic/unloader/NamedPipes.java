@@ -0,0 +1,143 @@
+package de.elomagic.unloader;
+
+import de.elomagic.Configuration;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Named pipes (FIFOs) of the table content. A pipe is consumed by the load script of the target database while the
+ * unloader writes into it, so the content is never staged on disk.
+ */
+final class NamedPipes {
+
+    @FunctionalInterface
+    interface ChannelWriter {
+
+        void write(@NotNull WritableByteChannel channel) throws IOException, SQLException;
+
+    }
+
+    private NamedPipes() {
+    }
+
+    static boolean isEnabled() {
+        return Configuration.getBoolean(Configuration.TARGET_OUTPUT_PIPES);
+    }
+
+    /**
+     * Creates a named pipe by <code>mkfifo</code>. An existing file will be replaced.
+     *
+     * @param file File of the pipe
+     */
+    static void create(@NotNull Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.deleteIfExists(file);
+
+        Process process = new ProcessBuilder("mkfifo", file.toString()).redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+        try {
+            if (process.waitFor() != 0) {
+                throw new IOException("Unable to create named pipe '%s': %s".formatted(file, output));
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while creating named pipe '%s'".formatted(file), ex);
+        }
+    }
+
+    /**
+     * Writes into a named pipe. Opening the pipe blocks until the reader has opened it, but not longer than
+     * configured by {@link Configuration#TARGET_OUTPUT_PIPES_TIMEOUT}.
+     * <p>
+     * When writing fails, a line is appended which can't be parsed by COPY, so the reader fails too instead of
+     * loading only a part of the content.
+     *
+     * @param file File of the pipe
+     * @param columns Count of columns of the content
+     * @param writer Writes the content into the pipe
+     */
+    static void write(@NotNull Path file, int columns, @NotNull ChannelWriter writer) throws IOException, SQLException {
+        try (FileChannel pipe = open(file, columns, Configuration.getLong(Configuration.TARGET_OUTPUT_PIPES_TIMEOUT))) {
+            try {
+                writer.write(pipe);
+            } catch (IOException | SQLException | RuntimeException ex) {
+                try {
+                    writeFailure(pipe, columns);
+                } catch (IOException markerEx) {
+                    ex.addSuppressed(markerEx);
+                }
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Opens the writing end of a named pipe. When no reader opens the pipe within the timeout, the blocked open is
+     * released by opening the reading end here, so the unload fails instead of waiting forever.
+     *
+     * @param timeout Max seconds to wait for the reader
+     */
+    @NotNull
+    static FileChannel open(@NotNull Path file, int columns, long timeout) throws IOException {
+        FutureTask<FileChannel> opening = new FutureTask<>(() -> FileChannel.open(file, StandardOpenOption.WRITE));
+        Thread thread = new Thread(opening, "pipe-" + file.getFileName());
+        thread.setDaemon(true);
+        thread.start();
+
+        try {
+            return opening.get(timeout, TimeUnit.SECONDS);
+        } catch (TimeoutException ex) {
+            FileChannel reader = null;
+            try {
+                // Releases the blocked open of the writing end
+                reader = FileChannel.open(file, StandardOpenOption.READ);
+                try (FileChannel pipe = opening.get()) {
+                    // A reader which opened the pipe just now must not load the pipe as empty content
+                    writeFailure(pipe, columns);
+                }
+            } catch (ExecutionException | InterruptedException | IOException closeEx) {
+                ex.addSuppressed(closeEx);
+            } finally {
+                if (reader != null) {
+                    try {
+                        reader.close();
+                    } catch (IOException closeEx) {
+                        ex.addSuppressed(closeEx);
+                    }
+                }
+            }
+            throw new IOException("No reader opened the named pipe '%s' within %d seconds. Is the load script running?".formatted(file, timeout), ex);
+        } catch (ExecutionException ex) {
+            throw ex.getCause() instanceof IOException ioException ? ioException : new IOException(ex.getCause().getMessage(), ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while opening named pipe '%s'".formatted(file), ex);
+        }
+    }
+
+    /**
+     * Appends a line which can't be parsed by COPY, so the reader fails too instead of loading only a part of the
+     * content.
+     */
+    private static void writeFailure(@NotNull FileChannel pipe, int columns) throws IOException {
+        ByteBuffer marker = ByteBuffer.wrap(("\nunload failed" + ",unload failed".repeat(columns) + "\n").getBytes(StandardCharsets.US_ASCII));
+        while (marker.hasRemaining()) {
+            pipe.write(marker);
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+package de.elomagic.unloader;
+
+import de.elomagic.AppRuntimeException;
+import de.elomagic.Configuration;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+
+/**
+ * Compression of the table content files.
+ */
+public enum OutputCompression {
+
+    NONE(""),
+    /**
+     * Independent gzip members per block, so blocks can be compressed in parallel. Concatenated members are a valid
+     * gzip file.
+     */
+    GZIP(".gz");
+
+    private final String fileSuffix;
+
+    OutputCompression(@NotNull String fileSuffix) {
+        this.fileSuffix = fileSuffix;
+    }
+
+    /**
+     * @return Suffix of a compressed file including the dot or empty
+     */
+    @NotNull
+    public String getFileSuffix() {
+        return fileSuffix;
+    }
+
+    /**
+     * @return Compression of the configuration
+     */
+    @NotNull
+    public static OutputCompression getConfigured() {
+        return parse(Configuration.getString(Configuration.TARGET_OUTPUT_COMPRESSION));
+    }
+
+    @NotNull
+    public static OutputCompression parse(@NotNull String compression) {
+        try {
+            return valueOf(compression.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new AppRuntimeException("Unsupported output compression '" + compression + "'.");
+        }
+    }
+
+}
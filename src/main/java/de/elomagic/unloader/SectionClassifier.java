@@ -0,0 +1,200 @@
+package de.elomagic.unloader;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Classifies a GO section by his leading keywords.
+ * <p>
+ * The keywords are read once from the start of the section and looked up in a small keyword trie. Quoted identifiers
+ * like <code>"dba"."TABLE_NAME"</code> are read as a single token and only matched by wildcards. Comments between the
+ * keywords are skipped like white space.
+ */
+public final class SectionClassifier {
+
+    private static final String WILDCARD = "*";
+    private static final int MAX_KEYWORDS = 8;
+
+    private static final Node ROOT = new Node();
+
+    static {
+        register(SectionKind.CREATE_TABLE, "CREATE TABLE");
+        register(SectionKind.CREATE_SEQUENCE, "CREATE SEQUENCE");
+        register(SectionKind.CREATE_INDEX, "CREATE INDEX");
+        register(SectionKind.CREATE_INDEX, "CREATE UNIQUE INDEX");
+        register(SectionKind.TABLE_COMMENT, "COMMENT ON TABLE");
+        register(SectionKind.COLUMN_COMMENT, "COMMENT ON COLUMN");
+        register(SectionKind.INDEX_COMMENT, "COMMENT ON INDEX");
+        register(SectionKind.TABLE_CONSTRAINT, "ALTER TABLE * ADD UNIQUE");
+        register(SectionKind.TABLE_CONSTRAINT, "ALTER TABLE * ADD CONSTRAINT * UNIQUE");
+        register(SectionKind.FOREIGN_KEY, "ALTER TABLE * ADD FOREIGN KEY");
+        register(SectionKind.FOREIGN_KEY, "ALTER TABLE * ADD NOT NULL FOREIGN KEY");
+        register(SectionKind.LOAD_TABLE, "LOAD TABLE");
+        register(SectionKind.RESET_IDENTITY, "CALL DBO.SA_RESET_IDENTITY");
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private Node wildcard;
+        private SectionKind kind;
+    }
+
+    private SectionClassifier() {
+    }
+
+    private static void register(@NotNull SectionKind kind, @NotNull String keywords) {
+        Node node = ROOT;
+        for (String keyword : keywords.split(" ")) {
+            if (WILDCARD.equals(keyword)) {
+                node.wildcard = node.wildcard == null ? new Node() : node.wildcard;
+                node = node.wildcard;
+            } else {
+                node = node.children.computeIfAbsent(keyword, k -> new Node());
+            }
+        }
+        node.kind = kind;
+    }
+
+    /**
+     * Returns the kind of the given section.
+     *
+     * @param section GO section
+     * @return Kind of the section or {@link SectionKind#OTHER} when unknown
+     */
+    @NotNull
+    public static SectionKind classify(@NotNull CharSequence section) {
+        Tokenizer tokenizer = new Tokenizer(section);
+
+        Node node = ROOT;
+        for (int i = 0; i < MAX_KEYWORDS && node.kind == null; i++) {
+            String token = tokenizer.next();
+            if (token == null) {
+                break;
+            }
+
+            Node child = tokenizer.quoted ? null : node.children.get(token);
+            node = child == null ? node.wildcard : child;
+            if (node == null) {
+                break;
+            }
+        }
+
+        return node == null || node.kind == null ? SectionKind.OTHER : node.kind;
+    }
+
+    /**
+     * Returns up to the first two keywords of a section, e.g. "CREATE PROCEDURE" or "GRANT CONNECT".
+     *
+     * @param section GO section
+     * @return Leading keywords in upper case
+     */
+    @NotNull
+    public static String leadingKeywords(@NotNull CharSequence section) {
+        Tokenizer tokenizer = new Tokenizer(section);
+
+        String first = tokenizer.next();
+        if (first == null || tokenizer.quoted) {
+            return "?";
+        }
+
+        String second = tokenizer.next();
+        return second == null || tokenizer.quoted ? first : first + " " + second;
+    }
+
+    /**
+     * Reads unquoted words in upper case and quoted, optional qualified identifiers as single tokens.
+     */
+    private static final class Tokenizer {
+
+        private final CharSequence text;
+        private int position;
+        private boolean quoted;
+
+        private Tokenizer(@NotNull CharSequence text) {
+            this.text = text;
+        }
+
+        @Nullable
+        private String next() {
+            skipWhitespaceAndComments();
+
+            int length = text.length();
+            if (position == length) {
+                return null;
+            }
+
+            int start = position;
+            char c = text.charAt(position);
+            if (isWordChar(c)) {
+                while (position < length && isWordChar(text.charAt(position))) {
+                    position++;
+                }
+                quoted = false;
+                return text.subSequence(start, position).toString().toUpperCase(Locale.ROOT);
+            } else if (c == '"') {
+                // Qualified identifier like "dba"."TABLE_NAME"
+                skipQuoted();
+                while (position + 1 < length && text.charAt(position) == '.' && text.charAt(position + 1) == '"') {
+                    position++;
+                    skipQuoted();
+                }
+                quoted = true;
+                return text.subSequence(start, position).toString();
+            }
+
+            // Any other char like a bracket stops the keyword lookup
+            return null;
+        }
+
+        private void skipWhitespaceAndComments() {
+            int length = text.length();
+            while (position < length) {
+                char c = text.charAt(position);
+                char next = position + 1 < length ? text.charAt(position + 1) : 0;
+                if (Character.isWhitespace(c)) {
+                    position++;
+                } else if ((c == '-' && next == '-') || (c == '/' && next == '/')) {
+                    // Line comment
+                    while (position < length && text.charAt(position) != '\n') {
+                        position++;
+                    }
+                } else if (c == '/' && next == '*') {
+                    // Block comment
+                    position += 2;
+                    while (position + 1 < length && !(text.charAt(position) == '*' && text.charAt(position + 1) == '/')) {
+                        position++;
+                    }
+                    position = Math.min(position + 2, length);
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private void skipQuoted() {
+            int length = text.length();
+            // Skip opening quote
+            position++;
+            while (position < length) {
+                if (text.charAt(position++) == '"') {
+                    if (position < length && text.charAt(position) == '"') {
+                        // Escaped quote
+                        position++;
+                    } else {
+                        return;
+                    }
+                }
+            }
+        }
+
+        private static boolean isWordChar(char c) {
+            return Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '$' || c == '#' || c == '@';
+        }
+
+    }
+
+}
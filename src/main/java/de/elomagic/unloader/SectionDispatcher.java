@@ -0,0 +1,177 @@
+package de.elomagic.unloader;
+
+import de.elomagic.AppRuntimeException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Routes GO sections by their {@link SectionKind} to the registered handler.
+ * <p>
+ * A handler parses the section and returns the step which applies the result. Sections can be parsed on a thread pool
+ * but the steps are always applied in order of the sections by the calling thread, so the result is the same as of a
+ * sequential run.
+ * <p>
+ * Sections without a handler are not logged but counted by their leading keywords.
+ */
+public class SectionDispatcher {
+
+    private static final Logger LOGGER = LogManager.getLogger(SectionDispatcher.class);
+
+    /**
+     * Max count of parsed but not applied sections per thread.
+     */
+    private static final int PENDING_SECTIONS_PER_THREAD = 64;
+
+    private final Map<SectionKind, Function<String, Runnable>> handlers = new EnumMap<>(SectionKind.class);
+    private final Map<SectionKind, LongAdder> processed = new EnumMap<>(SectionKind.class);
+    private final Map<String, LongAdder> ignored = new ConcurrentHashMap<>();
+
+    public SectionDispatcher() {
+        for (SectionKind kind : SectionKind.values()) {
+            processed.put(kind, new LongAdder());
+        }
+    }
+
+    /**
+     * Registers the handler of a section kind.
+     *
+     * @param kind Kind of section
+     * @param handler Handler, which will be called with the section and returns the step which applies the result
+     * @return This instance
+     */
+    @NotNull
+    public SectionDispatcher on(@NotNull SectionKind kind, @NotNull Function<String, Runnable> handler) {
+        handlers.put(kind, handler);
+        return this;
+    }
+
+    public void dispatch(@NotNull String section) {
+        Runnable step = parse(section);
+        if (step != null) {
+            step.run();
+        }
+    }
+
+    /**
+     * Dispatches all sections.
+     *
+     * @param sections Sections in order of the reload script
+     * @param threads Count of threads which are parsing the sections. Less than 2 parses in the calling thread
+     */
+    public void dispatchAll(@NotNull Stream<String> sections, int threads) {
+        if (threads < 2) {
+            sections.forEach(this::dispatch);
+            return;
+        }
+
+        LOGGER.debug("Parsing sections with {} threads", threads);
+
+        int maxPending = threads * PENDING_SECTIONS_PER_THREAD;
+        Deque<Future<Runnable>> pending = new ArrayDeque<>(maxPending);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Iterator<String> iterator = sections.iterator();
+            while (iterator.hasNext()) {
+                String section = iterator.next();
+                pending.add(executor.submit(() -> parse(section)));
+
+                while (pending.size() >= maxPending || (!pending.isEmpty() && pending.peek().isDone())) {
+                    apply(pending.poll());
+                }
+            }
+
+            while (!pending.isEmpty()) {
+                apply(pending.poll());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Nullable
+    private Runnable parse(@NotNull String section) {
+        SectionKind kind = SectionClassifier.classify(section);
+
+        Function<String, Runnable> handler = handlers.get(kind);
+        if (handler == null) {
+            String key = kind == SectionKind.OTHER ? SectionClassifier.leadingKeywords(section) : kind.name();
+            ignored.computeIfAbsent(key, k -> new LongAdder()).increment();
+            return null;
+        }
+
+        Runnable step = handler.apply(section);
+        processed.get(kind).increment();
+        return step;
+    }
+
+    private void apply(@NotNull Future<Runnable> future) {
+        try {
+            Runnable step = future.get();
+            if (step != null) {
+                step.run();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new AppRuntimeException(ex.getMessage(), ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new AppRuntimeException(ex.getCause().getMessage(), ex.getCause());
+        }
+    }
+
+    /**
+     * @return Count of processed sections by kind
+     */
+    @NotNull
+    public Map<SectionKind, Long> getProcessedCounts() {
+        Map<SectionKind, Long> result = new EnumMap<>(SectionKind.class);
+        processed.forEach((k, v) -> result.put(k, v.sum()));
+        return result;
+    }
+
+    /**
+     * @return Count of ignored sections by their leading keywords
+     */
+    @NotNull
+    public Map<String, Long> getIgnoredCounts() {
+        Map<String, Long> result = new TreeMap<>();
+        ignored.forEach((k, v) -> result.put(k, v.sum()));
+        return result;
+    }
+
+    public void logSummary() {
+        LOGGER.info("Processed sections: {}", getProcessedCounts()
+                .entrySet()
+                .stream()
+                .filter(e -> e.getValue() > 0)
+                .map(e -> e.getKey() + "=" + e.getValue())
+                .collect(Collectors.joining(", ")));
+        LOGGER.info("Ignored sections: {}", getIgnoredCounts()
+                .entrySet()
+                .stream()
+                .map(e -> e.getKey() + "=" + e.getValue())
+                .collect(Collectors.joining(", ")));
+    }
+
+}
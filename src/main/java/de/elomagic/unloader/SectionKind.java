@@ -0,0 +1,29 @@
+package de.elomagic.unloader;
+
+/**
+ * Kinds of GO sections of a SQLAnywhere reload script which can be processed.
+ */
+public enum SectionKind {
+
+    CREATE_TABLE,
+    CREATE_SEQUENCE,
+    CREATE_INDEX,
+    TABLE_COMMENT,
+    COLUMN_COMMENT,
+    INDEX_COMMENT,
+    /**
+     * ALTER TABLE ... ADD [CONSTRAINT ...] UNIQUE
+     */
+    TABLE_CONSTRAINT,
+    /**
+     * ALTER TABLE ... ADD [NOT NULL] FOREIGN KEY
+     */
+    FOREIGN_KEY,
+    LOAD_TABLE,
+    RESET_IDENTITY,
+    /**
+     * Any other section
+     */
+    OTHER
+
+}
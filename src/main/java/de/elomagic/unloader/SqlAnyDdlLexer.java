@@ -0,0 +1,393 @@
+package de.elomagic.unloader;
+
+import de.elomagic.AppRuntimeException;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Linear time tokenizer for the SQLAnywhere DDL subset of reload scripts.
+ * <p>
+ * The lexer is a cursor over the section. It holds only the current token and creates strings on demand.
+ */
+public final class SqlAnyDdlLexer {
+
+    public enum TokenType {
+        /**
+         * Unquoted identifier or keyword
+         */
+        WORD,
+        /**
+         * Quoted identifier like "TABLE_NAME"
+         */
+        IDENTIFIER,
+        /**
+         * String literal like 'Some text'
+         */
+        STRING,
+        NUMBER,
+        /**
+         * Any other single character like a bracket or a comma
+         */
+        SYMBOL,
+        EOF
+    }
+
+    private final String text;
+    private int position;
+
+    private TokenType type;
+    private int start;
+    private int end;
+    private int previousEnd;
+
+    public SqlAnyDdlLexer(@NotNull String text) {
+        this.text = text;
+        next();
+    }
+
+    @NotNull
+    public TokenType type() {
+        return type;
+    }
+
+    /**
+     * @return Offset of the first char of the current token
+     */
+    public int start() {
+        return start;
+    }
+
+    /**
+     * @return Offset after the last char of the current token
+     */
+    public int end() {
+        return end;
+    }
+
+    /**
+     * @return Offset after the last char of the previous token
+     */
+    public int previousEnd() {
+        return previousEnd;
+    }
+
+    @NotNull
+    public String source() {
+        return text;
+    }
+
+    /**
+     * Moves the cursor to the next token.
+     */
+    public void next() {
+        previousEnd = end;
+
+        skipWhitespacesAndComments();
+
+        start = position;
+
+        if (position >= text.length()) {
+            type = TokenType.EOF;
+        } else {
+            char c = text.charAt(position);
+            if (c == '"') {
+                type = TokenType.IDENTIFIER;
+                position = skipQuoted(position, '"');
+            } else if (c == '\'') {
+                type = TokenType.STRING;
+                position = skipQuoted(position, '\'');
+            } else if (isDigit(c)) {
+                type = TokenType.NUMBER;
+                while (position < text.length() && (isDigit(text.charAt(position)) || text.charAt(position) == '.')) {
+                    position++;
+                }
+            } else if (isWordStart(c)) {
+                type = TokenType.WORD;
+                while (position < text.length() && isWordPart(text.charAt(position))) {
+                    position++;
+                }
+            } else {
+                type = TokenType.SYMBOL;
+                position++;
+            }
+        }
+
+        end = position;
+    }
+
+    /**
+     * @return true when the current token is the given keyword. Keywords are case-insensitive.
+     */
+    public boolean isKeyword(@NotNull String keyword) {
+        return type == TokenType.WORD
+                && end - start == keyword.length()
+                && text.regionMatches(true, start, keyword, 0, keyword.length());
+    }
+
+    /**
+     * @param keywords Set of upper case keywords
+     * @return true when the current token is one of the given keywords
+     */
+    public boolean isKeywordOf(@NotNull Set<String> keywords) {
+        return type == TokenType.WORD && keywords.contains(text.substring(start, end).toUpperCase(Locale.ROOT));
+    }
+
+    public boolean isSymbol(char symbol) {
+        return type == TokenType.SYMBOL && text.charAt(start) == symbol;
+    }
+
+    /**
+     * Returns the value of the current token. Quoted identifiers and strings will be returned without quotes and
+     * unescaped.
+     *
+     * @return Value of the token
+     */
+    @NotNull
+    public String value() {
+        return switch (type) {
+            case IDENTIFIER -> unescapeIdentifier(start + 1, end - 1);
+            case STRING -> unescapeString(start + 1, end - 1);
+            default -> text.substring(start, end);
+        };
+    }
+
+    /**
+     * Consumes the given keyword.
+     *
+     * @throws AppRuntimeException Thrown when the current token is not the keyword
+     */
+    public void expectKeyword(@NotNull String keyword) throws AppRuntimeException {
+        if (!isKeyword(keyword)) {
+            throw unexpected("keyword " + keyword);
+        }
+        next();
+    }
+
+    /**
+     * Consumes the given symbol.
+     *
+     * @throws AppRuntimeException Thrown when the current token is not the symbol
+     */
+    public void expectSymbol(char symbol) throws AppRuntimeException {
+        if (!isSymbol(symbol)) {
+            throw unexpected("'" + symbol + "'");
+        }
+        next();
+    }
+
+    /**
+     * Consumes the given keyword when present.
+     *
+     * @return true when keyword was consumed
+     */
+    public boolean acceptKeyword(@NotNull String keyword) {
+        if (isKeyword(keyword)) {
+            next();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Consumes the given symbol when present.
+     *
+     * @return true when symbol was consumed
+     */
+    public boolean acceptSymbol(char symbol) {
+        if (isSymbol(symbol)) {
+            next();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Consumes a quoted or unquoted identifier.
+     *
+     * @return Name of the identifier
+     * @throws AppRuntimeException Thrown when the current token is not an identifier
+     */
+    @NotNull
+    public String expectIdentifier() throws AppRuntimeException {
+        if (type != TokenType.IDENTIFIER && type != TokenType.WORD) {
+            throw unexpected("identifier");
+        }
+        String value = value();
+        next();
+        return value;
+    }
+
+    /**
+     * Consumes a string literal.
+     *
+     * @return Unescaped value of the string
+     * @throws AppRuntimeException Thrown when the current token is not a string
+     */
+    @NotNull
+    public String expectString() throws AppRuntimeException {
+        if (type != TokenType.STRING) {
+            throw unexpected("string");
+        }
+        String value = value();
+        next();
+        return value;
+    }
+
+    /**
+     * Consumes an optional signed number.
+     *
+     * @return Number as text
+     * @throws AppRuntimeException Thrown when the current token is not a number
+     */
+    @NotNull
+    public String expectNumber() throws AppRuntimeException {
+        boolean negative = acceptSymbol('-');
+        if (type != TokenType.NUMBER) {
+            throw unexpected("number");
+        }
+        String value = negative ? "-" + value() : value();
+        next();
+        return value;
+    }
+
+    /**
+     * Skips the current token. When it is an opening bracket, the whole bracket block will be skipped.
+     */
+    public void skip() {
+        if (isSymbol('(')) {
+            skipBrackets();
+        } else {
+            next();
+        }
+    }
+
+    /**
+     * Skips a block of balanced brackets starting with the current token.
+     */
+    public void skipBrackets() {
+        int depth = 0;
+        do {
+            if (type == TokenType.EOF) {
+                throw unexpected("')'");
+            } else if (isSymbol('(')) {
+                depth++;
+            } else if (isSymbol(')')) {
+                depth--;
+            }
+            next();
+        } while (depth > 0);
+    }
+
+    @NotNull
+    public AppRuntimeException unexpected(@NotNull String expected) {
+        String found = type == TokenType.EOF ? "end of section" : "'" + text.substring(start, end) + "'";
+        return new AppRuntimeException("Expected %s but found %s at offset %d".formatted(expected, found, start));
+    }
+
+    private void skipWhitespacesAndComments() {
+        int length = text.length();
+        while (position < length) {
+            char c = text.charAt(position);
+            if (Character.isWhitespace(c)) {
+                position++;
+            } else if ((c == '-' || c == '/') && position + 1 < length && text.charAt(position + 1) == c) {
+                // Line comment
+                while (position < length && text.charAt(position) != '\n') {
+                    position++;
+                }
+            } else if (c == '/' && position + 1 < length && text.charAt(position + 1) == '*') {
+                int close = text.indexOf("*/", position + 2);
+                position = close == -1 ? length : close + 2;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private int skipQuoted(int offset, char quote) {
+        int length = text.length();
+        int i = offset + 1;
+        while (i < length) {
+            char c = text.charAt(i++);
+            if (c == quote) {
+                if (i < length && text.charAt(i) == quote) {
+                    // Escaped quote
+                    i++;
+                } else {
+                    return i;
+                }
+            }
+        }
+
+        throw new AppRuntimeException("Unterminated quote at offset %d".formatted(offset));
+    }
+
+    @NotNull
+    private String unescapeIdentifier(int from, int to) {
+        String value = text.substring(from, to);
+        return value.indexOf('"') == -1 ? value : value.replace("\"\"", "\"");
+    }
+
+    /**
+     * Unescapes a SQLAnywhere string literal. Supported are doubled quotes and the escape sequences \\, \n and \xHH.
+     */
+    @NotNull
+    private String unescapeString(int from, int to) {
+        int i = from;
+        while (i < to && text.charAt(i) != '\'' && text.charAt(i) != '\\') {
+            i++;
+        }
+
+        if (i == to) {
+            return text.substring(from, to);
+        }
+
+        StringBuilder sb = new StringBuilder(to - from);
+        sb.append(text, from, i);
+        while (i < to) {
+            char c = text.charAt(i++);
+            if (c == '\'' && i < to && text.charAt(i) == '\'') {
+                sb.append('\'');
+                i++;
+            } else if (c == '\\' && i < to) {
+                char e = text.charAt(i);
+                if (e == '\\') {
+                    sb.append('\\');
+                    i++;
+                } else if (e == 'n') {
+                    sb.append('\n');
+                    i++;
+                } else if ((e == 'x' || e == 'X') && i + 2 < to && isHex(text.charAt(i + 1)) && isHex(text.charAt(i + 2))) {
+                    sb.append((char)Integer.parseInt(text, i + 1, i + 3, 16));
+                    i += 3;
+                } else {
+                    sb.append(c);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+
+        return sb.toString();
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isHex(char c) {
+        return isDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    private static boolean isWordStart(char c) {
+        return Character.isLetter(c) || c == '_' || c == '$' || c == '#' || c == '@';
+    }
+
+    private static boolean isWordPart(char c) {
+        return isWordStart(c) || isDigit(c);
+    }
+
+}
@@ -0,0 +1,528 @@
+package de.elomagic.unloader;
+
+import de.elomagic.AppRuntimeException;
+import de.elomagic.dto.DbColumn;
+import de.elomagic.dto.DbDataType;
+import de.elomagic.dto.DbForeignKey;
+import de.elomagic.dto.DbIndex;
+import de.elomagic.dto.DbSequence;
+import de.elomagic.dto.DbTable;
+import de.elomagic.dto.DbTableConstraint;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Recursive descent parser for the SQLAnywhere DDL statements of a reload script.
+ * <p>
+ * Every parse method reads exactly one statement from the start of a GO section and fills the DTO's directly.
+ */
+public class SqlAnyDdlParser {
+
+    /**
+     * Keywords which terminates a data type or a default value of a column definition.
+     */
+    private static final Set<String> COLUMN_ATTRIBUTES = Set.of(
+            "NOT", "NULL", "DEFAULT", "INLINE", "PREFIX", "COMPUTE", "CHECK", "IDENTITY", "UNIQUE", "PRIMARY",
+            "REFERENCES", "CONSTRAINT");
+
+    private static final Set<String> DEFAULT_TERMINATORS = Set.of(
+            "INLINE", "PREFIX", "COMPUTE", "CHECK", "UNIQUE", "PRIMARY", "REFERENCES", "CONSTRAINT");
+
+    public record QualifiedName(@Nullable String owner, @NotNull String name) {}
+
+    public record TableConstraint(@Nullable String owner, @NotNull String tableName, @NotNull DbTableConstraint constraint) {}
+
+    /**
+     * Comment of a table, column or index.
+     *
+     * @param owner Owner of the table
+     * @param tableName Name of the table
+     * @param objectName Name of the column or index. Null for table comments
+     * @param comment The comment
+     */
+    public record Comment(@Nullable String owner, @NotNull String tableName, @Nullable String objectName, @Nullable String comment) {}
+
+    public record LoadTable(@Nullable String owner, @NotNull String tableName, @NotNull List<String> columns, @NotNull String file) {}
+
+    public record ResetIdentity(@Nullable String owner, @NotNull String tableName, long nextValue) {}
+
+    private final SqlAnyDdlLexer lexer;
+    private final Function<String, DbDataType> typeMapper;
+
+    /**
+     * @param section GO section
+     * @param typeMapper Maps the SQLAnywhere data type text like "varchar(20)" to a {@link DbDataType}
+     */
+    public SqlAnyDdlParser(@NotNull String section, @NotNull Function<String, DbDataType> typeMapper) {
+        this.lexer = new SqlAnyDdlLexer(section);
+        this.typeMapper = typeMapper;
+    }
+
+    /**
+     * <pre>
+     * CREATE TABLE "dba"."TABLE_NAME" (
+     *     "ID"                             integer NOT NULL DEFAULT autoincrement
+     *    ,"Feld2"                          char(20) NULL INLINE 20 PREFIX 8
+     *    ,"Amount"                         numeric(10,2) NOT NULL DEFAULT 0
+     *    ,CONSTRAINT "PK_NAME" PRIMARY KEY ("ID" ASC)
+     * ) IN "system"
+     * </pre>
+     */
+    @NotNull
+    public DbTable parseCreateTable() {
+        lexer.expectKeyword("CREATE");
+        lexer.expectKeyword("TABLE");
+
+        QualifiedName name = parseQualifiedName();
+
+        DbTable table = new DbTable();
+        table.owner = name.owner();
+        table.name = name.name();
+
+        lexer.expectSymbol('(');
+        int index = 0;
+        do {
+            String constraintName = lexer.acceptKeyword("CONSTRAINT") ? lexer.expectIdentifier() : null;
+
+            if (lexer.acceptKeyword("PRIMARY")) {
+                lexer.expectKeyword("KEY");
+                for (Pair<String, Boolean> c : parseSortedColumns()) {
+                    DbColumn column = table.columns.get(c.getKey());
+                    if (column == null) {
+                        throw new AppRuntimeException("Primary key column '" + c.getKey() + "' of table '" + table.name + "' not found");
+                    }
+                    column.primaryKey = true;
+                    table.primaryKey.add(column.name);
+                }
+            } else if (lexer.acceptKeyword("UNIQUE")) {
+                DbTableConstraint constraint = new DbTableConstraint();
+                constraint.name = constraintName;
+                parseSortedColumns().forEach(c -> constraint.columns.add(c.getKey()));
+                table.constraints.add(constraint);
+            } else if (constraintName == null && isColumnStart()) {
+                DbColumn column = parseColumn();
+                column.index = index++;
+                table.columns.put(column.name, column);
+                if (column.primaryKey) {
+                    table.primaryKey.add(column.name);
+                }
+            }
+
+            // Skip unsupported elements like CHECK or FOREIGN KEY
+            skipUntilElementEnd();
+        } while (lexer.acceptSymbol(','));
+        lexer.expectSymbol(')');
+
+        return table;
+    }
+
+    private boolean isColumnStart() {
+        return lexer.type() == SqlAnyDdlLexer.TokenType.IDENTIFIER
+                || (lexer.type() == SqlAnyDdlLexer.TokenType.WORD
+                        && !lexer.isKeyword("CHECK")
+                        && !lexer.isKeyword("FOREIGN")
+                        && !lexer.isKeyword("NOT"));
+    }
+
+    @NotNull
+    private DbColumn parseColumn() {
+        DbColumn column = new DbColumn();
+        column.name = lexer.expectIdentifier();
+        column.nullable = true;
+
+        // Data type, e.g. long varchar, "datetime", numeric(10,2)
+        String source = lexer.source();
+        int typeStart = lexer.start();
+        int typeEnd = typeStart;
+        while (isDataTypePart()) {
+            if (lexer.isSymbol('(')) {
+                parseWidthAndScale(column);
+            } else {
+                lexer.next();
+            }
+            typeEnd = lexer.previousEnd();
+        }
+
+        if (typeEnd == typeStart) {
+            throw lexer.unexpected("data type of column '" + column.name + "'");
+        }
+
+        column.datatype = typeMapper.apply(source.substring(typeStart, typeEnd));
+
+        while (lexer.type() != SqlAnyDdlLexer.TokenType.EOF && !lexer.isSymbol(',') && !lexer.isSymbol(')')) {
+            if (lexer.acceptKeyword("NOT")) {
+                lexer.expectKeyword("NULL");
+                column.nullable = false;
+            } else if (lexer.acceptKeyword("NULL")) {
+                column.nullable = true;
+            } else if (lexer.acceptKeyword("DEFAULT")) {
+                String defaultValue = parseDefaultValue();
+                column.autoinc = "autoincrement".equalsIgnoreCase(defaultValue);
+                column.defaultValue = column.autoinc ? null : defaultValue;
+            } else if (lexer.acceptKeyword("INLINE") || lexer.acceptKeyword("PREFIX")) {
+                // Storage hint of SQLAnywhere without any meaning for the target database
+                lexer.expectNumber();
+            } else if (lexer.acceptKeyword("IDENTITY")) {
+                column.autoinc = true;
+            } else if (lexer.acceptKeyword("PRIMARY")) {
+                lexer.expectKeyword("KEY");
+                column.primaryKey = true;
+            } else {
+                lexer.skip();
+            }
+        }
+
+        return column;
+    }
+
+    private boolean isDataTypePart() {
+        return switch (lexer.type()) {
+            case IDENTIFIER -> true;
+            case WORD -> !lexer.isKeywordOf(COLUMN_ATTRIBUTES);
+            case SYMBOL -> lexer.isSymbol('(');
+            default -> false;
+        };
+    }
+
+    /**
+     * Parses "(w)", "(w,s)" or "(w CHAR)".
+     */
+    private void parseWidthAndScale(@NotNull DbColumn column) {
+        lexer.expectSymbol('(');
+        column.width = Integer.parseInt(lexer.expectNumber());
+        // Length semantic like "CHAR" or "BYTE"
+        while (lexer.type() == SqlAnyDdlLexer.TokenType.WORD) {
+            lexer.next();
+        }
+        if (lexer.acceptSymbol(',')) {
+            column.scale = Integer.parseInt(lexer.expectNumber());
+        }
+        lexer.expectSymbol(')');
+    }
+
+    /**
+     * Reads the default expression as written in the source until the end of the column definition.
+     */
+    @NotNull
+    private String parseDefaultValue() {
+        int valueStart = lexer.start();
+        int valueEnd = valueStart;
+        while (lexer.type() != SqlAnyDdlLexer.TokenType.EOF
+                && !lexer.isSymbol(',')
+                && !lexer.isSymbol(')')
+                && !lexer.isKeywordOf(DEFAULT_TERMINATORS)) {
+            lexer.skip();
+            valueEnd = lexer.previousEnd();
+        }
+
+        if (valueEnd == valueStart) {
+            throw lexer.unexpected("default value");
+        }
+
+        return lexer.source().substring(valueStart, valueEnd);
+    }
+
+    private void skipUntilElementEnd() {
+        while (lexer.type() != SqlAnyDdlLexer.TokenType.EOF && !lexer.isSymbol(',') && !lexer.isSymbol(')')) {
+            lexer.skip();
+        }
+    }
+
+    /**
+     * <pre>
+     * CREATE SEQUENCE "dba"."SEQ_NAME" MINVALUE 1 MAXVALUE 2147483647 INCREMENT BY 1 START WITH 1 NO CYCLE CACHE 100
+     * </pre>
+     */
+    @NotNull
+    public DbSequence parseCreateSequence() {
+        lexer.expectKeyword("CREATE");
+        lexer.expectKeyword("SEQUENCE");
+
+        QualifiedName name = parseQualifiedName();
+
+        DbSequence sequence = new DbSequence();
+        sequence.owner = name.owner();
+        sequence.name = name.name();
+
+        while (lexer.type() == SqlAnyDdlLexer.TokenType.WORD) {
+            if (lexer.acceptKeyword("MINVALUE")) {
+                sequence.minimum = Long.parseLong(lexer.expectNumber());
+            } else if (lexer.acceptKeyword("MAXVALUE")) {
+                sequence.maximum = Long.parseLong(lexer.expectNumber());
+            } else if (lexer.acceptKeyword("INCREMENT")) {
+                lexer.expectKeyword("BY");
+                sequence.increment = Integer.parseInt(lexer.expectNumber());
+            } else if (lexer.acceptKeyword("START")) {
+                lexer.expectKeyword("WITH");
+                sequence.startWith = Long.parseLong(lexer.expectNumber());
+            } else if (lexer.acceptKeyword("CYCLE")) {
+                sequence.cycle = true;
+            } else if (lexer.acceptKeyword("CACHE")) {
+                sequence.cacheSize = Integer.parseInt(lexer.expectNumber());
+            } else if (lexer.acceptKeyword("NO")) {
+                // NO MINVALUE, NO MAXVALUE, NO CYCLE, NO CACHE
+                lexer.next();
+            } else {
+                break;
+            }
+        }
+
+        return sequence;
+    }
+
+    /**
+     * <pre>
+     * CREATE UNIQUE INDEX "INDEX_NAME" ON "dba"."TABLE_NAME"
+     *     ( "FT_Created" DESC,"FT_TransactionId" DESC )
+     * </pre>
+     */
+    @NotNull
+    public DbIndex parseCreateIndex() {
+        lexer.expectKeyword("CREATE");
+
+        DbIndex index = new DbIndex();
+        index.unique = lexer.acceptKeyword("UNIQUE");
+        lexer.acceptKeyword("CLUSTERED");
+        lexer.expectKeyword("INDEX");
+        index.indexName = lexer.expectIdentifier();
+        lexer.expectKeyword("ON");
+
+        QualifiedName name = parseQualifiedName();
+        index.owner = name.owner();
+        index.tableName = name.name();
+        index.columns.addAll(parseSortedColumns());
+
+        return index;
+    }
+
+    /**
+     * <pre>
+     * ALTER TABLE "dba"."TABLE_NAME"
+     *     ADD FOREIGN KEY "FK_NAME" ("BFCS_Id" ASC)
+     *     REFERENCES "dba"."REF_TABLE_NAME" ("BFCS_Id")
+     *     ON UPDATE CASCADE ON DELETE SET NULL
+     * </pre>
+     *
+     * @param actionMapper Maps an action like "CASCADE" or "SET NULL" to a {@link DbForeignKey.RefAction}
+     */
+    @NotNull
+    public DbForeignKey parseForeignKey(@NotNull Function<String, DbForeignKey.RefAction> actionMapper) {
+        QualifiedName table = parseAlterTableAdd();
+
+        DbForeignKey fk = new DbForeignKey();
+        fk.owner = table.owner();
+        fk.tableName = table.name();
+
+        if (lexer.acceptKeyword("NOT")) {
+            lexer.expectKeyword("NULL");
+        }
+        lexer.expectKeyword("FOREIGN");
+        lexer.expectKeyword("KEY");
+
+        if (!lexer.isSymbol('(')) {
+            fk.name = lexer.expectIdentifier();
+        }
+        fk.fkColumns = parseSortedColumns();
+
+        lexer.expectKeyword("REFERENCES");
+        QualifiedName reference = parseQualifiedName();
+        fk.referenceOwner = reference.owner();
+        fk.referenceTable = reference.name();
+        fk.referenceColumns = parseSortedColumns().stream().map(Pair::getKey).toList();
+
+        while (lexer.acceptKeyword("ON")) {
+            boolean update = lexer.acceptKeyword("UPDATE");
+            if (!update) {
+                lexer.expectKeyword("DELETE");
+            }
+
+            String action = parseRefAction();
+            if (update) {
+                fk.actionOnUpdate = actionMapper.apply(action);
+            } else {
+                fk.actionOnDelete = actionMapper.apply(action);
+            }
+        }
+
+        return fk;
+    }
+
+    @NotNull
+    private String parseRefAction() {
+        if (lexer.acceptKeyword("SET")) {
+            String value = lexer.value().toUpperCase(Locale.ROOT);
+            lexer.next();
+            return "SET " + value;
+        } else if (lexer.acceptKeyword("NO")) {
+            lexer.expectKeyword("ACTION");
+            return "NO ACTION";
+        }
+
+        String value = lexer.value().toUpperCase(Locale.ROOT);
+        lexer.next();
+        return value;
+    }
+
+    /**
+     * <pre>
+     * ALTER TABLE "dba"."KIS_MRG"
+     *     ADD CONSTRAINT "KIS_MRG UNIQUE PAT_FID_OLD" UNIQUE ( "PAT_FID_OLD","KIS_SYSTEM","MAN_ID" )
+     * </pre>
+     */
+    @NotNull
+    public TableConstraint parseTableConstraint() {
+        QualifiedName table = parseAlterTableAdd();
+
+        DbTableConstraint constraint = new DbTableConstraint();
+        constraint.name = lexer.acceptKeyword("CONSTRAINT") ? lexer.expectIdentifier() : null;
+
+        lexer.expectKeyword("UNIQUE");
+        lexer.acceptKeyword("CLUSTERED");
+        parseSortedColumns().forEach(c -> constraint.columns.add(c.getKey()));
+
+        return new TableConstraint(table.owner(), table.name(), constraint);
+    }
+
+    @NotNull
+    private QualifiedName parseAlterTableAdd() {
+        lexer.expectKeyword("ALTER");
+        lexer.expectKeyword("TABLE");
+        QualifiedName table = parseQualifiedName();
+        lexer.expectKeyword("ADD");
+        return table;
+    }
+
+    /**
+     * <pre>
+     * COMMENT ON TABLE "dba"."TABLE_NAME" IS
+     * 	'Some nice text'
+     * </pre>
+     * ...or...
+     * <pre>
+     * COMMENT ON COLUMN "dba"."TABLE_NAME"."COLUMN_NAME" IS
+     * 	'Some nice text'
+     * </pre>
+     * ...or...
+     * <pre>
+     * COMMENT ON INDEX "dba"."TABLE_NAME"."Idx_NAME" IS
+     * 	'Some nice text'
+     * </pre>
+     */
+    @NotNull
+    public Comment parseComment() {
+        lexer.expectKeyword("COMMENT");
+        lexer.expectKeyword("ON");
+
+        boolean onTable = lexer.acceptKeyword("TABLE");
+        if (!onTable && !lexer.acceptKeyword("COLUMN")) {
+            lexer.expectKeyword("INDEX");
+        }
+
+        List<String> names = parseNameParts();
+        lexer.expectKeyword("IS");
+        String comment = lexer.acceptKeyword("NULL") ? null : lexer.expectString();
+
+        int size = names.size();
+        if (onTable) {
+            return new Comment(size > 1 ? names.get(size - 2) : null, names.get(size - 1), null, comment);
+        } else if (size < 2) {
+            throw new AppRuntimeException("Table name of comment missing");
+        }
+
+        return new Comment(size > 2 ? names.get(size - 3) : null, names.get(size - 2), names.get(size - 1), comment);
+    }
+
+    /**
+     * <pre>
+     * LOAD TABLE "dba"."TABLE_NAME" ("COL_NAME_1","COL_NAME_2","COL_NAME_3")
+     *     FROM 'C:/projects/db/unloaded-example/unload/3037.dat'
+     *     FORMAT 'TEXT' QUOTES ON
+     *     ...
+     * </pre>
+     */
+    @NotNull
+    public LoadTable parseLoadTable() {
+        lexer.expectKeyword("LOAD");
+        lexer.acceptKeyword("INTO");
+        lexer.expectKeyword("TABLE");
+
+        QualifiedName table = parseQualifiedName();
+        List<String> columns = lexer.isSymbol('(') ? parseSortedColumns().stream().map(Pair::getKey).toList() : List.of();
+
+        lexer.expectKeyword("FROM");
+
+        return new LoadTable(table.owner(), table.name(), columns, lexer.expectString());
+    }
+
+    /**
+     * <pre>
+     * call dbo.sa_reset_identity('TABLE_NAME', 'dba', 10001);
+     * </pre>
+     */
+    @NotNull
+    public ResetIdentity parseResetIdentity() {
+        lexer.expectKeyword("CALL");
+        parseQualifiedName();
+        lexer.expectSymbol('(');
+        String tableName = lexer.expectString();
+        lexer.expectSymbol(',');
+        String owner = lexer.expectString();
+        lexer.expectSymbol(',');
+        long nextValue = Long.parseLong(lexer.expectNumber());
+        lexer.expectSymbol(')');
+
+        return new ResetIdentity(owner, tableName, nextValue);
+    }
+
+    @NotNull
+    private QualifiedName parseQualifiedName() {
+        String first = lexer.expectIdentifier();
+        if (lexer.acceptSymbol('.')) {
+            return new QualifiedName(first, lexer.expectIdentifier());
+        }
+
+        return new QualifiedName(null, first);
+    }
+
+    @NotNull
+    private List<String> parseNameParts() {
+        List<String> names = new ArrayList<>(3);
+        do {
+            names.add(lexer.expectIdentifier());
+        } while (lexer.acceptSymbol('.'));
+
+        return names;
+    }
+
+    /**
+     * Parses a list of columns like <code>( "COL_1" ASC,"COL_2" DESC )</code>.
+     *
+     * @return List of pairs of column name and descending order flag
+     */
+    @NotNull
+    private List<Pair<String, Boolean>> parseSortedColumns() {
+        List<Pair<String, Boolean>> columns = new ArrayList<>();
+
+        lexer.expectSymbol('(');
+        do {
+            String name = lexer.expectIdentifier();
+            boolean descending = lexer.acceptKeyword("DESC");
+            if (!descending) {
+                lexer.acceptKeyword("ASC");
+            }
+            columns.add(Pair.of(name, descending));
+        } while (lexer.acceptSymbol(','));
+        lexer.expectSymbol(')');
+
+        return columns;
+    }
+
+}
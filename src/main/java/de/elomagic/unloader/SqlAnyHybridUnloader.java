@@ -7,13 +7,15 @@ import de.elomagic.dto.DbColumn;
 import de.elomagic.dto.DbSystem;
 import de.elomagic.dto.DbTable;
 import de.elomagic.dto.DbTableContent;
+import de.elomagic.loader.ContentStream;
 import de.elomagic.loader.SchemaLoader;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.io.BufferedWriter;
+import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -24,7 +26,7 @@ import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.regex.Matcher;
+import java.util.stream.Stream;
 
 /**
  *
@@ -39,7 +41,6 @@ import java.util.regex.Matcher;
  * - DB Views
  * - DB Procedures (Incl. comments)
  * - DB Events
- * - Set Timestamp format
  *
  * Ignores:
  * - DBSpaces
@@ -49,6 +50,8 @@ public class SqlAnyHybridUnloader extends SqlAnyReloadUnloader {
 
     private static final Logger LOGGER = LogManager.getLogger(SqlAnyHybridUnloader.class);
 
+    private final ContentManifest manifest = new ContentManifest();
+
     @Override
     @NotNull
     public DbSystem importDatabase(@NotNull SchemaLoader targetLoader) throws AppRuntimeException {
@@ -60,14 +63,31 @@ public class SqlAnyHybridUnloader extends SqlAnyReloadUnloader {
             Charset encoding = Charset.forName(Configuration.getString(Configuration.SOURCE_ENCODING));
 
             LOGGER.info("Reading {} encoded file '{}'...", encoding, file);
-            String reloadScript = Files
-                    .readString(file, encoding)
-                    .replace("\r\n", "\n");
+            LOGGER.debug("Size of reload script: {} bytes", Files.size(file));
+
+            // Named pipes must exist and their consumer must be prepared before the first table is unloaded, so the tables
+            // are unloaded after the whole script is parsed
+            boolean pipes = ContentSinks.getConfigured(targetLoader).isEmpty() && NamedPipes.isEnabled() && !targetLoader.isStreamingContent();
+            List<DbTable> pipedTables = new ArrayList<>();
+
+            try (Connection con = DbUtils.createConnection(); Stream<String> sections = streamGoSections(file, encoding)) {
+                SectionDispatcher dispatcher = createSectionDispatcher(system)
+                        .on(SectionKind.FOREIGN_KEY, s -> processCreateForeignKey(s, system))
+                        .on(SectionKind.LOAD_TABLE, s -> processLoadTable(s, system, con, targetLoader, pipes ? pipedTables : null));
 
-            LOGGER.debug("Length of reload script: {} chars", reloadScript.length());
+                dispatcher.dispatchAll(sections, getParseThreads());
 
-            try (Connection con = DbUtils.createConnection()) {
-                streamGoSections(reloadScript).forEach(s -> processSection(s, system, con, targetLoader));
+                dispatcher.logSummary();
+
+                if (pipes) {
+                    pipedTables.forEach(t -> prepareContent(t, targetLoader, true));
+                    targetLoader.prepareNamedPipes(system, pipedTables);
+                    pipedTables.forEach(t -> unloadTable(t, con, targetLoader));
+                }
+            }
+
+            if (!manifest.isEmpty()) {
+                manifest.write(ContentSinks.getManifestFile());
             }
 
             return system;
@@ -77,110 +97,148 @@ public class SqlAnyHybridUnloader extends SqlAnyReloadUnloader {
         }
     }
 
-    private void processSection(@NotNull String section, @NotNull DbSystem system, @NotNull Connection con, @NotNull SchemaLoader targetLoader) {
-        if (PATTERN_TABLE_NAME.matcher(section).find()) {
-            processCreateTable(section, system);
-        } else if (PATTERN_COLUMN_COMMENT.matcher(section).find()) {
-            processColumnComment(section, system);
-        } else if (PATTERN_TABLE_COMMENT.matcher(section).find()) {
-            processTableComment(section, system);
-        } else if (PATTERN_ALTER_COLUMN_UNIQUE.matcher(section).find()) {
-            processTableConstraint(section, system);
-        } else if (PATTERN_SEQUENCE.matcher(section).find()) {
-            processSequence(section, system);
-        } else if (PATTERN_CREATE_INDEX.matcher(section).find()) {
-            processCreateIndex(section, system);
-        } else if (PATTERN_CREATE_FK.matcher(section).find()) {
-            processCreateForeignKey(section, system);
-        } else if (PATTERN_COMMENT_INDEX.matcher(section).find()) {
-            processIndexComment(section, system);
-        } else if (PATTERN_LOAD_TABLE.matcher(section).find()) {
-            processLoadTable(section, system, con, targetLoader);
-        } else if (PATTERN_RESET_IDENTITY.matcher(section).find()) {
-            processResetIdentity(section, system);
-        } else {
-            LOGGER.debug("Ignoring following section:\n{}", section);
-        }
-    }
-
-    private void processLoadTable(@NotNull String section, @NotNull DbSystem system, @NotNull Connection con, @NotNull SchemaLoader targetLoader) {
+    /**
+     * @param pipedTables When not null, the table is only added to be unloaded into a named pipe later
+     */
+    @NotNull
+    private Runnable processLoadTable(@NotNull String section, @NotNull DbSystem system, @NotNull Connection con, @NotNull SchemaLoader targetLoader, @Nullable List<DbTable> pipedTables) {
         String filter = Configuration.getString(Configuration.TARGET_OUTPUT_TABLER_FILTER);
         List<String> filterTableNames = filter == null ? List.of() : List.of(filter.split(","));
 
-        Matcher matcher = PATTERN_LOAD_TABLE.matcher(section);
-        if (matcher.find()) {
-            String tableName = matcher.group("tn");
+        String tableName = createParser(section).parseLoadTable().tableName();
+        return () -> {
             try {
-                if (filterTableNames.isEmpty() || filterTableNames.contains(tableName)) {
+                if (!filterTableNames.isEmpty() && !filterTableNames.contains(tableName)) {
+                    return;
+                }
+
+                if (pipedTables == null) {
                     unloadTable(system.tables.get(tableName), con, targetLoader);
+                } else {
+                    pipedTables.add(system.tables.get(tableName));
                 }
             } catch (Exception ex) {
                 LOGGER.error("Unable to parse load table '{}'", tableName);
                 throw ex;
             }
-        }
+        };
     }
 
-    private void unloadTable(@NotNull DbTable table, @NotNull Connection con, @NotNull SchemaLoader targetLoader) {
+    /**
+     * Order columns as created in original database
+     */
+    @NotNull
+    private List<DbColumn> getIndexedColumns(@NotNull DbTable table) {
+        return table
+                .columns
+                .values()
+                .stream()
+                .sorted(Comparator.comparing(DbColumn::getIndex))
+                .toList();
+    }
+
+    private void prepareContent(@NotNull DbTable table, @NotNull SchemaLoader targetLoader, boolean pipe) {
         try {
             Path file = Path.of(
                     Configuration.getString(Configuration.TARGET_OUTPUT_PATH),
                     "unloaded",
-                    table.name + ".dat");
-
-            LOGGER.info("Unloading table data '{}' into '{}'", table.name, file);
+                    table.name + ".dat" + OutputCompression.getConfigured().getFileSuffix());
 
-            // Order columns as created in original database
-            List<DbColumn> indexedColumns = table
-                    .columns
-                    .values()
-                    .stream()
-                    .sorted(Comparator.comparing(DbColumn::getIndex))
-                    .toList();
+            List<DbColumn> indexedColumns = getIndexedColumns(table);
 
             table.content = new DbTableContent();
-            table.content.file = file;
+            table.content.file = targetLoader.isStreamingContent() ? null : file;
+            table.content.namedPipe = pipe;
             table.content.encoding = Charset.forName(Configuration.getString(Configuration.SOURCE_ENCODING));
             table.content.columns.addAll(indexedColumns.stream().map(c -> c.name).toList());
 
-            Files.createDirectories(table.content.file.getParent());
+            List<ContentSinks.Kind> sinks = ContentSinks.getConfigured();
+            if (!sinks.isEmpty()) {
+                table.content.file = ContentSinks.getLoadableFile(ContentSinks.getContentFile(table), sinks);
+                table.content.loaded = sinks.contains(ContentSinks.Kind.COPY);
+            }
 
-            try (BufferedWriter writer = Files.newBufferedWriter(file, table.content.encoding)) {
-                String sql = "SELECT %s FROM \"%s\"".formatted(
-                        String.join(",", table.content.columns),
-                        table.name
-                );
+            if ("binary".equalsIgnoreCase(Configuration.getString(Configuration.TARGET_OUTPUT_FORMAT)) && targetLoader.createBinaryRowEncoder(indexedColumns) != null) {
+                table.content.format = DbTableContent.Format.BINARY;
+            }
 
-                try (PreparedStatement stmt = DbUtils.createPrepareStatement(con, sql, List.of())) {
-                    ResultSet rs = stmt.executeQuery();
-                    while (rs.next()) {
-                        int columnCount = rs.getMetaData().getColumnCount();
-                        List<String> buffer = new ArrayList<>();
+            if (pipe) {
+                NamedPipes.create(file);
+            } else if (table.content.file != null || !sinks.isEmpty()) {
+                Files.createDirectories(file.getParent());
+            }
+        } catch (IOException ex) {
+            throw new AppRuntimeException(ex.getMessage(), ex);
+        }
+    }
 
-                        // LOGGER.debug("Column count {}. DBColumn.count={}", columnCount, table.columns.size());
-                        for (int i = 0; i < columnCount; i++) {
-                            int index = i + 1;
-                            DbColumn column = indexedColumns.get(index-1);
+    private void unloadTable(@NotNull DbTable table, @NotNull Connection con, @NotNull SchemaLoader targetLoader) {
+        try {
+            if (table.content == null) {
+                prepareContent(table, targetLoader, false);
+            }
 
-                            String value = rs.getString(index);
+            Path file = table.content.file;
+            LOGGER.info("Unloading table data '{}' into '{}'", table.name, file == null ? "target database" : file);
 
-                            if (rs.wasNull()) {
-                                value = null;
+            List<DbColumn> indexedColumns = getIndexedColumns(table);
 
-                                if (!column.nullable) {
-                                    LOGGER.warn("Value of source database table '{}', column '{}' is NULL but must be NOT NULL by schema definition", table.name, column.name);
-                                }
-                            }
+            TableUnloadPipeline pipeline = table.content.format == DbTableContent.Format.BINARY
+                    ? new TableUnloadPipeline(targetLoader.createBinaryRowEncoder(indexedColumns))
+                    : TableUnloadPipeline.ofTargetText(table, indexedColumns, targetLoader);
 
-                            value = targetLoader.denormalizeValue(value, column);
+            String sql = "SELECT %s FROM \"%s\"".formatted(
+                    String.join(",", table.content.columns),
+                    table.name
+            );
 
-                            buffer.add(value);
-                        }
+            List<ContentSinks.Kind> sinkKinds = ContentSinks.getConfigured();
+            if (!sinkKinds.isEmpty()) {
+                List<Path> files = ContentSinks.unload(pipeline, sinkKinds, con, sql, List.of(), table, targetLoader, manifest);
+                if (pipeline.isSharded()) {
+                    table.content.shards.addAll(files);
+                }
+                return;
+            }
 
-                        writer.write(String.join(",", buffer));
-                        writer.write("\n");
+            if (file == null) {
+                try (ContentStream stream = targetLoader.openContentStream(table);
+                     PreparedStatement stmt = DbUtils.createPrepareStatement(con, sql, List.of())) {
+                    stmt.setFetchSize(TableUnloadPipeline.DEFAULT_BATCH_ROWS);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        pipeline.run(rs, stream);
                     }
+                    stream.commit();
                 }
+                return;
+            }
+
+            if (table.content.namedPipe) {
+                pipeline.withCompression(OutputCompression.getConfigured());
+                NamedPipes.write(file, indexedColumns.size(), pipe -> {
+                    try (PreparedStatement stmt = DbUtils.createPrepareStatement(con, sql, List.of())) {
+                        stmt.setFetchSize(TableUnloadPipeline.DEFAULT_BATCH_ROWS);
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            pipeline.run(rs, pipe);
+                        }
+                    }
+                });
+                return;
+            }
+
+            pipeline.withCompression(OutputCompression.getConfigured())
+                    .withShardLimits(Configuration.getLong(Configuration.TARGET_OUTPUT_SHARD_SIZE), Configuration.getLong(Configuration.TARGET_OUTPUT_SHARD_ROWS));
+
+            try (PreparedStatement stmt = DbUtils.createPrepareStatement(con, sql, List.of())) {
+                stmt.setFetchSize(TableUnloadPipeline.DEFAULT_BATCH_ROWS);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    pipeline.run(rs, file);
+                }
+            }
+
+            if (pipeline.isSharded()) {
+                table.content.shards.addAll(pipeline.getFiles());
+                LOGGER.debug("Table data '{}' unloaded into {} shards", table.name, table.content.shards.size());
             }
         } catch (Exception ex) {
             LOGGER.error(ex.getMessage(), ex);
@@ -2,7 +2,14 @@ package de.elomagic.unloader;
 
 import de.elomagic.AppRuntimeException;
 import de.elomagic.Configuration;
+import de.elomagic.ConnectionPool;
+import de.elomagic.DbSystemSnapshot;
 import de.elomagic.DbUtils;
+import de.elomagic.codec.LobCodecs;
+import de.elomagic.codec.TemporalCodecs;
+import de.elomagic.codec.TextEscaper;
+import de.elomagic.codec.ValueCodec;
+import de.elomagic.codec.ValueCodecs;
 import de.elomagic.dto.DbColumn;
 import de.elomagic.dto.DbForeignKey;
 import de.elomagic.dto.DbIndex;
@@ -10,6 +17,7 @@ import de.elomagic.dto.DbIndexComment;
 import de.elomagic.dto.DbSystem;
 import de.elomagic.dto.DbTable;
 import de.elomagic.dto.DbTableContent;
+import de.elomagic.loader.ContentStream;
 import de.elomagic.loader.SchemaLoader;
 
 import org.apache.commons.lang3.StringUtils;
@@ -19,24 +27,27 @@ import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ForkJoinPool;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * TODO
@@ -47,7 +58,6 @@ import java.util.concurrent.ForkJoinPool;
  * - DB Views
  * - DB Procedures (Incl. comments)
  * - DB Events
- * - Set Timestamp format
  * Ignores:
  * - DBSpaces
  * - Users / Roles
@@ -56,19 +66,33 @@ public class SqlAnyJdbcUnloader implements SqlAnyUnloader {
 
     private static final Logger LOGGER = LogManager.getLogger(SqlAnyJdbcUnloader.class);
 
+    private final ContentManifest manifest = new ContentManifest();
+
     @Override
     @NotNull
     public DbSystem importDatabase(@NotNull SchemaLoader targetLoader) throws AppRuntimeException {
         DbSystem system = new DbSystem();
 
         try (Connection con = DbUtils.createConnection()) {
-            LOGGER.info(("Importing database schema"));
-            importTables(system, con);
-            importColumns(system, con);
-            importForeignKeys(system, con);
-            importIndexes(system,con);
+            Path snapshotFile = DbSystemSnapshot.getConfiguredFile();
+            String snapshotKey = snapshotFile == null ? null : createCatalogFingerprint(con);
+            Optional<DbSystem> snapshot = snapshotFile == null ? Optional.empty() : DbSystemSnapshot.read(snapshotFile, snapshotKey);
+
+            if (snapshot.isPresent()) {
+                system = snapshot.get();
+            } else {
+                LOGGER.info(("Importing database schema"));
+                importTables(system, con);
+                importColumns(system, con);
+                importForeignKeys(system, con);
+                importIndexes(system,con);
+
+                if (snapshotFile != null) {
+                    DbSystemSnapshot.write(snapshotFile, snapshotKey, system);
+                }
+            }
 
-            unloadTables(system, con);
+            unloadTables(system, targetLoader);
         } catch (Exception ex) {
             LOGGER.error(ex.getMessage(), ex);
         }
@@ -78,6 +102,38 @@ public class SqlAnyJdbcUnloader implements SqlAnyUnloader {
         return system;
     }
 
+    /**
+     * Creates a fingerprint of the catalog. The fingerprint changes when a table has been modified or when objects
+     * have been added or removed.
+     *
+     * @param con Connection to the source database
+     * @return Fingerprint of the catalog
+     */
+    @NotNull
+    String createCatalogFingerprint(@NotNull Connection con) throws SQLException {
+        String sql = """
+                SELECT (SELECT COUNT(*) FROM systab) AS tables,
+                    (SELECT MAX(last_modified_at) FROM systab) AS modified,
+                    (SELECT COUNT(*) FROM systabcol) AS columns,
+                    (SELECT COUNT(*) FROM sysidx) AS indexes,
+                    (SELECT COUNT(*) FROM sysfkey) AS fkeys,
+                    (SELECT COUNT(*) FROM sysremark) AS remarks
+                """.replace("\n", " ");
+
+        try (PreparedStatement statement = DbUtils.createPrepareStatement(con, sql, List.of()); ResultSet rs = statement.executeQuery()) {
+            rs.next();
+
+            return "catalog:%s:%s:%s:%s:%s:%s:%s".formatted(
+                    Configuration.getString(Configuration.SOURCE_DATABASE_URL),
+                    rs.getString("tables"),
+                    rs.getString("modified"),
+                    rs.getString("columns"),
+                    rs.getString("indexes"),
+                    rs.getString("fkeys"),
+                    rs.getString("remarks"));
+        }
+    }
+
     void importTables(@NotNull DbSystem system, @NotNull Connection con) throws SQLException {
         String sql = """
                 SELECT u.user_name as creator_name, r.remarks AS remarks, t.* FROM systab AS t
@@ -98,6 +154,8 @@ public class SqlAnyJdbcUnloader implements SqlAnyUnloader {
                 table.owner = rs.getString("creator_name");
                 table.name = rs.getString("table_name");
                 table.comment = rs.getString("remarks");
+                table.rowCount = rs.getLong("count");
+                table.pageCount = rs.getLong("table_page_count") + rs.getLong("ext_page_count");
                 // TODO
 
                 system.tables.put(table.name, table);
@@ -107,7 +165,7 @@ public class SqlAnyJdbcUnloader implements SqlAnyUnloader {
 
     void importColumns(@NotNull DbSystem system, @NotNull Connection con) throws SQLException {
         String sql = """
-                SELECT NUMBER() as idx, if i.sequence IS NULL THEN 'N' ELSE 'Y' ENDIF AS pk, d.domain_name AS data_type, r.remarks as remarks, t.table_name, c.* FROM SYSTABCOL AS c
+                SELECT NUMBER() as idx, if i.sequence IS NULL THEN 'N' ELSE 'Y' ENDIF AS pk, i.sequence AS pk_sequence, d.domain_name AS data_type, r.remarks as remarks, t.table_name, c.* FROM SYSTABCOL AS c
                     JOIN systab AS t ON c.table_id = t.table_id
                     LEFT OUTER JOIN sysremark AS r ON c.object_ID = r.object_id
                     LEFT OUTER JOIN sysidxcol AS i ON c.table_id = i.table_id AND c.column_id = i.column_id AND i.index_id = 0
@@ -117,6 +175,9 @@ public class SqlAnyJdbcUnloader implements SqlAnyUnloader {
                     ORDER BY t.table_name, c.column_id
                 """.replace("\n", " ");
 
+        // Primary key columns of each table by their position in the key
+        Map<DbTable, SortedMap<Integer, String>> primaryKeys = new HashMap<>();
+
         try (PreparedStatement statement = DbUtils.createPrepareStatement(con, sql, List.of()); ResultSet rs = statement.executeQuery()) {
             while (rs.next()) {
                 String tableName = rs.getString("table_name");
@@ -138,34 +199,69 @@ public class SqlAnyJdbcUnloader implements SqlAnyUnloader {
                 column.index = table.columns.size() + 1;
 
                 table.columns.put(column.name, column);
+                if (column.primaryKey) {
+                    primaryKeys.computeIfAbsent(table, t -> new TreeMap<>()).put(rs.getInt("pk_sequence"), column.name);
+                }
             }
         }
+
+        primaryKeys.forEach((table, columns) -> table.primaryKey.addAll(columns.values()));
     }
 
-    private void unloadTables(@NotNull DbSystem system, @NotNull Connection con) throws ExecutionException, InterruptedException {
+    private void unloadTables(@NotNull DbSystem system, @NotNull SchemaLoader targetLoader) {
         String filter = Configuration.getString(Configuration.TARGET_OUTPUT_TABLER_FILTER);
         List<String> filterTableNames = filter == null ? List.of() : List.of(filter.split(","));
 
-        ForkJoinPool customThreadPool = new ForkJoinPool(20);
-        customThreadPool.submit(() ->
-                system.tables
-                        .values()
-                        .parallelStream()
-                        .filter(t -> filterTableNames.isEmpty() || filterTableNames.contains(t.name))
-                        .forEach(t -> unloadTable(t, con))).get();
+        List<DbTable> tables = system.tables
+                .values()
+                .stream()
+                .filter(t -> filterTableNames.isEmpty() || filterTableNames.contains(t.name))
+                .toList();
+
+        // Named pipes must exist and their consumer must be prepared before the first table is unloaded
+        boolean pipes = ContentSinks.getConfigured(targetLoader).isEmpty() && NamedPipes.isEnabled() && !targetLoader.isStreamingContent();
+        for (DbTable table : tables) {
+            prepareContent(table, targetLoader, pipes);
+        }
+
+        // Every worker borrows his own connection, so workers more than connections would only wait
+        try (ConnectionPool pool = DbUtils.createConnectionPool()) {
+            UnloadPlan plan = UnloadPlan.create(tables, pool.getSize());
+            plan.log();
+
+            if (pipes) {
+                // The readers of the pipes are started in order of the plan like the writers
+                targetLoader.prepareNamedPipes(system, plan.getTables());
+            }
+
+            pool.warmUp(tables.size());
+
+            UnloadExecutor.Mode mode = UnloadExecutor.Mode.parse(Configuration.getString(Configuration.SOURCE_UNLOAD_EXECUTOR));
+            try (UnloadExecutor executor = new UnloadExecutor(mode, pool)) {
+                // Tables are started in order of the plan. Connections are borrowed in the same order
+                executor.invokeAll(plan.getTables().stream().<Runnable>map(t -> () -> unloadTable(t, pool, executor, targetLoader)).toList());
+            }
+        }
+
+        if (!manifest.isEmpty()) {
+            try {
+                manifest.write(ContentSinks.getManifestFile());
+            } catch (IOException ex) {
+                throw new AppRuntimeException(ex.getMessage(), ex);
+            }
+        }
     }
 
-    private void unloadTable(@NotNull DbTable table, @NotNull Connection con) {
+    private void prepareContent(@NotNull DbTable table, @NotNull SchemaLoader targetLoader, boolean pipe) {
         try {
             Path file = Path.of(
                     Configuration.getString(Configuration.TARGET_OUTPUT_PATH),
                     "unloaded",
-                    table.name + ".dat");
-
-            LOGGER.info("Unloading table data '{}' into '{}'", table.name, file);
+                    table.name + ".dat" + OutputCompression.getConfigured().getFileSuffix());
 
             table.content = new DbTableContent();
-            table.content.file = file;
+            table.content.file = targetLoader.isStreamingContent() ? null : file;
+            table.content.namedPipe = pipe;
             table.content.encoding = Charset.forName(Configuration.getString(Configuration.SOURCE_ENCODING));
             table.content.columns.addAll(
                     table.columns
@@ -174,48 +270,44 @@ public class SqlAnyJdbcUnloader implements SqlAnyUnloader {
                             .sorted(Comparator.comparing(DbColumn::getIndex))
                             .map(c -> c.name).toList());
 
-            Files.createDirectories(table.content.file.getParent());
+            List<ContentSinks.Kind> sinks = ContentSinks.getConfigured();
+            if (!sinks.isEmpty()) {
+                table.content.file = ContentSinks.getLoadableFile(ContentSinks.getContentFile(table), sinks);
+                table.content.loaded = sinks.contains(ContentSinks.Kind.COPY);
+            }
+
+            if (pipe) {
+                NamedPipes.create(file);
+            } else if (table.content.file != null || !sinks.isEmpty()) {
+                Files.createDirectories(file.getParent());
+            }
+        } catch (IOException ex) {
+            throw new AppRuntimeException(ex.getMessage(), ex);
+        }
+    }
+
+    private void unloadTable(@NotNull DbTable table, @NotNull ConnectionPool pool, @NotNull UnloadExecutor executor, @NotNull SchemaLoader targetLoader) {
+        try {
+            LOGGER.info("Unloading table data '{}' into '{}'", table.name, table.content.file == null ? "target database" : table.content.file);
 
             Map<Integer, DbColumn> indexedColumns = new HashMap<>();
             table.columns.values().forEach(c -> indexedColumns.put(c.index, c));
 
-            try (BufferedWriter writer = Files.newBufferedWriter(file, table.content.encoding)) {
-                String sql = "SELECT %s FROM \"%s\"".formatted(
-                        String.join(",", table.content.columns),
-                        table.name
-                );
-
-                try (PreparedStatement stmt = DbUtils.createPrepareStatement(con, sql, List.of())) {
-                    ResultSet rs = stmt.executeQuery();
-                    while (rs.next()) {
-                        int columnCount = rs.getMetaData().getColumnCount();
-                        List<String> buffer = new ArrayList<>();
-
-                        // LOGGER.debug("Column count {}. DBColumn.count={}", columnCount, table.columns.size());
-                        for (int i = 0; i < columnCount; i++) {
-                            int index = i + 1;
-                            DbColumn column = indexedColumns.get(index);
-
-                            String value = rs.getString(index);
-
-                            if (value == null) {
-                                value = Configuration.getString(Configuration.TARGET_OUTPUT_VALUE_NULL);
-
-                                if (!column.nullable) {
-                                    LOGGER.warn("Value of source database table '{}', column '{}' is NULL but must be NOT NULL by schema definition", table.name, column.name);
-                                }
-                            } else {
-                                value = normalizeValue(value);
-                                value = wrapConditionalValue(value, column);
-                            }
-
-                            buffer.add(value);
-                        }
-
-                        writer.write(String.join(",", buffer));
-                        writer.write("\n");
+            // A named pipe has a single writer. Sinks like a COPY stream are written by a single read of the table. A
+            // streamed table is loaded by a single COPY in a single transaction, so it is never loaded partly and
+            // a COPY FREEZE of the FAST load profile stays valid
+            List<TableChunk> chunks = table.content.namedPipe || targetLoader.isStreamingContent() || !ContentSinks.getConfigured().isEmpty()
+                    ? List.of()
+                    : planChunks(table, pool);
+            if (chunks.isEmpty()) {
+                try (ConnectionPool.PooledConnection pooled = pool.borrow()) {
+                    List<Path> files = writeRows(pooled.getConnection(), table, indexedColumns, null, table.content.file, targetLoader);
+                    if (isSharded()) {
+                        table.content.shards.addAll(files);
                     }
                 }
+            } else {
+                unloadChunks(table, indexedColumns, chunks, pool, executor, targetLoader);
             }
         } catch (Exception ex) {
             LOGGER.error(ex.getMessage(), ex);
@@ -223,32 +315,229 @@ public class SqlAnyJdbcUnloader implements SqlAnyUnloader {
         }
     }
 
-    @Nullable
-    private String wrapConditionalValue(@Nullable String value, @NotNull DbColumn column) {
-        if (value == null) {
-            return null;
+    @NotNull
+    private List<TableChunk> planChunks(@NotNull DbTable table, @NotNull ConnectionPool pool) throws SQLException {
+        long chunkRows = Long.parseLong(Configuration.getString(Configuration.SOURCE_CHUNK_ROWS));
+        if (chunkRows <= 0) {
+            return List.of();
         }
 
-        // TODO Support any datatype
-        return switch (column.datatype) {
-            case CHAR, VARCHAR, LONG_VARCHAR -> "\"" + value + "\"";
-            case INTEGER, NUMERIC, SMALLINT, BIGINT, TINYINT -> value;
-            // TODO Check date time format
-            case TIMESTAMP -> value;
-            case LONG_BINARY -> "x" + HexFormat.of().formatHex(value.getBytes(StandardCharsets.UTF_8));
-            default -> throw new AppRuntimeException("Datatype " + column.datatype + " currently not support yet.");
-        };
+        try (ConnectionPool.PooledConnection pooled = pool.borrow()) {
+            // The count of the catalog is exact enough, because the chunks cover the whole table anyway
+            return new TableChunkPlanner(chunkRows).plan(pooled.getConnection(), table, table.rowCount);
+        }
+    }
+
+    private static boolean isSharded() {
+        return Configuration.getLong(Configuration.TARGET_OUTPUT_SHARD_SIZE) > 0 || Configuration.getLong(Configuration.TARGET_OUTPUT_SHARD_ROWS) > 0;
     }
 
+    /**
+     * Unloads the chunks of a table into part files and stitches them in order of the chunks into the content file.
+     * <p>
+     * When the content is sharded, the part files are renamed in order of the chunks into the shards instead.
+     */
+    private void unloadChunks(@NotNull DbTable table, @NotNull Map<Integer, DbColumn> indexedColumns, @NotNull List<TableChunk> chunks, @NotNull ConnectionPool pool, @NotNull UnloadExecutor executor, @NotNull SchemaLoader targetLoader) throws IOException {
+        LOGGER.info("Unloading table data '{}' in {} chunks", table.name, chunks.size());
+
+        Queue<Pair<TableChunk, List<Path>>> parts = new ConcurrentLinkedQueue<>();
+        executor.invokeAll(chunks.stream().<Runnable>map(c -> new ChunkTask(table, indexedColumns, c, pool, executor, targetLoader, parts)).toList());
+
+        List<Path> orderedParts = parts
+                .stream()
+                .sorted(Comparator.comparing(Pair::getKey))
+                .flatMap(p -> p.getValue().stream())
+                .toList();
+
+        if (isSharded()) {
+            LOGGER.debug("Renaming {} parts of table '{}' into shards", orderedParts.size(), table.name);
+
+            for (Path part : orderedParts) {
+                Path shard = TableUnloadPipeline.getShardFile(table.content.file, table.content.shards.size());
+                Files.move(part, shard, StandardCopyOption.REPLACE_EXISTING);
+                table.content.shards.add(shard);
+            }
+            return;
+        }
+
+        LOGGER.debug("Stitching {} parts of table '{}'", orderedParts.size(), table.name);
+
+        try (FileChannel out = FileChannel.open(table.content.file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Path part : orderedParts) {
+                try (FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+                    long size = in.size();
+                    long position = 0;
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+                Files.delete(part);
+            }
+        }
+    }
+
+    /**
+     * Unloads a chunk into a part file. When other workers are idle, the chunk will be split before.
+     */
+    private final class ChunkTask implements Runnable {
+
+        private final DbTable table;
+        private final Map<Integer, DbColumn> indexedColumns;
+        private final TableChunk chunk;
+        private final ConnectionPool pool;
+        private final UnloadExecutor executor;
+        private final SchemaLoader targetLoader;
+        private final Queue<Pair<TableChunk, List<Path>>> parts;
+
+        private ChunkTask(@NotNull DbTable table, @NotNull Map<Integer, DbColumn> indexedColumns, @NotNull TableChunk chunk, @NotNull ConnectionPool pool, @NotNull UnloadExecutor executor, @NotNull SchemaLoader targetLoader, @NotNull Queue<Pair<TableChunk, List<Path>>> parts) {
+            this.table = table;
+            this.indexedColumns = indexedColumns;
+            this.chunk = chunk;
+            this.pool = pool;
+            this.executor = executor;
+            this.targetLoader = targetLoader;
+            this.parts = parts;
+        }
+
+        @Override
+        public void run() {
+            TableChunk[] halves = executor.hasIdleCapacity() ? chunk.split() : null;
+            if (halves != null) {
+                LOGGER.trace("Splitting chunk '{}' of table '{}'", chunk, table.name);
+                executor.invokeAll(List.of(
+                        new ChunkTask(table, indexedColumns, halves[0], pool, executor, targetLoader, parts),
+                        new ChunkTask(table, indexedColumns, halves[1], pool, executor, targetLoader, parts)));
+                return;
+            }
+
+            Path file = table.content.file.resolveSibling(table.content.file.getFileName() + ".part" + chunk.getOrder());
+            try (ConnectionPool.PooledConnection pooled = pool.borrow()) {
+                parts.add(Pair.of(chunk, writeRows(pooled.getConnection(), table, indexedColumns, chunk, file, targetLoader)));
+            } catch (IOException | SQLException ex) {
+                throw new AppRuntimeException(ex.getMessage(), ex);
+            }
+        }
+
+    }
+
+    /**
+     * @param file Content file or null when the content is streamed into the target database. Not used when sinks are configured
+     * @return Written files in order
+     */
     @NotNull
-    private String normalizeValue(@NotNull String value) {
-        return value
-                .replace("\\", "\\\\")
-                .replace("\u0000", "")
-                .replace("\"", "\\\"")
-                .replace("\n", "\\n")
-                .replace(",", "\\,")
-                .replace("\r", "\\r");
+    private List<Path> writeRows(@NotNull Connection con, @NotNull DbTable table, @NotNull Map<Integer, DbColumn> indexedColumns, @Nullable TableChunk chunk, @Nullable Path file, @NotNull SchemaLoader targetLoader) throws SQLException, IOException {
+        String sql = "SELECT %s FROM \"%s\"%s".formatted(
+                String.join(",", table.content.columns),
+                table.name,
+                chunk == null ? "" : " WHERE " + chunk.getPredicate()
+        );
+
+        DbColumn[] columns = new DbColumn[table.content.columns.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = indexedColumns.get(i + 1);
+        }
+
+        List<ContentSinks.Kind> sinkKinds = ContentSinks.getConfigured();
+        // Streams, sinks and named pipes are loaded by the COPY of the target loader, so they are written in its format
+        TableUnloadPipeline pipeline = file == null || table.content.namedPipe || !sinkKinds.isEmpty()
+                ? TableUnloadPipeline.ofTargetText(table, List.of(columns), targetLoader)
+                : createReloadPipeline(table, columns);
+
+        if (!sinkKinds.isEmpty()) {
+            return ContentSinks.unload(pipeline, sinkKinds, con, sql, chunk == null ? List.of() : chunk.getParameters(), table, targetLoader, manifest);
+        }
+
+        if (file == null) {
+            try (ContentStream stream = targetLoader.openContentStream(table);
+                 PreparedStatement stmt = DbUtils.createPrepareStatement(con, sql, chunk == null ? List.of() : chunk.getParameters())) {
+                stmt.setFetchSize(TableUnloadPipeline.DEFAULT_BATCH_ROWS);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    pipeline.run(rs, stream);
+                }
+                long rows = stream.commit();
+                LOGGER.debug("{} rows of table '{}' streamed into target database", rows, table.name);
+            }
+            return List.of();
+        }
+
+        if (table.content.namedPipe) {
+            pipeline.withCompression(OutputCompression.getConfigured());
+            NamedPipes.write(file, columns.length, pipe -> {
+                try (PreparedStatement stmt = DbUtils.createPrepareStatement(con, sql, List.of())) {
+                    stmt.setFetchSize(TableUnloadPipeline.DEFAULT_BATCH_ROWS);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        long rows = pipeline.run(rs, pipe);
+                        LOGGER.debug("{} rows of table '{}' unloaded into named pipe '{}'", rows, table.name, file);
+                    }
+                }
+            });
+            return List.of();
+        }
+
+        pipeline.withCompression(OutputCompression.getConfigured())
+                .withShardLimits(Configuration.getLong(Configuration.TARGET_OUTPUT_SHARD_SIZE), Configuration.getLong(Configuration.TARGET_OUTPUT_SHARD_ROWS));
+
+        try (PreparedStatement stmt = DbUtils.createPrepareStatement(con, sql, chunk == null ? List.of() : chunk.getParameters())) {
+            stmt.setFetchSize(TableUnloadPipeline.DEFAULT_BATCH_ROWS);
+            try (ResultSet rs = stmt.executeQuery()) {
+                long rows = pipeline.run(rs, file);
+                LOGGER.debug("{} rows of table '{}' unloaded into '{}'", rows, table.name, file);
+            }
+        }
+
+        return pipeline.getFiles();
+    }
+
+    /**
+     * Creates a pipeline of text content in the format of the SQLAnywhere reload files. NULL values are written as
+     * configured by {@link Configuration#TARGET_OUTPUT_VALUE_NULL}.
+     */
+    @NotNull
+    private TableUnloadPipeline createReloadPipeline(@NotNull DbTable table, @NotNull DbColumn[] columns) {
+        String nullValue = Configuration.getString(Configuration.TARGET_OUTPUT_VALUE_NULL);
+
+        ValueCodec[] codecs = new ValueCodec[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            codecs[i] = createValueCodec(columns[i]);
+        }
+
+        return new TableUnloadPipeline(codecs, (vectors, row, out, flush) -> {
+            for (int i = 0; i < vectors.length; i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+
+                if (vectors[i].nulls[row]) {
+                    out.append(nullValue);
+
+                    if (!columns[i].nullable) {
+                        LOGGER.warn("Value of source database table '{}', column '{}' is NULL but must be NOT NULL by schema definition", table.name, columns[i].name);
+                    }
+                } else {
+                    codecs[i].encode(vectors[i], row, out, flush);
+                }
+            }
+            out.append('\n');
+        }, table.content.encoding);
+    }
+
+    /**
+     * Creates the codec of a column in the format of the SQLAnywhere reload files. Character values are quoted.
+     */
+    @NotNull
+    private ValueCodec createValueCodec(@NotNull DbColumn column) {
+        // TODO Support any datatype
+        return switch (column.datatype) {
+            case CHAR, VARCHAR -> ValueCodecs.ofText(TextEscaper.SQL_ANYWHERE, "\"");
+            case LONG_VARCHAR -> LobCodecs.ofCharacterStream(TextEscaper.SQL_ANYWHERE, "\"", Configuration.getInt(Configuration.SOURCE_LOB_INLINE_SIZE));
+            case INTEGER, SMALLINT, BIGINT, TINYINT -> ValueCodecs.ofLong();
+            case NUMERIC -> ValueCodecs.ofDecimal();
+            case TIMESTAMP, DATETIME -> TemporalCodecs.ofTimestamp();
+            case DATETIME_OFFSET -> TemporalCodecs.ofTimestampWithOffset();
+            case DATE -> TemporalCodecs.ofDate();
+            case LONG_BINARY -> LobCodecs.ofBinaryStream("x", Configuration.getInt(Configuration.SOURCE_LOB_INLINE_SIZE));
+            default -> ValueCodecs.ofUnsupported("Datatype " + column.datatype + " currently not support yet.");
+        };
     }
 
     void importForeignKeys(@NotNull DbSystem system, @NotNull Connection con) throws SQLException {
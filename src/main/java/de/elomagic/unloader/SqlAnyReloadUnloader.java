@@ -1,6 +1,7 @@
 package de.elomagic.unloader;
 
 import de.elomagic.AppRuntimeException;
+import de.elomagic.Configuration;
 import de.elomagic.dto.DbColumn;
 import de.elomagic.dto.DbForeignKey;
 import de.elomagic.dto.DbIndex;
@@ -8,119 +9,25 @@ import de.elomagic.dto.DbIndexComment;
 import de.elomagic.dto.DbSequence;
 import de.elomagic.dto.DbSystem;
 import de.elomagic.dto.DbTable;
-import de.elomagic.dto.DbTableConstraint;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.stream.Stream;
 
 /**
- * Doesn't work well because of an RegEx issue?
+ * Base class of the unloaders which are reading the SQLAnywhere reload script.
  */
 public abstract class SqlAnyReloadUnloader implements SqlAnyUnloader {
 
     private static final Logger LOGGER = LogManager.getLogger(SqlAnyReloadUnloader.class);
 
-    private static final String REGEX_GO_SECTIONS = "(^\\w.*?go\\n\\n)";
-    protected static final Pattern PATTERN_GO_SECTIONS = Pattern.compile(REGEX_GO_SECTIONS, Pattern.MULTILINE | Pattern.DOTALL);
-
-    private static final String REGEX_TABLE_SQL = "^(?<sql>CREATE TABLE.*?\\))(\\sIN\\s\\\".*\\\")?\\ngo";
-    protected static final Pattern PATTERN_TABLE_SQL = Pattern.compile(REGEX_TABLE_SQL, Pattern.MULTILINE | Pattern.DOTALL);
-    private static final String REGEX_TABLE_NAME = "(CREATE TABLE \\\"(?<o>.*)\\\"\\.\\\")(?<tn>.*)(\\\")";
-    protected static final Pattern PATTERN_TABLE_NAME = Pattern.compile(REGEX_TABLE_NAME, Pattern.MULTILINE);
-    // ^   [\s|,]\"(?<column>\S*?)\"\s+(?<datatype>.*?)\s(?<nullable>NOT NULL?|NULL)(?<rest>.*?)$
-    private static final String REGEX_TABLE_COLUMNS = "^   [\\s|,]\\\"(?<cn>\\S*?)\\\"\\s+(?<datatype>.*?)\\s(?<nullable>NOT NULL?|NULL)(?<def> DEFAULT )?(?<dv>.*?)$";
-    protected static final Pattern PATTERN_TABLE_COLUMNS = Pattern.compile(REGEX_TABLE_COLUMNS, Pattern.MULTILINE);
-    static final String REGEX_TABLE_PK = "^   ,PRIMARY KEY \\(\\\"(?<column>.*)\\\"\\s+(?<order>ASC|DESC)\\)";
-    protected static final Pattern PATTERN_TABLE_PK = Pattern.compile(REGEX_TABLE_PK, Pattern.MULTILINE);
-    private static final String REGEX_TABLE_COMMENT = "^COMMENT ON TABLE \\\"(?<owner>.*?)\\\"\\.\\\"(?<tn>.*?)\\\"\\sIS\\s\\n\\t'(?<comment>.*?)\\'$";
-    protected static final Pattern PATTERN_TABLE_COMMENT = Pattern.compile(REGEX_TABLE_COMMENT, Pattern.MULTILINE | Pattern.DOTALL);
-    private static final String REGEX_COLUMN_COMMENT = "^COMMENT ON COLUMN \\\"(?<owner>.*?)\\\"\\.\\\"(?<tn>.*?)\\\"\\.\\\"(?<cn>.*?)\\\"\\sIS\\s\\n\\t'(?<comment>.*?)\\'$";
-    protected static final Pattern PATTERN_COLUMN_COMMENT = Pattern.compile(REGEX_COLUMN_COMMENT, Pattern.MULTILINE | Pattern.DOTALL);
-    // ^ALTER TABLE \"(?<o>.*)\".\"(?<tn>.*)\"\n\s{4}ADD( CONSTRAINT )?\"?(?<n>.*)\"? UNIQUE \(\s(?<cn>\".*\")\s\)
-    // ALTER TABLE \"(?<o>.*)\".\"(?<tn>.*)\"\n\s{4}ADD UNIQUE \(\s\"(?<cn>.*)\"\s\)
-    private static final String REGEX_ALTER_COLUMN_UNIQUE = "^ALTER TABLE \\\"(?<o>.*)\\\".\\\"(?<tn>.*)\\\"\\n\\s{4}ADD( CONSTRAINT )?\\\"?(?<name>.*)\\\"? UNIQUE \\(\\s(?<cn>\\\".*\\\")\\s\\)";
-    protected static final Pattern PATTERN_ALTER_COLUMN_UNIQUE = Pattern.compile(REGEX_ALTER_COLUMN_UNIQUE);//, Pattern.MULTILINE | Pattern.DOTALL);
-
-    private static final String REGEX_SEQUENCE = "^CREATE SEQUENCE \\\"(?<owner>.*?)\\\"\\.\\\"(?<n>.*?)\\\"\\sMINVALUE\\s(?<min>\\d+) MAXVALUE (?<max>\\d+) INCREMENT BY (?<step>\\d+) START WITH (?<start>\\d+)";
-    protected static final Pattern PATTERN_SEQUENCE = Pattern.compile(REGEX_SEQUENCE);//, Pattern.MULTILINE | Pattern.DOTALL);
-
-    /**
-     * <pre>
-     * LOAD TABLE "dba"."TABLE_NAME" ("COL_NAME_1","COL_NAME_2","COL_NAME_3","COL_NAME_4","COL_NAME_5")
-     *     FROM 'C:/projects/db/unloaded-example/unload/3037.dat'
-     *     FORMAT 'TEXT' QUOTES ON
-     *     ORDER OFF ESCAPES ON
-     *     CHECK CONSTRAINTS OFF COMPUTES OFF
-     *     STRIP OFF DELIMITED BY ','
-     *     ENCODING 'windows-1252'
-     * go
-     * </pre>
-     */
-    private static final String REGEX_LOAD_TABLE = "^LOAD TABLE \\\"(?<owner>.*?)\\\"\\.\\\"(?<tn>.*?)\\\" \\n?\\((?<cols>.*?)\\)\\n?\\s{4}FROM\\s\\'(?<file>.*?)\\'";
-    protected static final Pattern PATTERN_LOAD_TABLE = Pattern.compile(REGEX_LOAD_TABLE, Pattern.MULTILINE | Pattern.DOTALL);
-
-    /**
-     * <pre>
-     * CREATE INDEX "Idx_NAME" ON "dba"."TABLE_NAME"
-     *     ( "FT_Created" DESC,"FT_TransactionId" DESC )
-     * go
-     * </pre>
-     *
-     * ...or...
-     *
-     * <pre>
-     * CREATE UNIQUE INDEX "INDEX_NAME" ON "dba"."TABLE_NAME"
-     *     ( "COL_NAME" )
-     * go
-     * </pre>
-     */
-    private static final String REGEX_CREATE_INDEX = "^CREATE (?<u>UNIQUE)?\\s?INDEX \\\"(?<n>.*?)\\\" ON \\\"(?<owner>.*?)\\\"\\.\\\"(?<tn>.*?)\\\"\\n\\s{4}\\((?<cols>.*?)\\)$";
-    protected static final Pattern PATTERN_CREATE_INDEX = Pattern.compile(REGEX_CREATE_INDEX, Pattern.MULTILINE | Pattern.DOTALL);
-    /**
-     * COMMENT ON INDEX "dba"."TABLE_NAME"."Idx_NAME" IS
-     * 	'Some nice text'
-     * go
-     */
-    private static final String REGEX_COMMENT_INDEX = "^COMMENT ON INDEX \\\"(?<owner>.*?)\\\"\\.\\\"(?<tn>.*?)\\\".\\\"(?<n>.*?)\\\"\\sIS\\s\\n\\t'(?<comment>.*?)\\'$";
-    protected static final Pattern PATTERN_COMMENT_INDEX = Pattern.compile(REGEX_COMMENT_INDEX, Pattern.MULTILINE | Pattern.DOTALL);
-
-    /**
-     * ALTER TABLE "dba"."Table_Name"
-     *     ADD FOREIGN KEY "FK_NAME" ("BFCS_Id" ASC)
-     *     REFERENCES "dba"."REF_TABLE_NAME" ("BFCS_Id")
-     *
-     * go
-     *
-     *
-     * ^ALTER TABLE \"(?<o>.*)\".\"(?<tn>.*)\"\n\s{4}ADD (NOT NULL )?FOREIGN KEY \"(?<name>.*)\" \((?<cns>.*)\)\n\s{4}REFERENCES \"(?<ro>.*)\".\"(?<rtn>.*)\" \((?<rcns>.*)\)\n\s{4}(ON UPDATE\s(?<oua>SET NULL|CASCADE))\s?(ON DELETE\s(?<oda>SET NULL|CASCADE))?
-     * ^ALTER TABLE \"(?<o>.*)\".\"(?<tn>.*)\"\n\s{4}ADD (NOT NULL )?FOREIGN KEY \"(?<name>.*)\" \((?<cns>.*)\)\n\s{4}REFERENCES \"(?<ro>.*)\".\"(?<rtn>.*)\" \((?<rcns>.*)\)\n\s{4}(?<oua>ON UPDATE\s(SET NULL|CASCADE))\s?(?<oda>ON DELETE\s(SET NULL|CASCADE))?
-     */
-    private static final String REGEX_CREATE_FK = "^ALTER TABLE \\\"(?<o>.*)\\\".\\\"(?<tn>.*)\\\"\\n\\s{4}ADD (NOT NULL )?FOREIGN KEY \\\"(?<name>.*)\\\" \\((?<cns>.*)\\)\\n\\s{4}REFERENCES \\\"(?<ro>.*)\\\".\\\"(?<rtn>.*)\\\" \\((?<rcns>.*)\\)\\n\\s{4}(ON UPDATE\\s(?<oua>SET NULL|CASCADE))\\s?(ON DELETE\\s(?<oda>SET NULL|CASCADE))?";
-    protected static final Pattern PATTERN_CREATE_FK = Pattern.compile(REGEX_CREATE_FK, Pattern.MULTILINE | Pattern.DOTALL);
-
-    /**
-     * <pre>
-     * call dbo.sa_reset_identity('TABLE_NAME', 'dba', 10001);
-     * go
-     * </pre>
-     */
-    private static final String REGEX_RESET_IDENTITY = "^call dbo.sa_reset_identity\\('(?<tn>.*?)', '(?<owner>.*?)', (?<nv>\\d*?)\\);";
-    protected static final Pattern PATTERN_RESET_IDENTITY = Pattern.compile(REGEX_RESET_IDENTITY);
-
     @NotNull
     protected DbForeignKey.RefAction mapFkAction(@Nullable String action) {
         if (StringUtils.isBlank(action)) {
@@ -130,220 +37,171 @@ public abstract class SqlAnyReloadUnloader implements SqlAnyUnloader {
         return switch (action) {
             case "CASCADE" -> DbForeignKey.RefAction.CASCADE;
             case "SET NULL" -> DbForeignKey.RefAction.SET_NULL;
+            case "SET DEFAULT" -> DbForeignKey.RefAction.SET_DEFAULT;
+            case "RESTRICT" -> DbForeignKey.RefAction.RESTRICT;
+            case "NO ACTION" -> DbForeignKey.RefAction.NO_ACTION;
 
             default -> throw new AppRuntimeException("Unsupported action '" + action + "'.");
         };
     }
 
-    protected Stream<String> streamGoSections(@NotNull String reloadScript) {
-        Matcher matcher = PATTERN_GO_SECTIONS.matcher(reloadScript);
-
+    /**
+     * Returns a lazy stream of the GO sections of the reload script.
+     * <p>
+     * The stream must be closed to release the file.
+     *
+     * @param file Reload script
+     * @param encoding Encoding of the reload script
+     * @return Lazy stream of GO sections
+     */
+    @NotNull
+    protected Stream<String> streamGoSections(@NotNull Path file, @NotNull Charset encoding) throws IOException {
         LOGGER.info("Parsing reload script for GO section...");
-        List<String> gos = new ArrayList<>();
 
-        while (matcher.find()) {
-            String section = matcher.group(0);
-            LOGGER.trace("GO found: {}", section);
-            gos.add(section);
-        }
-
-        LOGGER.debug("{} GO sections found.", gos.size());
-
-        return gos.stream();
+        return GoSectionReader.stream(file, encoding);
     }
 
-    protected void processCreateTable(@NotNull String section, @NotNull DbSystem system) {
-        LOGGER.trace("Processing create table: {}", section);
-
-        DbTable table = new DbTable();
-
-        Matcher matcher = PATTERN_TABLE_NAME.matcher(section);
-        if (matcher.find()) {
-            table.owner = matcher.group("o");
-            table.name = matcher.group("tn");
-            LOGGER.debug("Table '{}' found", table.name);
-        } else {
-            throw new AppRuntimeException("Table name not found: " + section);
-        }
-
-        system.tables.put(table.name, table);
+    /**
+     * Creates a section dispatcher with the handlers of all sections which are processed in the same way by every
+     * reload script based unloader.
+     *
+     * @param system Db system DTO
+     * @return Dispatcher which can be extended by further handlers
+     */
+    @NotNull
+    protected SectionDispatcher createSectionDispatcher(@NotNull DbSystem system) {
+        return new SectionDispatcher()
+                .on(SectionKind.CREATE_TABLE, s -> processCreateTable(s, system))
+                .on(SectionKind.COLUMN_COMMENT, s -> processColumnComment(s, system))
+                .on(SectionKind.TABLE_COMMENT, s -> processTableComment(s, system))
+                .on(SectionKind.TABLE_CONSTRAINT, s -> processTableConstraint(s, system))
+                .on(SectionKind.CREATE_SEQUENCE, s -> processSequence(s, system))
+                .on(SectionKind.CREATE_INDEX, s -> processCreateIndex(s, system))
+                .on(SectionKind.INDEX_COMMENT, s -> processIndexComment(s, system))
+                .on(SectionKind.RESET_IDENTITY, s -> processResetIdentity(s, system));
+    }
 
-        processCreateColumnsOfTable(table, section);
+    /**
+     * @return Count of threads which are parsing the GO sections. Values less than 2 will parse in the calling thread.
+     */
+    protected int getParseThreads() {
+        return Configuration.getInt(Configuration.SOURCE_PARSE_THREADS);
+    }
 
-        findPrimaryKey(section).ifPresent(s -> table.columns.get(s).primaryKey = true);
+    @NotNull
+    protected SqlAnyDdlParser createParser(@NotNull String section) {
+        return new SqlAnyDdlParser(section, this::mapToDbDataType);
     }
 
-    private void processCreateColumnsOfTable(@NotNull DbTable table, @NotNull String createTableSql) {
-        Pattern widthScalePattern = Pattern.compile("\\((?<w>\\d*)(\\sCHAR)?,?(?<s>\\d*)?\\)$");
-
-        int index = 0;
-
-        Matcher matcher = PATTERN_TABLE_COLUMNS.matcher(createTableSql);
-        while (matcher.find()) {
-            String datatype = matcher.group("datatype");
-            DbColumn column = new DbColumn();
-            column.index = index++;
-            column.name = matcher.group("cn");
-            column.datatype = mapToDbDataType(datatype);
-            column.nullable = !"NOT NULL".equalsIgnoreCase(matcher.group("nullable"));
-            column.defaultValue = StringUtils.isBlank(matcher.group("def")) || "autoincrement".equalsIgnoreCase(matcher.group("dv")) ? null : matcher.group("dv");
-            column.autoinc = "autoincrement".equalsIgnoreCase(matcher.group("dv"));
-
-            Matcher m2 = widthScalePattern.matcher(datatype);
-            if (m2.find()) {
-                column.width = Integer.parseInt(m2.group("w"));
-                column.scale = "".equals(m2.group("s")) ? null : Integer.parseInt(m2.group("s"));
-            }
+    /*
+     * The process methods are parsing a section and returning the step which applies the result to the system. Parsing
+     * is free of side effects and may run on any thread, but the steps must be run in order of the sections.
+     */
 
-            table.columns.put(column.name, column);
-        }
+    @NotNull
+    protected Runnable processCreateTable(@NotNull String section, @NotNull DbSystem system) {
+        LOGGER.trace("Processing create table: {}", section);
 
-        Matcher m1 = PATTERN_TABLE_PK.matcher(createTableSql);
-        if (m1.find()) {
-            Optional.ofNullable(table.columns.get(m1.group(1))).ifPresent(c -> c.primaryKey = true);
+        try {
+            DbTable table = createParser(section).parseCreateTable();
+            LOGGER.debug("Table '{}' found", table.name);
+
+            return () -> system.tables.put(table.name, table);
+        } catch (Exception ex) {
+            LOGGER.error("Unable to parse create table section '{}'", section);
+            throw ex;
         }
     }
 
-    protected void processSequence(@NotNull String section, @NotNull DbSystem system) {
+    @NotNull
+    protected Runnable processSequence(@NotNull String section, @NotNull DbSystem system) {
         LOGGER.trace("Processing sequence: {}", section);
 
-        Matcher matcher = PATTERN_SEQUENCE.matcher(section);
-        if (matcher.find()) {
-            DbSequence sequence = new DbSequence();
-
-            sequence.owner = matcher.group("owner");
-            sequence.name = matcher.group("n");
-            sequence.minimum = Long.getLong(matcher.group("min"));
-            sequence.maximum = Long.getLong(matcher.group("max"));
-            sequence.increment = Integer.getInteger(matcher.group("step"));
-            sequence.startWith = Long.getLong(matcher.group("start"));
-            // TODO NO Cycle and Cache size
+        try {
+            DbSequence sequence = createParser(section).parseCreateSequence();
 
             LOGGER.debug("Sequence '{}' found", sequence.name);
-            system.sequences.put(sequence.name, sequence);
+            return () -> system.sequences.put(sequence.name, sequence);
+        } catch (Exception ex) {
+            LOGGER.error("Unable to parse sequence section '{}'", section);
+            throw ex;
         }
     }
 
-    protected void processColumnComment(@NotNull String section, @NotNull DbSystem system) {
-        Matcher matcher = PATTERN_COLUMN_COMMENT.matcher(section);
-        while (matcher.find()) {
-            String tableName = matcher.group("tn");
-            String columnName = matcher.group("cn");
-            String comment = matcher.group("comment");
-            LOGGER.trace("Getting comment of column {}.{}", tableName, columnName);
+    @NotNull
+    protected Runnable processColumnComment(@NotNull String section, @NotNull DbSystem system) {
+        SqlAnyDdlParser.Comment comment = createParser(section).parseComment();
+        String tableName = comment.tableName();
+        String columnName = comment.objectName();
+        LOGGER.trace("Getting comment of column {}.{}", tableName, columnName);
 
+        return () -> {
             try {
                 DbColumn column = system.tables.get(tableName).columns.get(columnName);
-                column.comment = comment;
+                column.comment = comment.comment();
             } catch (Exception ex) {
                 LOGGER.error("Unable to process comment of table name '{}' with column name '{}'", tableName, columnName);
                 throw ex;
             }
-        }
+        };
     }
 
-    protected void processCreateForeignKey(@NotNull String section, @NotNull DbSystem system) {
+    @NotNull
+    protected Runnable processCreateForeignKey(@NotNull String section, @NotNull DbSystem system) {
         try {
-            Matcher matcher = PATTERN_CREATE_FK.matcher(section);
-            if (matcher.find()) {
-                // LOGGER.trace("Getting comment of table index {}.{}", tableName, indexName);
-                DbForeignKey fk = new DbForeignKey();
-                fk.name = matcher.group("name");
-                fk.owner = matcher.group("o");
-                fk.tableName = matcher.group("tn");
-                fk.fkColumns= Arrays
-                        .stream(matcher.group("cns").split(","))
-                        .map(c -> c.replace("\"", "").trim())
-                        .map(c -> Pair.of(c.split(" ")[0].trim(), c.endsWith(" DESC")))
-                        .toList();
-                fk.referenceOwner = matcher.group("ro");
-                fk.referenceTable = matcher.group("rtn");
-                fk.referenceColumns = Arrays
-                        .stream(matcher.group("rcns").split(","))
-                        .map(c -> c.replace("\"", "").trim())
-                        .toList();
-                fk.actionOnUpdate = mapFkAction(matcher.group("oua"));
-                fk.actionOnDelete = mapFkAction(matcher.group("oda"));
-
-                system.foreignKeys.add(fk);
-            }
+            DbForeignKey fk = createParser(section).parseForeignKey(this::mapFkAction);
+
+            return () -> system.foreignKeys.add(fk);
         } catch (Exception ex) {
             LOGGER.error("Unable to parse fk section '{}'", section);
             throw ex;
         }
     }
 
-    protected void processCreateIndex(@NotNull String section, @NotNull DbSystem system) {
-        Matcher matcher = PATTERN_CREATE_INDEX.matcher(section);
-        if (matcher.find()) {
-            String owner = matcher.group("owner");
-            String tableName = matcher.group("tn");
-            String indexName = matcher.group("n");
-            String cols = matcher.group("cols");
-            boolean unique = "UNIQUE".equalsIgnoreCase(matcher.group("u"));
-            List<Pair<String, Boolean>> columnNames = Arrays
-                    .stream(cols.split(","))
-                    .map(c -> c.replace("\"", "").trim())
-                    .map(c -> Pair.of(c.split(" ")[0].trim(), c.endsWith(" DESC")))
-                    .toList();
-            try {
-                LOGGER.trace("Getting comment of table index {}.{}", tableName, indexName);
-
-                DbIndex index = new DbIndex();
-                index.indexName = indexName;
-                index.owner = owner;
-                index.tableName = tableName;
-                index.unique = unique;
-                index.columns.addAll(columnNames);
+    @NotNull
+    protected Runnable processCreateIndex(@NotNull String section, @NotNull DbSystem system) {
+        try {
+            DbIndex index = createParser(section).parseCreateIndex();
+            LOGGER.trace("Getting index {}.{}", index.tableName, index.indexName);
 
-                system.indexes.put(indexName, index);
-            } catch (Exception ex) {
-                LOGGER.error("Unable to parse index '{}.{}'", tableName, indexName);
-                throw ex;
-            }
+            return () -> system.indexes.put(index.indexName, index);
+        } catch (Exception ex) {
+            LOGGER.error("Unable to parse index section '{}'", section);
+            throw ex;
         }
     }
 
-    protected void processTableComment(@NotNull String section, @NotNull DbSystem system) {
-        Matcher matcher = PATTERN_TABLE_COMMENT.matcher(section);
-        while (matcher.find()) {
-            String tableName = matcher.group("tn");
-            try {
-                LOGGER.trace("Getting comment of table {}", tableName);
-
-                String comment = matcher.group("comment");
+    @NotNull
+    protected Runnable processTableComment(@NotNull String section, @NotNull DbSystem system) {
+        SqlAnyDdlParser.Comment comment = createParser(section).parseComment();
+        String tableName = comment.tableName();
+        LOGGER.trace("Getting comment of table {}", tableName);
 
+        return () -> {
+            try {
                 DbTable table = system.tables.get(tableName);
-                table.comment = comment;
+                table.comment = comment.comment();
             } catch (Exception ex) {
                 LOGGER.error("Unable to parse comment for table '{}'", tableName);
                 throw ex;
             }
-        }
+        };
     }
 
-    protected void processIndexComment(@NotNull String section, @NotNull DbSystem system) {
-        Matcher matcher = PATTERN_COMMENT_INDEX.matcher(section);
-        if (matcher.find()) {
-            String owner = matcher.group("owner");
-            String tableName = matcher.group("tn");
-            String indexName = matcher.group("n");
-            String comment = matcher.group("comment");
-            try {
-                LOGGER.trace("Getting comment of table index {}.{}", tableName, indexName);
-
-                DbIndexComment indexComment = new DbIndexComment();
-                indexComment.tableName = tableName;
-                indexComment.indexName = indexName;
-                indexComment.owner = owner;
-                indexComment.comment = comment;
-
-                system.indexComments.put(indexName, indexComment);
-            } catch (Exception ex) {
-                LOGGER.error("Unable to parse comment for table index '{}.{}'. Original SQL=\n{}", tableName, indexName, section);
-                throw ex;
-            }
-        }
+    @NotNull
+    protected Runnable processIndexComment(@NotNull String section, @NotNull DbSystem system) {
+        SqlAnyDdlParser.Comment comment = createParser(section).parseComment();
+        String tableName = comment.tableName();
+        String indexName = comment.objectName();
+        LOGGER.trace("Getting comment of table index {}.{}", tableName, indexName);
+
+        DbIndexComment indexComment = new DbIndexComment();
+        indexComment.tableName = tableName;
+        indexComment.indexName = indexName;
+        indexComment.owner = comment.owner();
+        indexComment.comment = comment.comment();
+
+        return () -> system.indexComments.put(indexName, indexComment);
     }
 
     /**
@@ -352,41 +210,37 @@ public abstract class SqlAnyReloadUnloader implements SqlAnyUnloader {
      * go
      * @param section SQL GO section from reload file
      * @param system Db system DTO
+     * @return Step which adds the constraint to his table
      */
-    protected void processTableConstraint(@NotNull String section, @NotNull DbSystem system) {
-        Matcher matcher = PATTERN_ALTER_COLUMN_UNIQUE.matcher(section);
-        if (matcher.find()) {
-            try {
-                String name = "".equals(matcher.group("name")) ? null : matcher.group("name").replace("\"", "");
-                String tableName = matcher.group("tn");
-                Set<String> columnNames = Arrays.stream(matcher.group("cn").split(",")).map(c -> c.replace("\"", "")).collect(Collectors.toSet());
-                LOGGER.trace("Getting comment of table {}", tableName);
-
-                DbTableConstraint constraint = new DbTableConstraint();
-                constraint.name = name;
-                constraint.columns.addAll(columnNames);
+    @NotNull
+    protected Runnable processTableConstraint(@NotNull String section, @NotNull DbSystem system) {
+        SqlAnyDdlParser.TableConstraint constraint;
+        try {
+            constraint = createParser(section).parseTableConstraint();
+            LOGGER.trace("Getting constraint of table {}", constraint.tableName());
+        } catch (Exception ex) {
+            LOGGER.error("Unable to parse section '{}'", section);
+            throw ex;
+        }
 
-                system.tables.get(tableName).constraints.add(constraint);
+        return () -> {
+            try {
+                system.tables.get(constraint.tableName()).constraints.add(constraint.constraint());
             } catch (Exception ex) {
                 LOGGER.error("Unable to parse section '{}'", section);
                 throw ex;
             }
-        }
+        };
     }
 
-    protected Optional<String> findPrimaryKey(@NotNull String createTable) {
-        Matcher m1 = PATTERN_TABLE_PK.matcher(createTable);
-        return m1.find() ? Optional.ofNullable(m1.group(1)) : Optional.empty();
-    }
+    @NotNull
+    protected Runnable processResetIdentity(@NotNull String section, @NotNull DbSystem system) {
+        SqlAnyDdlParser.ResetIdentity identity = createParser(section).parseResetIdentity();
+        String tableName = identity.tableName();
+        LOGGER.trace("Getting next value of PK of table index {}", tableName);
 
-    protected void processResetIdentity(@NotNull String section, @NotNull DbSystem system) {
-        Matcher matcher = PATTERN_RESET_IDENTITY.matcher(section);
-        if (matcher.find()) {
-            String tableName = matcher.group("tn");
-            String nextValue = matcher.group("nv");
+        return () -> {
             try {
-                LOGGER.trace("Getting next value of PK of table index {}", tableName);
-
                 system.tables
                         .get(tableName)
                         .columns
@@ -395,12 +249,12 @@ public abstract class SqlAnyReloadUnloader implements SqlAnyUnloader {
                         .filter(c -> c.autoinc)
                         .findFirst()
                         .orElseThrow(() -> new AppRuntimeException("Unable to find table '" + tableName + "'or his autoinc column of table '"))
-                        .nextValue = Long.parseLong(nextValue);
+                        .nextValue = identity.nextValue();
             } catch (Exception ex) {
                 LOGGER.error("Unable to parse 'reset identity' for table '{}'. Original SQL=\n{}", tableName, section);
                 throw ex;
             }
-        }
+        };
     }
 
 }
@@ -2,6 +2,7 @@ package de.elomagic.unloader;
 
 import de.elomagic.AppRuntimeException;
 import de.elomagic.Configuration;
+import de.elomagic.DbSystemSnapshot;
 import de.elomagic.dto.DbSystem;
 import de.elomagic.dto.DbTableContent;
 import de.elomagic.loader.SchemaLoader;
@@ -14,9 +15,8 @@ import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Arrays;
-import java.util.List;
-import java.util.regex.Matcher;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Open issue
@@ -51,14 +51,31 @@ public class SqlAnyReloadV2Unloader extends SqlAnyReloadUnloader {
 
             Charset encoding = Charset.forName(Configuration.getString(Configuration.SOURCE_ENCODING));
 
+            Path snapshotFile = DbSystemSnapshot.getConfiguredFile();
+            String snapshotKey = null;
+            if (snapshotFile != null) {
+                snapshotKey = "reload:%s:%s".formatted(encoding.name(), DbSystemSnapshot.hash(file));
+                Optional<DbSystem> snapshot = DbSystemSnapshot.read(snapshotFile, snapshotKey);
+                if (snapshot.isPresent()) {
+                    return snapshot.get();
+                }
+            }
+
             LOGGER.info("Reading {} encoded file '{}'...", encoding, file);
-            String reloadScript = Files
-                    .readString(file, encoding)
-                    .replace("\r\n", "\n");
+            LOGGER.debug("Size of reload script: {} bytes", Files.size(file));
+
+            SectionDispatcher dispatcher = createSectionDispatcher(system)
+                    .on(SectionKind.LOAD_TABLE, s -> processLoadTable(s, system));
 
-            LOGGER.debug("Length of reload script: {} chars", reloadScript.length());
+            try (Stream<String> sections = streamGoSections(file, encoding)) {
+                dispatcher.dispatchAll(sections, getParseThreads());
+            }
+
+            dispatcher.logSummary();
 
-            streamGoSections(reloadScript).forEach(s -> processSection(s, system));
+            if (snapshotFile != null) {
+                DbSystemSnapshot.write(snapshotFile, snapshotKey, system);
+            }
 
             return system;
         } catch (Exception ex) {
@@ -67,51 +84,24 @@ public class SqlAnyReloadV2Unloader extends SqlAnyReloadUnloader {
         }
     }
 
-    private void processSection(@NotNull String section, @NotNull DbSystem system) {
-        if (PATTERN_TABLE_NAME.matcher(section).find()) {
-            processCreateTable(section, system);
-        } else if (PATTERN_COLUMN_COMMENT.matcher(section).find()) {
-            processColumnComment(section, system);
-        } else if (PATTERN_TABLE_COMMENT.matcher(section).find()) {
-            processTableComment(section, system);
-        } else if (PATTERN_ALTER_COLUMN_UNIQUE.matcher(section).find()) {
-            processTableConstraint(section, system);
-        } else if (PATTERN_SEQUENCE.matcher(section).find()) {
-            processSequence(section, system);
-        } else if (PATTERN_CREATE_INDEX.matcher(section).find()) {
-            processCreateIndex(section, system);
-        } else if (PATTERN_COMMENT_INDEX.matcher(section).find()) {
-            processIndexComment(section, system);
-        } else if (PATTERN_LOAD_TABLE.matcher(section).find()) {
-            processLoadTable(section, system);
-        } else if (PATTERN_RESET_IDENTITY.matcher(section).find()) {
-            processResetIdentity(section, system);
-        } else {
-            LOGGER.debug("Ignoring following section:\n{}", section);
-        }
-    }
+    @NotNull
+    private Runnable processLoadTable(@NotNull String section, @NotNull DbSystem system) {
+        SqlAnyDdlParser.LoadTable loadTable = createParser(section).parseLoadTable();
+        String tableName = loadTable.tableName();
+        LOGGER.trace("Processing load content SQL from database table {}", tableName);
 
-    private void processLoadTable(@NotNull String section, @NotNull DbSystem system) {
-        Matcher matcher = PATTERN_LOAD_TABLE.matcher(section);
-        if (matcher.find()) {
-            String tableName = matcher.group("tn");
-            List<String> columnNames = Arrays
-                    .stream(matcher.group("cols").split(","))
-                    .map(c -> c.replace("\"", ""))
-                    .toList();
-            Path file = Paths.get(matcher.group("file"));
-            try {
-                LOGGER.trace("Processing load content SQL from database table {}", tableName);
-                DbTableContent content = new DbTableContent();
-                content.file = file;
-                content.columns.addAll(columnNames);
+        DbTableContent content = new DbTableContent();
+        content.file = Paths.get(loadTable.file());
+        content.columns.addAll(loadTable.columns());
 
+        return () -> {
+            try {
                 system.tables.get(tableName).content = content;
             } catch (Exception ex) {
                 LOGGER.error("Unable to parse load table '{}'", tableName);
                 throw ex;
             }
-        }
+        };
     }
 
 }
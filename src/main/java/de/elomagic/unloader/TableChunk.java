@@ -0,0 +1,109 @@
+package de.elomagic.unloader;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Part of a table which can be unloaded independently of the other parts.
+ * <p>
+ * Chunks of an integer key range can be split further at runtime.
+ */
+public final class TableChunk implements Comparable<TableChunk> {
+
+    private final long order;
+    private final String predicate;
+    private final List<String> parameters;
+
+    private final String rangeColumn;
+    private final long from;
+    private final long to;
+    private final long minSplitWidth;
+
+    private TableChunk(long order, @NotNull String predicate, @NotNull List<String> parameters, @Nullable String rangeColumn, long from, long to, long minSplitWidth) {
+        this.order = order;
+        this.predicate = predicate;
+        this.parameters = parameters;
+        this.rangeColumn = rangeColumn;
+        this.from = from;
+        this.to = to;
+        this.minSplitWidth = minSplitWidth;
+    }
+
+    /**
+     * Creates a chunk of the key range <code>from &lt;= column &lt;= to</code>.
+     *
+     * @param column Quoted integer column
+     * @param from Lower bound, inclusive
+     * @param to Upper bound, inclusive
+     * @param minSplitWidth Min width of a range which results of a split
+     * @return The chunk
+     */
+    @NotNull
+    public static TableChunk ofRange(@NotNull String column, long from, long to, long minSplitWidth) {
+        String predicate = "%s >= %d AND %s <= %d".formatted(column, from, column, to);
+        return new TableChunk(from, predicate, List.of(), column, from, to, Math.max(1, minSplitWidth));
+    }
+
+    /**
+     * Creates a chunk which can't be split.
+     *
+     * @param order Position of the chunk in the table
+     * @param predicate SQL predicate of the chunk
+     * @param parameters Values of the predicate parameters
+     * @return The chunk
+     */
+    @NotNull
+    public static TableChunk of(long order, @NotNull String predicate, @NotNull List<String> parameters) {
+        return new TableChunk(order, predicate, parameters, null, 0, 0, 0);
+    }
+
+    /**
+     * @return Position of the chunk in the table. Only for sorting of the chunks of the same table
+     */
+    public long getOrder() {
+        return order;
+    }
+
+    @NotNull
+    public String getPredicate() {
+        return predicate;
+    }
+
+    @NotNull
+    public List<String> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Splits the chunk in two halves.
+     *
+     * @return Two halves or null when chunk can't be split
+     */
+    @Nullable
+    public TableChunk[] split() {
+        // Width as unsigned value, so ranges over the whole long domain don't overflow
+        long halfWidth = (to - from) >>> 1;
+        if (rangeColumn == null || Long.compareUnsigned(halfWidth, minSplitWidth) < 0) {
+            return null;
+        }
+
+        long middle = from + halfWidth;
+        return new TableChunk[] {
+                ofRange(rangeColumn, from, middle, minSplitWidth),
+                ofRange(rangeColumn, middle + 1, to, minSplitWidth)
+        };
+    }
+
+    @Override
+    public int compareTo(@NotNull TableChunk o) {
+        return Long.compare(order, o.order);
+    }
+
+    @Override
+    public String toString() {
+        return predicate;
+    }
+
+}
@@ -0,0 +1,180 @@
+package de.elomagic.unloader;
+
+import de.elomagic.DbUtils;
+import de.elomagic.dto.DbColumn;
+import de.elomagic.dto.DbDataType;
+import de.elomagic.dto.DbTable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Splits a SQLAnywhere table into chunks of about the same count of rows.
+ * <p>
+ * Strategies in order of preference:
+ * <ol>
+ *     <li>Ranges of a single integer primary key column, split by min and max value</li>
+ *     <li>Ranges of the first column of the primary key, split by sampled boundaries</li>
+ *     <li>Modulo of the ROWID of the rows</li>
+ * </ol>
+ */
+public class TableChunkPlanner {
+
+    private static final Logger LOGGER = LogManager.getLogger(TableChunkPlanner.class);
+
+    private static final Set<DbDataType> INTEGER_TYPES = Set.of(
+            DbDataType.TINYINT,
+            DbDataType.SMALLINT,
+            DbDataType.INTEGER,
+            DbDataType.BIGINT,
+            DbDataType.UNSIGNED_SMALLINT,
+            DbDataType.UNSIGNED_INT);
+
+    /**
+     * A split chunk should not become smaller than this fraction of a planned chunk.
+     */
+    private static final int MIN_SPLIT_FRACTION = 4;
+
+    private final long chunkRows;
+
+    /**
+     * @param chunkRows Preferred count of rows per chunk
+     */
+    public TableChunkPlanner(long chunkRows) {
+        this.chunkRows = chunkRows;
+    }
+
+    /**
+     * Plans the chunks of a table.
+     *
+     * @param con Connection to the source database
+     * @param table Table to split
+     * @param rowCount Estimated count of rows of the table. Only the balance of the chunks depends on its accuracy
+     * @return Chunks of the table in order or an empty list when table is not worth to split
+     */
+    @NotNull
+    public List<TableChunk> plan(@NotNull Connection con, @NotNull DbTable table, long rowCount) throws SQLException {
+        int count = (int)Math.min(Integer.MAX_VALUE, (rowCount + chunkRows - 1) / chunkRows);
+        if (count < 2) {
+            return List.of();
+        }
+
+        // Columns in declared order of the key, so ranges of the first column follow the order of the key
+        List<DbColumn> primaryKeys = table
+                .getPrimaryKeyColumns()
+                .stream()
+                .map(table.columns::get)
+                .toList();
+
+        List<TableChunk> chunks;
+        if (primaryKeys.size() == 1 && INTEGER_TYPES.contains(primaryKeys.get(0).datatype)) {
+            chunks = planKeyRanges(con, table, primaryKeys.get(0), count);
+        } else if (!primaryKeys.isEmpty()) {
+            chunks = planSampledRanges(con, table, primaryKeys.get(0), rowCount, count);
+        } else {
+            chunks = planRowIdModulo(table, count);
+        }
+
+        LOGGER.debug("Table '{}' with {} rows split into {} chunks", table.name, rowCount, chunks.size());
+
+        return chunks;
+    }
+
+    @NotNull
+    private List<TableChunk> planKeyRanges(@NotNull Connection con, @NotNull DbTable table, @NotNull DbColumn column, int count) throws SQLException {
+        String name = quote(column.name);
+        String sql = "SELECT MIN(%s), MAX(%s) FROM %s".formatted(name, name, quote(table.name));
+
+        long min;
+        long max;
+        try (PreparedStatement statement = DbUtils.createPrepareStatement(con, sql, List.of()); ResultSet rs = statement.executeQuery()) {
+            rs.next();
+            min = rs.getLong(1);
+            max = rs.getLong(2);
+            if (rs.wasNull()) {
+                return List.of();
+            }
+        }
+
+        // Width as unsigned value, so ranges over the whole long domain don't overflow
+        long width = Long.divideUnsigned(max - min, count) + 1;
+        long minSplitWidth = Math.max(1, width / MIN_SPLIT_FRACTION);
+
+        List<TableChunk> chunks = new ArrayList<>(count);
+        long from = min;
+        for (int i = 0; i < count; i++) {
+            long to = i == count - 1 || Long.compareUnsigned(max - from, width) < 0 ? max : from + width - 1;
+            chunks.add(TableChunk.ofRange(name, from, to, minSplitWidth));
+            if (to == max) {
+                break;
+            }
+            from = to + 1;
+        }
+
+        return chunks;
+    }
+
+    @NotNull
+    private List<TableChunk> planSampledRanges(@NotNull Connection con, @NotNull DbTable table, @NotNull DbColumn column, long rowCount, int count) throws SQLException {
+        String name = quote(column.name);
+
+        List<String> boundaries = new ArrayList<>();
+        for (int i = 1; i < count; i++) {
+            long offset = rowCount * i / count + 1;
+            sampleBoundary(con, table, name, offset)
+                    .filter(b -> boundaries.isEmpty() || !boundaries.get(boundaries.size() - 1).equals(b))
+                    .ifPresent(boundaries::add);
+        }
+
+        if (boundaries.isEmpty()) {
+            return List.of();
+        }
+
+        List<TableChunk> chunks = new ArrayList<>(boundaries.size() + 1);
+        chunks.add(TableChunk.of(0, "%s < ?".formatted(name), List.of(boundaries.get(0))));
+        for (int i = 1; i < boundaries.size(); i++) {
+            chunks.add(TableChunk.of(i, "%s >= ? AND %s < ?".formatted(name, name), List.of(boundaries.get(i - 1), boundaries.get(i))));
+        }
+        chunks.add(TableChunk.of(boundaries.size(), "%s >= ?".formatted(name), List.of(boundaries.get(boundaries.size() - 1))));
+
+        return chunks;
+    }
+
+    @NotNull
+    private Optional<String> sampleBoundary(@NotNull Connection con, @NotNull DbTable table, @NotNull String column, long offset) throws SQLException {
+        String sql = "SELECT TOP 1 START AT %d %s FROM %s ORDER BY %s".formatted(offset, column, quote(table.name), column);
+
+        try (PreparedStatement statement = DbUtils.createPrepareStatement(con, sql, List.of()); ResultSet rs = statement.executeQuery()) {
+            return rs.next() ? Optional.ofNullable(rs.getString(1)) : Optional.empty();
+        }
+    }
+
+    @NotNull
+    private List<TableChunk> planRowIdModulo(@NotNull DbTable table, int count) {
+        String predicate = "MOD(ROWID(%s), %d) = %%d".formatted(quote(table.name), count);
+
+        List<TableChunk> chunks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            chunks.add(TableChunk.of(i, predicate.formatted(i), List.of()));
+        }
+
+        return chunks;
+    }
+
+    @NotNull
+    private static String quote(@Nullable String name) {
+        return "\"" + name + "\"";
+    }
+
+}
@@ -0,0 +1,752 @@
+package de.elomagic.unloader;
+
+import de.elomagic.AppRuntimeException;
+import de.elomagic.codec.BinaryOutput;
+import de.elomagic.codec.BinaryRowEncoder;
+import de.elomagic.codec.ColumnVector;
+import de.elomagic.codec.SpillDirectory;
+import de.elomagic.codec.ValueCodec;
+import de.elomagic.dto.DbColumn;
+import de.elomagic.dto.DbTable;
+import de.elomagic.loader.SchemaLoader;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unloads a result set in three stages, so waiting on the source database, encoding and writing are overlapping.
+ * Content files are written as text or in a binary format of a {@link BinaryRowEncoder}.
+ * <ol>
+ *     <li><b>Fetch</b> Reads batches of rows from the result set in the calling thread by the {@link ValueCodec}s of the columns</li>
+ *     <li><b>Encode</b> Encodes the rows of the batches into chunks of bytes in direct buffers</li>
+ *     <li><b>Write</b> Writes the chunks into the sinks, like files, streams or checksums. Every sink has its own write stage</li>
+ * </ol>
+ * The stages are connected by bounded queues of preallocated batches and chunks. A batch is returned to the fetch
+ * stage after it has been encoded and a chunk is returned to the encode stage after it has been written, so a slow
+ * stage blocks the others instead of buffering the table in the heap. Large values are handed over to the write stage
+ * in parts, so a chunk is never much larger than the chunk size. Spilled values are kept in a directory of the run,
+ * which is deleted when the run ends.
+ * <p>
+ * With shard limits, the output rolls over into the next shard file at the first row boundary after a limit was
+ * reached. Every shard is a complete content file, which can be loaded independently of the other shards.
+ */
+public final class TableUnloadPipeline {
+
+    private static final Logger LOGGER = LogManager.getLogger(TableUnloadPipeline.class);
+
+    public static final int DEFAULT_BATCH_ROWS = 1024;
+    public static final int DEFAULT_BATCH_COUNT = 4;
+
+    private static final long POLL_MILLIS = 100;
+    private static final int INITIAL_BYTES_PER_ROW = 128;
+
+    /**
+     * Encodes a row into text.
+     */
+    @FunctionalInterface
+    public interface RowEncoder {
+        /**
+         * @param columns Column vectors of the batch in order of the columns
+         * @param row Row in the vectors
+         * @param out Target of the encoded row including the line break
+         * @param flush Hands over the text of the target when it exceeds the chunk size. To be passed to
+         *              {@link ValueCodec#encode(ColumnVector, int, StringBuilder, Runnable)}
+         */
+        void encode(@NotNull ColumnVector[] columns, int row, @NotNull StringBuilder out, @NotNull Runnable flush);
+    }
+
+    private static final class Batch {
+
+        private final ColumnVector[] columns;
+        private int size;
+        private boolean last;
+
+        private Batch(int rowCount, int columnCount) {
+            columns = new ColumnVector[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                columns[i] = new ColumnVector(rowCount);
+            }
+        }
+
+    }
+
+    private static final class Chunk {
+
+        private ByteBuffer bytes;
+        private boolean last;
+        private boolean endOfShard;
+        /**
+         * Count of sinks which have not written the chunk yet
+         */
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private Chunk(int capacity) {
+            bytes = ByteBuffer.allocateDirect(capacity);
+        }
+
+    }
+
+    private final ValueCodec[] codecs;
+    private final RowEncoder encoder;
+    private final Charset charset;
+    private final BinaryRowEncoder binaryEncoder;
+    private final int batchRows;
+    private final int batchCount;
+    private final int chunkChars;
+    private final BlockingQueue<Batch> free;
+    private final BlockingQueue<Batch> fetched;
+    private final BlockingQueue<Chunk> freeChunks;
+    private List<BlockingQueue<Chunk>> sinkQueues = List.of();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private OutputCompression compression = OutputCompression.NONE;
+    private long maxShardBytes;
+    private long maxShardRows;
+    private final List<Path> files = new ArrayList<>();
+    /**
+     * Bytes of the current shard which are handed over to the write stage. Only used by the encode stage.
+     */
+    private long shardBytes;
+
+    public TableUnloadPipeline(@NotNull ValueCodec[] codecs, @NotNull RowEncoder encoder, @NotNull Charset charset) {
+        this(codecs, encoder, charset, DEFAULT_BATCH_ROWS, DEFAULT_BATCH_COUNT);
+    }
+
+    /**
+     * Creates a pipeline of a text content file.
+     *
+     * @param codecs Codecs of the columns of the result set in order of the columns
+     * @param encoder Encoder of a row
+     * @param charset Charset of the file
+     * @param batchRows Max count of rows per batch
+     * @param batchCount Count of preallocated batches and chunks
+     */
+    public TableUnloadPipeline(@NotNull ValueCodec[] codecs, @NotNull RowEncoder encoder, @NotNull Charset charset, int batchRows, int batchCount) {
+        this(codecs, encoder, charset, null, batchRows, batchCount);
+    }
+
+    public TableUnloadPipeline(@NotNull BinaryRowEncoder encoder) {
+        this(encoder, DEFAULT_BATCH_ROWS, DEFAULT_BATCH_COUNT);
+    }
+
+    /**
+     * Creates a pipeline of a binary content file.
+     *
+     * @param encoder Encoder of the rows
+     * @param batchRows Max count of rows per batch
+     * @param batchCount Count of preallocated batches and chunks
+     */
+    public TableUnloadPipeline(@NotNull BinaryRowEncoder encoder, int batchRows, int batchCount) {
+        this(encoder.getCodecs(), null, null, encoder, batchRows, batchCount);
+    }
+
+    private TableUnloadPipeline(@NotNull ValueCodec[] codecs, @Nullable RowEncoder encoder, @Nullable Charset charset, @Nullable BinaryRowEncoder binaryEncoder, int batchRows, int batchCount) {
+        this.codecs = codecs;
+        this.encoder = encoder;
+        this.charset = charset;
+        this.binaryEncoder = binaryEncoder;
+        this.batchRows = batchRows;
+        this.batchCount = batchCount;
+        this.chunkChars = batchRows * INITIAL_BYTES_PER_ROW;
+        this.free = new ArrayBlockingQueue<>(batchCount);
+        this.fetched = new ArrayBlockingQueue<>(batchCount);
+        this.freeChunks = new ArrayBlockingQueue<>(batchCount);
+
+        for (int i = 0; i < batchCount; i++) {
+            free.add(new Batch(batchRows, codecs.length));
+            freeChunks.add(new Chunk(chunkChars));
+        }
+    }
+
+    /**
+     * Creates a pipeline of text content in the format of the target loader. Values are encoded by the codecs of the
+     * loader and NULL values by the denormalized NULL of the loader.
+     *
+     * @param table Table of the content
+     * @param columns Columns of the result set in order of the columns
+     * @param targetLoader Loader of the content
+     * @return Pipeline in the encoding of the table content
+     */
+    @NotNull
+    public static TableUnloadPipeline ofTargetText(@NotNull DbTable table, @NotNull List<DbColumn> columns, @NotNull SchemaLoader targetLoader) {
+        ValueCodec[] codecs = columns.stream().map(targetLoader::createValueCodec).toArray(ValueCodec[]::new);
+        String[] nullValues = columns.stream().map(c -> targetLoader.denormalizeValue(null, c)).toArray(String[]::new);
+
+        return new TableUnloadPipeline(codecs, (vectors, row, out, flush) -> {
+            for (int i = 0; i < vectors.length; i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+
+                if (vectors[i].nulls[row]) {
+                    DbColumn column = columns.get(i);
+                    if (!column.nullable) {
+                        LOGGER.warn("Value of source database table '{}', column '{}' is NULL but must be NOT NULL by schema definition", table.name, column.name);
+                    }
+                    out.append(nullValues[i]);
+                } else {
+                    codecs[i].encode(vectors[i], row, out, flush);
+                }
+            }
+            out.append('\n');
+        }, table.content.encoding);
+    }
+
+    /**
+     * Sets the compression of the file or channel. Blocks are compressed concurrently by the common fork join pool.
+     *
+     * @param compression Compression of the file
+     * @return This pipeline
+     */
+    @NotNull
+    public TableUnloadPipeline withCompression(@NotNull OutputCompression compression) {
+        this.compression = compression;
+        return this;
+    }
+
+    /**
+     * Sets the limits of a shard. The value 0 disables a limit.
+     *
+     * @param maxBytes Max bytes of the uncompressed content of a shard. The limit is checked before each row, so a
+     *                 shard may become a row larger. Shards are cut in the encode stage before the write stages
+     *                 compress them, so every sink gets the same rows per shard and compressed shards are smaller
+     *                 than the limit
+     * @param maxRows Max rows of a shard
+     * @return This pipeline
+     */
+    @NotNull
+    public TableUnloadPipeline withShardLimits(long maxBytes, long maxRows) {
+        this.maxShardBytes = maxBytes;
+        this.maxShardRows = maxRows;
+        return this;
+    }
+
+    public boolean isSharded() {
+        return maxShardBytes > 0 || maxShardRows > 0;
+    }
+
+    /**
+     * Returns the file of a shard, like <code>table.000.dat</code> of <code>table.dat</code>.
+     *
+     * @param file Content file without shards
+     * @param index Index of the shard
+     * @return File of the shard
+     */
+    @NotNull
+    public static Path getShardFile(@NotNull Path file, int index) {
+        String name = file.getFileName().toString();
+        int position = name.lastIndexOf(".dat");
+        position = position == -1 ? name.length() : position;
+        return file.resolveSibling(name.substring(0, position) + ".%03d".formatted(index) + name.substring(position));
+    }
+
+    /**
+     * @return Written files of the sinks in order. The shards when the pipeline is sharded, otherwise the content file
+     */
+    @NotNull
+    public List<Path> getFiles() {
+        return files;
+    }
+
+    /**
+     * Unloads all rows of the result set into the file or into shards of the file, see {@link #getShardFile(Path, int)}.
+     *
+     * @param rs Result set positioned before the first row
+     * @param file Target file. Will be replaced
+     * @return Count of unloaded rows
+     */
+    public long run(@NotNull ResultSet rs, @NotNull Path file) throws IOException, SQLException {
+        try (ContentSink sink = ContentSinks.ofFile(file, compression)) {
+            return run(rs, List.of(sink));
+        }
+    }
+
+    /**
+     * Unloads all rows of the result set into the channel, like a COPY stream of the target database.
+     *
+     * @param rs Result set positioned before the first row
+     * @param target Target channel. Will not be closed
+     * @return Count of unloaded rows
+     */
+    public long run(@NotNull ResultSet rs, @NotNull WritableByteChannel target) throws IOException, SQLException {
+        try (ContentSink sink = ContentSinks.ofChannel(target, compression)) {
+            return run(rs, List.of(sink));
+        }
+    }
+
+    /**
+     * Unloads all rows of the result set into all sinks. The result set is read and encoded only once. Every sink
+     * is written by its own write stage and a chunk is returned to the encode stage after it has been written into
+     * all sinks, so the slowest sink throttles the others.
+     * <p>
+     * The sinks are committed after all rows were written but not closed.
+     *
+     * @param rs Result set positioned before the first row
+     * @param sinks Target sinks
+     * @return Count of unloaded rows
+     */
+    public long run(@NotNull ResultSet rs, @NotNull List<ContentSink> sinks) throws IOException, SQLException {
+        if (sinks.isEmpty()) {
+            throw new AppRuntimeException("At least one content sink is required.");
+        } else if (isSharded() && sinks.stream().anyMatch(sink -> !sink.isShardable())) {
+            throw new AppRuntimeException("Shard limits are not supported by the content sinks.");
+        }
+
+        files.clear();
+        shardBytes = 0;
+        sinkQueues = sinks.stream().map(sink -> (BlockingQueue<Chunk>)new ArrayBlockingQueue<Chunk>(batchCount)).toList();
+
+        // Large values which are spilled but never encoded because of a failure are deleted together with the directory
+        try (SpillDirectory spillDirectory = new SpillDirectory()) {
+            for (ValueCodec codec : codecs) {
+                codec.setSpillDirectory(spillDirectory);
+            }
+
+            return runStages(rs, sinks);
+        }
+    }
+
+    private long runStages(@NotNull ResultSet rs, @NotNull List<ContentSink> sinks) throws IOException, SQLException {
+        Thread encodeThread = startStage("encode", binaryEncoder == null ? this::encodeStage : this::encodeBinaryStage);
+        List<Thread> writeThreads = new ArrayList<>();
+        for (int i = 0; i < sinks.size(); i++) {
+            ContentSink sink = sinks.get(i);
+            BlockingQueue<Chunk> queue = sinkQueues.get(i);
+            writeThreads.add(startStage("write-" + i, () -> {
+                ShardChannel channel = new ShardChannel(sink);
+                try {
+                    if (sink.getCompression() == OutputCompression.GZIP) {
+                        writeCompressedStage(queue, channel);
+                    } else {
+                        writeStage(queue, channel);
+                    }
+                } finally {
+                    try {
+                        channel.close();
+                    } catch (IOException ex) {
+                        failure.compareAndSet(null, ex);
+                    }
+                }
+            }));
+        }
+
+        long rows = 0;
+        try {
+            rows = fetchStage(rs);
+        } catch (SQLException | RuntimeException ex) {
+            failure.compareAndSet(null, ex);
+        }
+
+        join(encodeThread);
+        writeThreads.forEach(this::join);
+
+        sinks.forEach(sink -> files.addAll(sink.getFiles()));
+
+        Throwable ex = failure.get();
+        if (ex instanceof SQLException sqlException) {
+            throw sqlException;
+        } else if (ex instanceof IOException ioException) {
+            throw ioException;
+        } else if (ex instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        } else if (ex != null) {
+            throw new AppRuntimeException(ex.getMessage(), ex);
+        }
+
+        for (ContentSink sink : sinks) {
+            sink.commit();
+        }
+
+        return rows;
+    }
+
+    private long fetchStage(@NotNull ResultSet rs) throws SQLException {
+        long count = 0;
+        boolean hasNext = true;
+        while (hasNext) {
+            Batch batch = take(free);
+            if (batch == null) {
+                return count;
+            }
+
+            batch.size = 0;
+            while (batch.size < batchRows && (hasNext = rs.next())) {
+                int row = batch.size++;
+                for (int i = 0; i < codecs.length; i++) {
+                    codecs[i].fetch(rs, i + 1, batch.columns[i], row);
+                }
+            }
+
+            count += batch.size;
+            batch.last = !hasNext;
+            if (!put(fetched, batch)) {
+                return count;
+            }
+        }
+
+        return count;
+    }
+
+    private void encodeStage() {
+        TextEncoder textEncoder = new TextEncoder(charset);
+        StringBuilder text = new StringBuilder(chunkChars + chunkChars / 4);
+        Runnable flush = () -> {
+            if (text.length() >= chunkChars && !handOver(textEncoder, text, false, false)) {
+                // The failure of the other stage is reported, so this is only to stop encoding
+                throw new AppRuntimeException("Stage stopped because of a failure of another stage");
+            }
+        };
+
+        int maxBytesPerChar = (int)Math.ceil(textEncoder.maxBytesPerChar());
+        long rows = 0;
+        boolean last = false;
+        while (!last) {
+            Batch batch = take(fetched);
+            if (batch == null) {
+                return;
+            }
+
+            for (int i = 0; i < batch.size; i++) {
+                // The size of the pending text is only known after encoding, so it is handed over when it may reach the limit
+                if (maxShardBytes > 0 && !text.isEmpty() && shardBytes + (long)text.length() * maxBytesPerChar >= maxShardBytes && !handOver(textEncoder, text, false, false)) {
+                    return;
+                }
+
+                if (isShardFull(rows, 0)) {
+                    if (!handOver(textEncoder, text, false, true)) {
+                        return;
+                    }
+                    rows = 0;
+                }
+
+                encoder.encode(batch.columns, i, text, flush);
+                flush.run();
+                rows++;
+            }
+
+            last = batch.last;
+            if (!put(free, batch)) {
+                return;
+            }
+        }
+
+        handOver(textEncoder, text, true, true);
+    }
+
+    /**
+     * @param rows Rows of the current shard
+     * @param pendingBytes Bytes of the current shard which are not handed over yet
+     * @return true when the current shard is full and the next row must be written into the next shard
+     */
+    private boolean isShardFull(long rows, long pendingBytes) {
+        return rows > 0 && ((maxShardRows > 0 && rows >= maxShardRows) || (maxShardBytes > 0 && shardBytes + pendingBytes >= maxShardBytes));
+    }
+
+    private void encodeBinaryStage() {
+        Chunk[] current = {take(freeChunks)};
+        if (current[0] == null) {
+            return;
+        }
+
+        boolean[] endOfShard = {false};
+        BinaryOutput out = new BinaryOutput(current[0].bytes.clear(), buffer -> {
+            current[0].bytes = buffer.flip();
+            current[0].last = false;
+            current[0].endOfShard = endOfShard[0];
+            shardBytes = endOfShard[0] ? 0 : shardBytes + buffer.remaining();
+            if (!publish(current[0]) || (current[0] = take(freeChunks)) == null) {
+                // The failure of the other stage is reported, so this is only to stop encoding
+                throw new AppRuntimeException("Stage stopped because of a failure of another stage");
+            }
+            return current[0].bytes.clear();
+        });
+
+        binaryEncoder.writeHeader(out);
+
+        long rows = 0;
+        boolean last = false;
+        while (!last) {
+            Batch batch = take(fetched);
+            if (batch == null) {
+                return;
+            }
+
+            for (int i = 0; i < batch.size; i++) {
+                if (isShardFull(rows, out.getBuffer().position())) {
+                    binaryEncoder.writeTrailer(out);
+                    endOfShard[0] = true;
+                    out.handOver();
+                    endOfShard[0] = false;
+                    binaryEncoder.writeHeader(out);
+                    rows = 0;
+                }
+
+                binaryEncoder.encode(batch.columns, i, out);
+                rows++;
+            }
+
+            last = batch.last;
+            if (!put(free, batch)) {
+                return;
+            }
+        }
+
+        binaryEncoder.writeTrailer(out);
+
+        current[0].bytes = out.getBuffer().flip();
+        current[0].last = true;
+        current[0].endOfShard = true;
+        publish(current[0]);
+    }
+
+    /**
+     * Encodes the text into a chunk and hands it over to the write stages.
+     *
+     * @return false when another stage failed
+     */
+    private boolean handOver(@NotNull TextEncoder textEncoder, @NotNull StringBuilder text, boolean last, boolean endOfShard) {
+        Chunk chunk = take(freeChunks);
+        if (chunk == null) {
+            return false;
+        }
+
+        // A surrogate pair must not be split into two chunks
+        char pending = 0;
+        if (!endOfShard && !text.isEmpty() && Character.isHighSurrogate(text.charAt(text.length() - 1))) {
+            pending = text.charAt(text.length() - 1);
+            text.setLength(text.length() - 1);
+        }
+
+        chunk.bytes = textEncoder.encode(text, chunk.bytes);
+        chunk.last = last;
+        chunk.endOfShard = endOfShard;
+        shardBytes = endOfShard ? 0 : shardBytes + chunk.bytes.remaining();
+
+        text.setLength(0);
+        if (pending != 0) {
+            text.append(pending);
+        }
+
+        return publish(chunk);
+    }
+
+    /**
+     * Hands over the chunk to the write stages of all sinks.
+     *
+     * @return false when another stage failed
+     */
+    private boolean publish(@NotNull Chunk chunk) {
+        chunk.pending.set(sinkQueues.size());
+        for (BlockingQueue<Chunk> queue : sinkQueues) {
+            if (!put(queue, chunk)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the chunk to the encode stage after it has been written into all sinks.
+     *
+     * @return false when another stage failed
+     */
+    private boolean release(@NotNull Chunk chunk) {
+        return chunk.pending.decrementAndGet() > 0 || put(freeChunks, chunk);
+    }
+
+    /**
+     * Writes the chunks of a sink. The bytes of a chunk are shared by all sinks, so they are written by a duplicate.
+     */
+    private void writeStage(@NotNull BlockingQueue<Chunk> queue, @NotNull ShardChannel channel) {
+        boolean last = false;
+        while (!last) {
+            Chunk chunk = take(queue);
+            if (chunk == null) {
+                return;
+            }
+
+            try {
+                channel.write(chunk.bytes.duplicate(), chunk.endOfShard);
+            } catch (IOException ex) {
+                failure.compareAndSet(null, ex);
+                return;
+            }
+
+            last = chunk.last;
+            if (!release(chunk)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Compresses the chunks concurrently and writes them in order. All chunks except one for the encode stage may be
+     * compressed at the same time.
+     */
+    private void writeCompressedStage(@NotNull BlockingQueue<Chunk> queue, @NotNull ShardChannel channel) {
+        int maxPending = Math.max(1, batchCount - 1);
+        Deque<Chunk> pendingChunks = new ArrayDeque<>();
+        Deque<Future<ByteBuffer>> pendingBlocks = new ArrayDeque<>();
+
+        boolean last = false;
+        while (!last || !pendingChunks.isEmpty()) {
+            if (!last) {
+                Chunk chunk = take(queue);
+                if (chunk == null) {
+                    return;
+                }
+
+                last = chunk.last;
+                pendingChunks.add(chunk);
+                pendingBlocks.add(ForkJoinPool.commonPool().submit(() -> GzipBlockCompressor.compress(chunk.bytes.duplicate())));
+
+                if (!last && pendingChunks.size() < maxPending) {
+                    continue;
+                }
+            }
+
+            Chunk chunk = pendingChunks.remove();
+            try {
+                channel.write(pendingBlocks.remove().get(), chunk.endOfShard);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                failure.compareAndSet(null, ex);
+                return;
+            } catch (ExecutionException ex) {
+                failure.compareAndSet(null, ex.getCause());
+                return;
+            } catch (IOException ex) {
+                failure.compareAndSet(null, ex);
+                return;
+            }
+
+            if (!release(chunk)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Channel of the current shard of a sink. The channel of a shard is opened with the first write.
+     */
+    private final class ShardChannel implements AutoCloseable {
+
+        private final ContentSink sink;
+        private WritableByteChannel channel;
+        private int shard;
+
+        private ShardChannel(@NotNull ContentSink sink) {
+            this.sink = sink;
+        }
+
+        private void write(@NotNull ByteBuffer bytes, boolean endOfShard) throws IOException {
+            if (channel == null) {
+                channel = sink.open(shard, isSharded());
+            }
+
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+
+            if (endOfShard) {
+                close();
+                shard++;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (channel != null) {
+                WritableByteChannel current = channel;
+                channel = null;
+                current.close();
+            }
+        }
+
+    }
+
+    @NotNull
+    private Thread startStage(@NotNull String name, @NotNull Runnable stage) {
+        Thread thread = new Thread(() -> {
+            try {
+                stage.run();
+            } catch (Throwable ex) {
+                failure.compareAndSet(null, ex);
+            }
+        }, Thread.currentThread().getName() + "-" + name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private void join(@NotNull Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, ex);
+        }
+    }
+
+    /**
+     * @return Next element or null when another stage failed
+     */
+    @Nullable
+    private <T> T take(@NotNull BlockingQueue<T> queue) {
+        try {
+            while (failure.get() == null) {
+                T element = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (element != null) {
+                    return element;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, ex);
+        }
+
+        LOGGER.trace("Stage stopped because of a failure of another stage");
+        return null;
+    }
+
+    /**
+     * @return false when another stage failed
+     */
+    private <T> boolean put(@NotNull BlockingQueue<T> queue, @NotNull T element) {
+        try {
+            while (failure.get() == null) {
+                if (queue.offer(element, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, ex);
+        }
+
+        return false;
+    }
+
+}
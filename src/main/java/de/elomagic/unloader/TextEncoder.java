@@ -0,0 +1,193 @@
+package de.elomagic.unloader;
+
+import de.elomagic.AppRuntimeException;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Encodes the text of a batch into a reusable direct buffer.
+ * <p>
+ * UTF-8 is encoded without a {@link CharsetEncoder}. Charsets which are compatible to ASCII encode ASCII characters
+ * directly and fall back to the {@link CharsetEncoder} for the remaining text after the first other character.
+ * Not mappable characters are reported as failure.
+ */
+public final class TextEncoder {
+
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private enum Mode {
+        UTF_8,
+        ASCII_COMPATIBLE,
+        GENERIC
+    }
+
+    private final Charset charset;
+    private final CharsetEncoder encoder;
+    private final Mode mode;
+
+    TextEncoder(@NotNull Charset charset) {
+        this.charset = charset;
+        this.encoder = charset.newEncoder();
+        this.mode = StandardCharsets.UTF_8.equals(charset) ? Mode.UTF_8 : isAsciiCompatible(charset) ? Mode.ASCII_COMPATIBLE : Mode.GENERIC;
+    }
+
+    private static boolean isAsciiCompatible(@NotNull Charset charset) {
+        if (!charset.canEncode()) {
+            return false;
+        }
+
+        byte[] ascii = new byte[128];
+        for (int i = 0; i < ascii.length; i++) {
+            ascii[i] = (byte)i;
+        }
+
+        return Arrays.equals(ascii, new String(ascii, StandardCharsets.US_ASCII).getBytes(charset));
+    }
+
+    /**
+     * @return Max count of bytes of an encoded character
+     */
+    float maxBytesPerChar() {
+        return encoder.maxBytesPerChar();
+    }
+
+    /**
+     * Encodes the text.
+     *
+     * @param text Text to encode
+     * @param buffer Preferred target buffer
+     * @return Flipped buffer with the encoded text. A larger buffer than the given one when capacity was exceeded
+     */
+    @NotNull
+    ByteBuffer encode(@NotNull CharSequence text, @NotNull ByteBuffer buffer) {
+        buffer.clear();
+        return switch (mode) {
+            case UTF_8 -> encodeUtf8(text, buffer).flip();
+            case ASCII_COMPATIBLE -> encodeAscii(text, buffer).flip();
+            case GENERIC -> encodeGeneric(text, 0, buffer).flip();
+        };
+    }
+
+    @NotNull
+    private ByteBuffer encodeUtf8(@NotNull CharSequence text, @NotNull ByteBuffer buffer) {
+        int length = text.length();
+        buffer = ensureCapacity(buffer, length * 3L);
+        encodeUtf8(text, 0, length, buffer, false);
+        return buffer;
+    }
+
+    /**
+     * Encodes a range of the text into UTF-8 without a {@link CharsetEncoder}.
+     *
+     * @param text Text to encode
+     * @param from Index of the first char
+     * @param to Index behind the last char
+     * @param target Target buffer with space for 3 bytes per char behind its position
+     * @param dropNul Drops NUL characters when true
+     * @return Count of encoded bytes. The position of the target is moved behind them
+     */
+    public static int encodeUtf8(@NotNull CharSequence text, int from, int to, @NotNull ByteBuffer target, boolean dropNul) {
+        // A char results in max 3 bytes, a surrogate pair of two chars in 4 bytes
+        int offset = target.position();
+        int position = offset;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c == 0 && dropNul) {
+                continue;
+            } else if (c < 0x80) {
+                target.put(position++, (byte)c);
+            } else if (c < 0x800) {
+                target.put(position++, (byte)(0xC0 | (c >> 6)));
+                target.put(position++, (byte)(0x80 | (c & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                char low = i + 1 < to ? text.charAt(i + 1) : 0;
+                if (!Character.isHighSurrogate(c) || !Character.isLowSurrogate(low)) {
+                    throw new AppRuntimeException("Unable to encode value into UTF-8: Malformed surrogate at position " + i);
+                }
+                int cp = Character.toCodePoint(c, low);
+                i++;
+                target.put(position++, (byte)(0xF0 | (cp >> 18)));
+                target.put(position++, (byte)(0x80 | ((cp >> 12) & 0x3F)));
+                target.put(position++, (byte)(0x80 | ((cp >> 6) & 0x3F)));
+                target.put(position++, (byte)(0x80 | (cp & 0x3F)));
+            } else {
+                target.put(position++, (byte)(0xE0 | (c >> 12)));
+                target.put(position++, (byte)(0x80 | ((c >> 6) & 0x3F)));
+                target.put(position++, (byte)(0x80 | (c & 0x3F)));
+            }
+        }
+
+        target.position(position);
+        return position - offset;
+    }
+
+    @NotNull
+    private ByteBuffer encodeAscii(@NotNull CharSequence text, @NotNull ByteBuffer buffer) {
+        int length = text.length();
+        buffer = ensureCapacity(buffer, length);
+
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                buffer.position(i);
+                return encodeGeneric(text, i, buffer);
+            }
+            buffer.put(i, (byte)c);
+        }
+
+        return buffer.position(length);
+    }
+
+    @NotNull
+    private ByteBuffer encodeGeneric(@NotNull CharSequence text, int start, @NotNull ByteBuffer buffer) {
+        CharBuffer in = CharBuffer.wrap(text, start, text.length());
+        encoder.reset();
+
+        try {
+            CoderResult result;
+            do {
+                result = encoder.encode(in, buffer, true);
+                if (result.isOverflow()) {
+                    buffer = grow(buffer, buffer.capacity() * 2L);
+                } else if (result.isError()) {
+                    result.throwException();
+                }
+            } while (result.isOverflow());
+
+            while (encoder.flush(buffer).isOverflow()) {
+                buffer = grow(buffer, buffer.capacity() * 2L);
+            }
+        } catch (CharacterCodingException ex) {
+            throw new AppRuntimeException("Unable to encode value into " + charset + ": " + ex.getMessage(), ex);
+        }
+
+        return buffer;
+    }
+
+    @NotNull
+    private static ByteBuffer ensureCapacity(@NotNull ByteBuffer buffer, long capacity) {
+        return buffer.capacity() >= capacity ? buffer : grow(buffer, capacity);
+    }
+
+    @NotNull
+    private static ByteBuffer grow(@NotNull ByteBuffer buffer, long capacity) {
+        if (capacity > MAX_CAPACITY) {
+            throw new AppRuntimeException("Batch of " + capacity + " bytes exceeds the max size of a buffer.");
+        }
+
+        ByteBuffer larger = ByteBuffer.allocateDirect((int)Math.min(MAX_CAPACITY, Math.max(capacity, buffer.capacity() * 2L)));
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+
+}
@@ -0,0 +1,172 @@
+package de.elomagic.unloader;
+
+import de.elomagic.AppRuntimeException;
+import de.elomagic.ConnectionPool;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Runs the unload tasks of tables and chunks.
+ * <p>
+ * Supported modes are
+ * <ul>
+ *     <li><b>fork-join</b> Fork join pool sized like the connection pool. Chunks are split by work stealing</li>
+ *     <li><b>platform</b> Fixed pool of platform threads sized like the connection pool</li>
+ *     <li><b>virtual</b> A virtual thread per task. Requires Java 21, otherwise platform threads are used</li>
+ * </ul>
+ * The real concurrency is always bounded by the connections of the {@link ConnectionPool}, because every task borrows
+ * a connection.
+ * <p>
+ * Tasks may invoke further tasks, like a table its chunks. A thread of the fixed pool which waits for its invoked tasks
+ * runs the tasks which are not started yet by itself, so the pool can't be blocked by waiting threads.
+ */
+public final class UnloadExecutor implements AutoCloseable {
+
+    private static final Logger LOGGER = LogManager.getLogger(UnloadExecutor.class);
+
+    public enum Mode {
+        FORK_JOIN,
+        PLATFORM,
+        VIRTUAL;
+
+        @NotNull
+        public static Mode parse(@NotNull String mode) {
+            try {
+                return valueOf(mode.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+            } catch (IllegalArgumentException ex) {
+                throw new AppRuntimeException("Unsupported unload executor '" + mode + "'.");
+            }
+        }
+    }
+
+    /**
+     * Executor of the tasks of the current thread, when it is a thread of an executor
+     */
+    private static final ThreadLocal<UnloadExecutor> CURRENT = new ThreadLocal<>();
+
+    private final Mode mode;
+    private final ExecutorService executor;
+    private final ConnectionPool pool;
+
+    /**
+     * @param mode Execution mode
+     * @param pool Connection pool of the tasks
+     */
+    public UnloadExecutor(@NotNull Mode mode, @NotNull ConnectionPool pool) {
+        this.pool = pool;
+        this.mode = mode == Mode.VIRTUAL && !isVirtualThreadSupported() ? Mode.PLATFORM : mode;
+        this.executor = switch (this.mode) {
+            case FORK_JOIN -> new ForkJoinPool(pool.getSize());
+            case PLATFORM -> Executors.newFixedThreadPool(pool.getSize());
+            case VIRTUAL -> createVirtualThreadExecutor();
+        };
+
+        if (this.mode != mode) {
+            LOGGER.warn("Virtual threads are not supported by Java {}. Using platform threads.", Runtime.version().feature());
+        }
+
+        LOGGER.info("Using unload executor mode {}", this.mode);
+    }
+
+    @NotNull
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Runs the tasks concurrently and waits until all are finished. Tasks are started in the given order.
+     *
+     * @param tasks Tasks to run
+     * @throws AppRuntimeException Thrown with the first failure of a task after all tasks are finished
+     */
+    public void invokeAll(@NotNull Collection<Runnable> tasks) throws AppRuntimeException {
+        if (mode == Mode.FORK_JOIN && ForkJoinTask.inForkJoinPool()) {
+            ForkJoinTask.invokeAll(tasks.stream().map(ForkJoinTask::adapt).toList());
+            return;
+        }
+
+        List<FutureTask<?>> futures = new ArrayList<>(tasks.size());
+        for (Runnable task : tasks) {
+            FutureTask<?> future = new FutureTask<>(() -> run(task), null);
+            futures.add(future);
+            executor.execute(future);
+        }
+
+        RuntimeException error = null;
+        for (FutureTask<?> future : futures) {
+            try {
+                // A task which is not started yet is run by the waiting thread, when it is a thread of the fixed pool
+                if (CURRENT.get() == this && executor instanceof ThreadPoolExecutor threadPool && threadPool.remove(future)) {
+                    future.run();
+                }
+                future.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new AppRuntimeException(ex.getMessage(), ex);
+            } catch (ExecutionException ex) {
+                if (error == null) {
+                    error = ex.getCause() instanceof RuntimeException re ? re : new AppRuntimeException(ex.getCause().getMessage(), ex.getCause());
+                }
+            }
+        }
+
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * @return true when other tasks are waiting for work, so a running task should split his remaining work
+     */
+    public boolean hasIdleCapacity() {
+        if (mode == Mode.FORK_JOIN) {
+            return ForkJoinTask.inForkJoinPool() && ForkJoinTask.getSurplusQueuedTaskCount() <= 0;
+        }
+
+        return pool.getAvailableConnections() > 0;
+    }
+
+    private void run(@NotNull Runnable task) {
+        UnloadExecutor previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            task.run();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private static boolean isVirtualThreadSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    @NotNull
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            // Called by reflection, so the toolkit can still be built with Java 17
+            return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            throw new AppRuntimeException(ex.getMessage(), ex);
+        }
+    }
+
+}
@@ -0,0 +1,142 @@
+package de.elomagic.unloader;
+
+import de.elomagic.dto.DbTable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Order of the tables to unload, longest processing time first.
+ * <p>
+ * The costs of a table are estimated in pages of the source catalog. Pages of a table which are unknown are estimated
+ * from its rows by the average rows per page of the tables with known pages. When no pages are known at all, the costs
+ * are estimated in rows. The plan simulates the assignment of the tables to the workers to estimate the critical path
+ * of the unload.
+ */
+public final class UnloadPlan {
+
+    private static final Logger LOGGER = LogManager.getLogger(UnloadPlan.class);
+
+    private final List<DbTable> tables;
+    private final int workers;
+    private final long totalCosts;
+    private final long criticalPath;
+    private final String unit;
+
+    private UnloadPlan(@NotNull List<DbTable> tables, int workers, long totalCosts, long criticalPath, @NotNull String unit) {
+        this.tables = tables;
+        this.workers = workers;
+        this.totalCosts = totalCosts;
+        this.criticalPath = criticalPath;
+        this.unit = unit;
+    }
+
+    /**
+     * @param tables Tables to unload
+     * @return Average rows per page of the tables with known pages or 0 when no pages are known
+     */
+    static double getRowsPerPage(@NotNull Collection<DbTable> tables) {
+        long rows = 0;
+        long pages = 0;
+        for (DbTable table : tables) {
+            if (table.pageCount > 0) {
+                rows += table.rowCount;
+                pages += table.pageCount;
+            }
+        }
+
+        return pages == 0 ? 0 : Math.max(1, rows) / (double)pages;
+    }
+
+    /**
+     * @param table Table to estimate
+     * @param rowsPerPage Average rows per page, see {@link #getRowsPerPage(Collection)}. 0 when the costs are
+     *                    estimated in rows
+     * @return Estimated costs of unloading the table in pages or in rows when no pages are known
+     */
+    static long estimateCosts(@NotNull DbTable table, double rowsPerPage) {
+        if (rowsPerPage == 0) {
+            return table.rowCount;
+        }
+
+        return table.pageCount > 0 ? table.pageCount : (long)Math.ceil(table.rowCount / rowsPerPage);
+    }
+
+    /**
+     * Creates the plan.
+     *
+     * @param tables Tables to unload
+     * @param workers Count of workers
+     * @return The plan
+     */
+    @NotNull
+    public static UnloadPlan create(@NotNull Collection<DbTable> tables, int workers) {
+        double rowsPerPage = getRowsPerPage(tables);
+
+        List<DbTable> ordered = tables
+                .stream()
+                .sorted(Comparator
+                        .comparingLong((DbTable t) -> estimateCosts(t, rowsPerPage))
+                        .thenComparingLong(DbTable::getRowCount)
+                        .reversed()
+                        .thenComparing(t -> t.name))
+                .toList();
+
+        // Simulates the list scheduling. Every table is assigned to the worker which will be free first
+        PriorityQueue<long[]> loads = new PriorityQueue<>(Comparator.comparingLong(l -> l[0]));
+        for (int i = 0; i < Math.max(1, workers); i++) {
+            loads.add(new long[] {0, i});
+        }
+
+        long total = 0;
+        for (DbTable table : ordered) {
+            long costs = estimateCosts(table, rowsPerPage);
+            long[] load = loads.poll();
+            LOGGER.debug("Plan: table '{}' with {} rows and {} pages starts on worker {} at {}", table.name, table.rowCount, table.pageCount, load[1], load[0]);
+            load[0] += costs;
+            loads.add(load);
+            total += costs;
+        }
+
+        long criticalPath = loads.stream().mapToLong(l -> l[0]).max().orElse(0);
+
+        return new UnloadPlan(ordered, workers, total, criticalPath, rowsPerPage == 0 ? "rows" : "pages");
+    }
+
+    /**
+     * @return Tables in the order they should be started
+     */
+    @NotNull
+    public List<DbTable> getTables() {
+        return tables;
+    }
+
+    /**
+     * @return Estimated costs of the worker which will finish last
+     */
+    public long getCriticalPath() {
+        return criticalPath;
+    }
+
+    public void log() {
+        LOGGER.info("Unload plan: {} tables on {} workers. Estimated costs {} {} in total and {} {} on the critical path",
+                tables.size(),
+                workers,
+                totalCosts,
+                unit,
+                criticalPath,
+                unit);
+
+        if (!tables.isEmpty()) {
+            DbTable largest = tables.get(0);
+            LOGGER.info("Largest table '{}' with {} rows and {} pages", largest.name, largest.rowCount, largest.pageCount);
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+package de.elomagic;
+
+import de.elomagic.dto.DbColumn;
+import de.elomagic.dto.DbDataType;
+import de.elomagic.dto.DbForeignKey;
+import de.elomagic.dto.DbSystem;
+import de.elomagic.dto.DbTable;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DbSystemSnapshotTest {
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+        DbColumn column = new DbColumn();
+        column.index = 1;
+        column.name = "Id";
+        column.datatype = DbDataType.INTEGER;
+        column.autoinc = true;
+        column.nextValue = 42L;
+        column.comment = "Schlüssel";
+
+        DbTable table = new DbTable();
+        table.name = "Order";
+        table.columns.put(column.name, column);
+        table.primaryKey.add(column.name);
+
+        DbForeignKey fk = new DbForeignKey();
+        fk.name = "FK_Order";
+        fk.fkColumns.add(Pair.of("Id", true));
+        fk.actionOnDelete = DbForeignKey.RefAction.CASCADE;
+
+        DbSystem system = new DbSystem();
+        system.tables.put(table.name, table);
+        system.foreignKeys.add(fk);
+
+        Path file = Files.createTempDirectory("dbtk").resolve("schema.snapshot");
+
+        DbSystemSnapshot.write(file, "key1", system);
+
+        assertFalse(DbSystemSnapshot.read(file, "key2").isPresent());
+
+        DbSystem result = DbSystemSnapshot.read(file, "key1").orElseThrow();
+        DbColumn resultColumn = result.tables.get("Order").columns.get("Id");
+        assertEquals("Schlüssel", resultColumn.comment);
+        assertEquals(Long.valueOf(42), resultColumn.nextValue);
+        assertTrue(resultColumn.autoinc);
+        assertNull(resultColumn.width);
+        assertNull(result.tables.get("Order").content);
+        assertEquals(List.of("Id"), result.tables.get("Order").primaryKey);
+        assertEquals(DbForeignKey.RefAction.CASCADE, result.foreignKeys.get(0).actionOnDelete);
+        assertEquals(Pair.of("Id", true), result.foreignKeys.get(0).fkColumns.get(0));
+    }
+
+}
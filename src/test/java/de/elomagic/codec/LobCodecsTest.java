@@ -0,0 +1,93 @@
+package de.elomagic.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LobCodecsTest {
+
+    private static ResultSet createResultSet(byte[] bytes, String text) {
+        return (ResultSet)Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class[] {ResultSet.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "getBinaryStream" -> bytes == null ? null : new ByteArrayInputStream(bytes);
+            case "getCharacterStream" -> text == null ? null : new StringReader(text);
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private static String encode(ValueCodec codec, ResultSet rs, int[] flushes) throws Exception {
+        try (SpillDirectory spillDirectory = new SpillDirectory()) {
+            codec.setSpillDirectory(spillDirectory);
+
+            ColumnVector vector = new ColumnVector(1);
+            codec.fetch(rs, 1, vector, 0);
+            StringBuilder out = new StringBuilder();
+            codec.encode(vector, 0, out, () -> flushes[0]++);
+            return out.toString();
+        }
+    }
+
+    @Test
+    public void testBinaryStream() throws Exception {
+        byte[] bytes = new byte[200_000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte)(i * 31);
+        }
+
+        int[] flushes = {0};
+        assertEquals("\\\\x" + HexFormat.of().formatHex(bytes, 0, 100), encode(LobCodecs.ofBinaryStream("\\\\x", 100), createResultSet(Arrays.copyOf(bytes, 100), null), flushes));
+        assertEquals(0, flushes[0]);
+
+        assertEquals("\\\\x" + HexFormat.of().formatHex(bytes), encode(LobCodecs.ofBinaryStream("\\\\x", 100), createResultSet(bytes, null), flushes));
+        assertTrue(flushes[0] > 1);
+    }
+
+    @Test
+    public void testCharacterStream() throws Exception {
+        String text = "a,b\\c\n€😀".repeat(20_000);
+
+        int[] flushes = {0};
+        assertEquals("\"" + TextEscaper.SQL_ANYWHERE.escape(text) + "\"", encode(LobCodecs.ofCharacterStream(TextEscaper.SQL_ANYWHERE, "\"", 1000), createResultSet(null, text), flushes));
+        assertTrue(flushes[0] > 1);
+
+        assertEquals(TextEscaper.POSTGRES.escape(text), encode(LobCodecs.ofCharacterStream(TextEscaper.POSTGRES, "", text.length()), createResultSet(null, text), flushes));
+    }
+
+    @Test
+    public void testSpillDirectory() throws Exception {
+        ValueCodec codec = LobCodecs.ofBinaryStream("x", 10);
+        ColumnVector vector = new ColumnVector(1);
+
+        Path file;
+        try (SpillDirectory spillDirectory = new SpillDirectory()) {
+            codec.setSpillDirectory(spillDirectory);
+            codec.fetch(createResultSet(new byte[100], null), 1, vector, 0);
+
+            // Fetched but never encoded
+            file = (Path)vector.objects[0];
+            assertTrue(Files.exists(file));
+        }
+
+        assertFalse(Files.exists(file));
+        assertFalse(Files.exists(file.getParent()));
+    }
+
+    @Test
+    public void testNull() throws Exception {
+        ColumnVector vector = new ColumnVector(1);
+        LobCodecs.ofBinaryStream("x", 10).fetch(createResultSet(null, null), 1, vector, 0);
+        assertTrue(vector.nulls[0]);
+    }
+
+}
@@ -0,0 +1,85 @@
+package de.elomagic.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TemporalCodecsTest {
+
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm:ss.SSSSSS");
+
+    /**
+     * @return Result set of a driver which doesn't support the types of java.time
+     */
+    private static ResultSet createLegacyResultSet(Object value) {
+        return (ResultSet)Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class[] {ResultSet.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "getObject" -> throw new SQLFeatureNotSupportedException();
+            default -> value;
+        });
+    }
+
+    @Test
+    public void testTimestamp() throws Exception {
+        assertEquals("2024-02-29 23:59:01.000120", ValueCodecsTest.encode(TemporalCodecs.ofTimestamp(), LocalDateTime.of(2024, 2, 29, 23, 59, 1, 120_999)));
+        assertEquals("1970-01-01 00:00:00", ValueCodecsTest.encode(TemporalCodecs.ofTimestamp(), LocalDateTime.of(1970, 1, 1, 0, 0)));
+        // Local time in the gap of the daylight saving time change of Europe/Berlin
+        assertEquals("2023-03-26 02:30:00", ValueCodecsTest.encode(TemporalCodecs.ofTimestamp(), LocalDateTime.of(2023, 3, 26, 2, 30)));
+
+        Random random = new Random(4711);
+        for (int i = 0; i < 10000; i++) {
+            LocalDateTime value = LocalDateTime.of(1900, 1, 1, 0, 0).plusSeconds(random.nextInt(Integer.MAX_VALUE) * 2L).withNano(random.nextInt(1_000_000) * 1000 + 1000);
+            assertEquals(FORMAT.format(value), ValueCodecsTest.encode(TemporalCodecs.ofTimestamp(), value));
+        }
+    }
+
+    @Test
+    public void testDate() throws Exception {
+        assertEquals("0999-12-31", ValueCodecsTest.encode(TemporalCodecs.ofDate(), LocalDate.of(999, 12, 31)));
+        assertEquals("2000-02-29", ValueCodecsTest.encode(TemporalCodecs.ofDate(), LocalDate.of(2000, 2, 29)));
+        assertEquals("9999-12-31", ValueCodecsTest.encode(TemporalCodecs.ofDate(), LocalDate.of(9999, 12, 31)));
+    }
+
+    @Test
+    public void testLegacyDriver() throws Exception {
+        ValueCodec codec = TemporalCodecs.ofTimestamp();
+        ColumnVector vector = new ColumnVector(2);
+        for (int row = 0; row < 2; row++) {
+            codec.fetch(createLegacyResultSet(Timestamp.valueOf(LocalDateTime.of(2024, 2, 29, 23, 59, 1, 120_000_000))), 1, vector, row);
+            StringBuilder out = new StringBuilder();
+            codec.encode(vector, row, out);
+            assertEquals("2024-02-29 23:59:01.120000", out.toString());
+        }
+
+        codec = TemporalCodecs.ofDate();
+        codec.fetch(createLegacyResultSet(Date.valueOf(LocalDate.of(2000, 2, 29))), 1, vector, 0);
+        StringBuilder out = new StringBuilder();
+        codec.encode(vector, 0, out);
+        assertEquals("2000-02-29", out.toString());
+
+        codec.fetch(createLegacyResultSet(null), 1, vector, 1);
+        assertTrue(vector.nulls[1]);
+    }
+
+    @Test
+    public void testTimestampWithOffset() throws Exception {
+        OffsetDateTime value = OffsetDateTime.of(2023, 10, 29, 2, 30, 0, 500_000_000, ZoneOffset.ofHoursMinutes(-9, -30));
+        assertEquals("2023-10-29 02:30:00.500000-09:30", ValueCodecsTest.encode(TemporalCodecs.ofTimestampWithOffset(), value));
+
+        value = OffsetDateTime.of(0, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        assertEquals("0001-01-01 00:00:00+00:00 BC", ValueCodecsTest.encode(TemporalCodecs.ofTimestampWithOffset(), value));
+    }
+
+}
@@ -0,0 +1,57 @@
+package de.elomagic.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class TextEscaperTest {
+
+    private static final String ALPHABET = "ab\\\u0000\"\b\f\n\r\t,ü世 ";
+
+    private static String replacePostgres(String value) {
+        return value
+                .replace("\\", "\\\\")
+                .replace("\u0000", "")
+                .replace("\"", "\\\"")
+                .replace("\b", "\\b")
+                .replace("\f", "\\f")
+                .replace("\n", "\\n")
+                .replace("\r", "\\r")
+                .replace("\t", "\\t")
+                .replace(",", "\\,");
+    }
+
+    private static String replaceSqlAnywhere(String value) {
+        return value
+                .replace("\\", "\\\\")
+                .replace("\u0000", "")
+                .replace("\"", "\\\"")
+                .replace("\n", "\\n")
+                .replace(",", "\\,")
+                .replace("\r", "\\r");
+    }
+
+    @Test
+    public void testSameAsReplaceChain() {
+        Random random = new Random(4711);
+        for (int i = 0; i < 10000; i++) {
+            StringBuilder value = new StringBuilder();
+            for (int j = random.nextInt(12); j > 0; j--) {
+                value.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+
+            assertEquals(replacePostgres(value.toString()), TextEscaper.POSTGRES.escape(value.toString()));
+            assertEquals(replaceSqlAnywhere(value.toString()), TextEscaper.SQL_ANYWHERE.escape(value.toString()));
+        }
+    }
+
+    @Test
+    public void testNothingToEscape() {
+        String value = "Grüße 世界";
+        assertSame(value, TextEscaper.POSTGRES.escape(value));
+    }
+
+}
@@ -0,0 +1,48 @@
+package de.elomagic.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ValueCodecsTest {
+
+    private static ResultSet createResultSet(Object value) {
+        return (ResultSet)Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class[] {ResultSet.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "getLong" -> value == null ? 0L : value;
+            case "wasNull" -> value == null;
+            default -> value;
+        });
+    }
+
+    static String encode(ValueCodec codec, Object value) throws Exception {
+        ColumnVector vector = new ColumnVector(2);
+        codec.fetch(createResultSet(value), 1, vector, 1);
+        StringBuilder out = new StringBuilder();
+        codec.encode(vector, 1, out);
+        return out.toString();
+    }
+
+    @Test
+    public void testEncode() throws Exception {
+        assertEquals("-42", encode(ValueCodecs.ofLong(), -42L));
+        assertEquals("0.00000012", encode(ValueCodecs.ofDecimal(), new BigDecimal("1.2E-7")));
+        assertEquals("\\\\x00ff7f", encode(ValueCodecs.ofBytes("\\\\x"), new byte[] {0, (byte)0xff, 0x7f}));
+        assertEquals("\"a\"", encode(ValueCodecs.ofString(v -> "\"" + v + "\""), "a"));
+    }
+
+    @Test
+    public void testNull() throws Exception {
+        ColumnVector vector = new ColumnVector(1);
+        ValueCodecs.ofLong().fetch(createResultSet(null), 1, vector, 0);
+        assertTrue(vector.nulls[0]);
+
+        ValueCodecs.ofDecimal().fetch(createResultSet(null), 1, vector, 0);
+        assertTrue(vector.nulls[0]);
+    }
+
+}
@@ -0,0 +1,79 @@
+package de.elomagic.loader;
+
+import de.elomagic.dto.DbColumn;
+import de.elomagic.dto.DbDataType;
+import de.elomagic.dto.DbForeignKey;
+import de.elomagic.dto.DbIndex;
+import de.elomagic.dto.DbSystem;
+import de.elomagic.dto.DbTable;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * Schema of the loader tests.
+ */
+final class LoaderFixtures {
+
+    private LoaderFixtures() {
+    }
+
+    /**
+     * @return Table with the primary key column <code>id</code>
+     */
+    static DbTable createTable(DbSystem system, int id, String name) {
+        DbTable table = new DbTable();
+        table.id = id;
+        table.name = name;
+        system.tables.put(name, table);
+
+        DbColumn primaryKey = addColumn(table, "id", DbDataType.INTEGER);
+        primaryKey.primaryKey = true;
+        primaryKey.nullable = false;
+        return table;
+    }
+
+    static DbColumn addColumn(DbTable table, String name, DbDataType datatype) {
+        DbColumn column = new DbColumn();
+        column.index = table.columns.size() + 1;
+        column.name = name;
+        column.datatype = datatype;
+        column.nullable = true;
+        table.columns.put(column.name, column);
+        return column;
+    }
+
+    /**
+     * @return Tables <code>customer</code> and <code>invoice</code> with the foreign key
+     * <code>fk_invoice_customer</code> and the index <code>ix invoice customer</code> of the referencing column
+     */
+    static DbSystem createCustomerInvoiceSystem() {
+        return createCustomerInvoiceSystem("");
+    }
+
+    /**
+     * @param prefix Prefix of the names of the tables, foreign key and index, like for tests against a real database
+     */
+    static DbSystem createCustomerInvoiceSystem(String prefix) {
+        DbSystem system = new DbSystem();
+        createTable(system, 1, prefix + "customer");
+        DbTable invoice = createTable(system, 2, prefix + "invoice");
+        addColumn(invoice, "customer_id", DbDataType.INTEGER);
+
+        DbForeignKey fk = new DbForeignKey();
+        fk.name = prefix + "fk_invoice_customer";
+        fk.tableName = prefix + "invoice";
+        fk.fkColumns.add(Pair.of("customer_id", false));
+        fk.referenceTable = prefix + "customer";
+        fk.referenceColumns.add("id");
+        system.foreignKeys.add(fk);
+
+        DbIndex index = new DbIndex();
+        index.indexName = prefix + "ix invoice customer";
+        index.tableName = prefix + "invoice";
+        index.columns.add(Pair.of("customer_id", false));
+        system.indexes.put(index.indexName, index);
+
+        return system;
+    }
+
+}
@@ -0,0 +1,110 @@
+package de.elomagic.loader;
+
+import de.elomagic.AppRuntimeException;
+import de.elomagic.ConnectionPool;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MigrationExecutorTest {
+
+    private static ConnectionPool createPool(int size) {
+        return new ConnectionPool(() -> (Connection)Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class[] {Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "isValid" -> true;
+            case "isClosed" -> false;
+            default -> null;
+        }), size);
+    }
+
+    @Test
+    public void testRunOrder() {
+        ConcurrentLinkedQueue<String> log = new ConcurrentLinkedQueue<>();
+
+        MigrationTask create = new MigrationTask("create", con -> log.add("create"));
+        MigrationTask copy1 = new MigrationTask("copy1", con -> log.add("copy")).dependsOn(List.of(create));
+        MigrationTask copy2 = new MigrationTask("copy2", con -> log.add("copy")).dependsOn(List.of(create));
+        MigrationTask index = new MigrationTask("index", con -> log.add("index")).dependsOn(List.of(copy1, copy2));
+
+        try (ConnectionPool pool = createPool(4)) {
+            assertTrue(new MigrationExecutor(pool).run(List.of(index, copy2, copy1, create)));
+        }
+
+        assertEquals(List.of("create", "copy", "copy", "index"), List.copyOf(log));
+        assertEquals(MigrationTask.State.DONE, index.getState());
+    }
+
+    @Test
+    public void testRunParallel() {
+        // Both tasks only finish when they run at the same time
+        CountDownLatch latch = new CountDownLatch(2);
+        MigrationTask.Action action = con -> {
+            latch.countDown();
+            try {
+                if (!latch.await(10, TimeUnit.SECONDS)) {
+                    throw new SQLException("Not parallel");
+                }
+            } catch (InterruptedException ex) {
+                throw new SQLException(ex);
+            }
+        };
+
+        try (ConnectionPool pool = createPool(2)) {
+            assertTrue(new MigrationExecutor(pool).run(List.of(new MigrationTask("a", action), new MigrationTask("b", action))));
+        }
+    }
+
+    @Test
+    public void testRunFailure() {
+        MigrationTask create = new MigrationTask("create", con -> { throw new SQLException("Failed"); });
+        MigrationTask copy = new MigrationTask("copy", con -> {}).dependsOn(List.of(create));
+        MigrationTask index = new MigrationTask("index", con -> {}).dependsOn(List.of(copy));
+        MigrationTask other = new MigrationTask("other", con -> {});
+
+        try (ConnectionPool pool = createPool(2)) {
+            assertFalse(new MigrationExecutor(pool).run(List.of(create, copy, index, other)));
+        }
+
+        assertEquals(MigrationTask.State.FAILED, create.getState());
+        assertEquals("Failed", create.getFailure().getMessage());
+        assertEquals(MigrationTask.State.SKIPPED, copy.getState());
+        assertEquals(MigrationTask.State.SKIPPED, index.getState());
+        assertEquals(MigrationTask.State.DONE, other.getState());
+    }
+
+    @Test
+    public void testRunError() {
+        MigrationTask copy = new MigrationTask("copy", con -> { throw new NoClassDefFoundError("org/postgresql/PGConnection"); });
+        MigrationTask index = new MigrationTask("index", con -> {}).dependsOn(List.of(copy));
+
+        try (ConnectionPool pool = createPool(1)) {
+            assertFalse(new MigrationExecutor(pool).run(List.of(copy, index)));
+        }
+
+        assertEquals(MigrationTask.State.FAILED, copy.getState());
+        assertEquals(MigrationTask.State.SKIPPED, index.getState());
+    }
+
+    @Test
+    public void testRunCycle() {
+        MigrationTask a = new MigrationTask("a", con -> {});
+        MigrationTask b = new MigrationTask("b", con -> {}).dependsOn(List.of(a));
+        a.dependsOn(List.of(b));
+
+        try (ConnectionPool pool = createPool(1)) {
+            assertThrows(AppRuntimeException.class, () -> new MigrationExecutor(pool).run(List.of(a, b)));
+        }
+    }
+
+}
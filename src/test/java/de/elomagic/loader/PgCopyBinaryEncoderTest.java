@@ -0,0 +1,85 @@
+package de.elomagic.loader;
+
+import de.elomagic.codec.BinaryOutput;
+import de.elomagic.codec.ColumnVector;
+import de.elomagic.dto.DbColumn;
+import de.elomagic.dto.DbDataType;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class PgCopyBinaryEncoderTest {
+
+    private static byte[] write(Consumer<BinaryOutput> writer) {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        BinaryOutput out = new BinaryOutput(ByteBuffer.allocate(8), buffer -> {
+            result.write(buffer.array(), 0, buffer.position());
+            return buffer.clear();
+        });
+        writer.accept(out);
+        result.write(out.getBuffer().array(), 0, out.getBuffer().position());
+        return result.toByteArray();
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte)values[i];
+        }
+        return bytes;
+    }
+
+    private static DbColumn column(DbDataType datatype) {
+        DbColumn column = new DbColumn();
+        column.datatype = datatype;
+        return column;
+    }
+
+    @Test
+    public void testNumeric() {
+        // Length, ndigits 3, weight 1, positive, dscale 3, digits 1 2345 6780
+        assertArrayEquals(
+                bytes(0, 0, 0, 14, 0, 3, 0, 1, 0, 0, 0, 3, 0, 1, 0x09, 0x29, 0x1A, 0x7C),
+                write(out -> PgCopyBinaryEncoder.writeNumeric(new BigDecimal("12345.678"), out)));
+        // ndigits 1, weight -1, negative, dscale 4, digit 1
+        assertArrayEquals(
+                bytes(0, 0, 0, 10, 0, 1, 0xFF, 0xFF, 0x40, 0, 0, 4, 0, 1),
+                write(out -> PgCopyBinaryEncoder.writeNumeric(new BigDecimal("-0.0001"), out)));
+        // ndigits 0, weight 0, positive, dscale 2
+        assertArrayEquals(
+                bytes(0, 0, 0, 8, 0, 0, 0, 0, 0, 0, 0, 2),
+                write(out -> PgCopyBinaryEncoder.writeNumeric(new BigDecimal("0.00"), out)));
+    }
+
+    @Test
+    public void testEncodeRow() {
+        PgCopyBinaryEncoder encoder = PgCopyBinaryEncoder.create(
+                List.of(column(DbDataType.INTEGER), column(DbDataType.VARCHAR), column(DbDataType.TIMESTAMP)),
+                new PostgresLoader()::createValueCodec);
+
+        ColumnVector[] columns = {new ColumnVector(1), new ColumnVector(1), new ColumnVector(1)};
+        columns[0].longs[0] = 7;
+        columns[1].objects[0] = "ä\u0000b";
+        columns[2].nulls[0] = true;
+
+        byte[] text = "äb".getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(
+                bytes(0, 3, 0, 0, 0, 4, 0, 0, 0, 7, 0, 0, 0, 3, text[0], text[1], text[2], 0xFF, 0xFF, 0xFF, 0xFF),
+                write(out -> encoder.encode(columns, 0, out)));
+    }
+
+    @Test
+    public void testUnsupported() {
+        assertNull(PgCopyBinaryEncoder.create(List.of(column(DbDataType.INTEGER), column(DbDataType.DOUBLE)), new PostgresLoader()::createValueCodec));
+    }
+
+}
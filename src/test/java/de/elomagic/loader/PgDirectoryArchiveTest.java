@@ -0,0 +1,163 @@
+package de.elomagic.loader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PgDirectoryArchiveTest {
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte)values[i];
+        }
+        return bytes;
+    }
+
+    @Test
+    public void testWriteInt() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PgDirectoryArchive.writeInt(out, 0x01020304);
+        PgDirectoryArchive.writeInt(out, -1);
+
+        assertArrayEquals(bytes(0, 4, 3, 2, 1, 1, 1, 0, 0, 0), out.toByteArray());
+    }
+
+    @Test
+    public void testWriteString() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PgDirectoryArchive.writeString(out, "ä");
+        PgDirectoryArchive.writeString(out, null);
+
+        assertArrayEquals(bytes(0, 2, 0, 0, 0, 0xC3, 0xA4, 1, 1, 0, 0, 0), out.toByteArray());
+    }
+
+    @Test
+    public void testWrite() throws Exception {
+        Path directory = Files.createTempDirectory("archive");
+
+        PgDirectoryArchive archive = new PgDirectoryArchive("db");
+        PgDirectoryArchive.Entry table = archive.add("t", "TABLE", PgDirectoryArchive.Section.PRE_DATA, "CREATE TABLE t (a INTEGER);\n");
+        PgDirectoryArchive.Entry data = archive.add("t", "TABLE DATA", PgDirectoryArchive.Section.DATA, "");
+        data.copyStmt = "COPY t (a) FROM stdin;\n";
+        data.dependencies.add(table.dumpId);
+        data.fileName = data.dumpId + ".dat";
+        archive.write(directory, LocalDateTime.of(2024, 3, 1, 12, 30, 15));
+
+        ByteBuffer toc = ByteBuffer.wrap(Files.readAllBytes(directory.resolve(PgDirectoryArchive.TOC_FILE)));
+
+        byte[] magic = new byte[5];
+        toc.get(magic);
+        assertEquals("PGDMP", new String(magic, StandardCharsets.US_ASCII));
+        // Version 1.14.0, int size, offset size, format
+        assertArrayEquals(bytes(1, 14, 0, 4, 8, 5), next(toc, 6));
+        assertEquals(0, readInt(toc));
+        // Seconds, minutes, hours, day, month from 0, years since 1900 and unknown daylight saving time
+        assertEquals(15, readInt(toc));
+        assertEquals(30, readInt(toc));
+        assertEquals(12, readInt(toc));
+        assertEquals(1, readInt(toc));
+        assertEquals(2, readInt(toc));
+        assertEquals(124, readInt(toc));
+        assertEquals(-1, readInt(toc));
+        assertEquals("db", readString(toc));
+        readString(toc);
+        readString(toc);
+
+        assertEquals(2, readInt(toc));
+
+        assertEquals(1, readInt(toc));
+        assertEquals(0, readInt(toc));
+        skipStrings(toc, 2);
+        assertEquals("t", readString(toc));
+        assertEquals("TABLE", readString(toc));
+        assertEquals(2, readInt(toc));
+        skipStrings(toc, 8);
+        // End of dependencies and no data file
+        assertNull(readString(toc));
+        assertEquals("", readString(toc));
+
+        assertEquals(2, readInt(toc));
+        assertEquals(1, readInt(toc));
+        skipStrings(toc, 2);
+        assertEquals("t", readString(toc));
+        assertEquals("TABLE DATA", readString(toc));
+        assertEquals(3, readInt(toc));
+        assertEquals("", readString(toc));
+        assertEquals("", readString(toc));
+        assertEquals("COPY t (a) FROM stdin;\n", readString(toc));
+        skipStrings(toc, 5);
+        assertEquals("1", readString(toc));
+        assertNull(readString(toc));
+        assertEquals("2.dat", readString(toc));
+        assertEquals(0, toc.remaining());
+    }
+
+    /**
+     * Lists a written archive by a locally installed pg_restore, for example
+     * <code>-Dde.elomagic.dbtk.test.pgRestore=/usr/bin/pg_restore</code>.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "de.elomagic.dbtk.test.pgRestore", matches = ".+")
+    public void testListByPgRestore() throws Exception {
+        Path directory = Files.createTempDirectory("archive");
+
+        PgDirectoryArchive archive = new PgDirectoryArchive("db");
+        PgDirectoryArchive.Entry table = archive.add("t", "TABLE", PgDirectoryArchive.Section.PRE_DATA, "CREATE TABLE t (a INTEGER);\n");
+        table.namespace = "public";
+        PgDirectoryArchive.Entry data = archive.add("t", "TABLE DATA", PgDirectoryArchive.Section.DATA, "");
+        data.copyStmt = "COPY t (a) FROM stdin;\n";
+        data.namespace = "public";
+        data.dependencies.add(table.dumpId);
+        data.fileName = data.dumpId + ".dat";
+        Files.writeString(directory.resolve(data.fileName), "1\n");
+        archive.write(directory, LocalDateTime.now());
+
+        Process process = new ProcessBuilder(System.getProperty("de.elomagic.dbtk.test.pgRestore"), "-l", directory.toString())
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+
+        assertEquals(0, process.waitFor(), output);
+        assertTrue(output.contains("TABLE public t"), output);
+        assertTrue(output.contains("TABLE DATA public t"), output);
+    }
+
+    private static byte[] next(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static int readInt(ByteBuffer buffer) {
+        int sign = buffer.get();
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value |= (buffer.get() & 0xFF) << (8 * i);
+        }
+        return sign == 0 ? value : -value;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = readInt(buffer);
+        return length < 0 ? null : new String(next(buffer, length), StandardCharsets.UTF_8);
+    }
+
+    private static void skipStrings(ByteBuffer buffer, int count) {
+        for (int i = 0; i < count; i++) {
+            readString(buffer);
+        }
+    }
+
+}
@@ -0,0 +1,185 @@
+package de.elomagic.loader;
+
+import de.elomagic.AppRuntimeException;
+import de.elomagic.dto.DbDataType;
+import de.elomagic.dto.DbIndex;
+import de.elomagic.dto.DbIndexComment;
+import de.elomagic.dto.DbSystem;
+import de.elomagic.dto.DbTable;
+import de.elomagic.dto.DbTableContent;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PostgresLoaderTest {
+
+    private static final String OUTPUT_PATH = "de.elomagic.dbtk.target.output.path";
+    private static final String OUTPUT_SPLIT = "de.elomagic.dbtk.target.output.split";
+    private static final String LOAD_PROFILE = "de.elomagic.dbtk.target.load.profile";
+    private static final String POOL_SIZE = "de.elomagic.dbtk.target.pool.size";
+
+    @Test
+    public void testExportSplit() throws Exception {
+        Path output = Files.createTempDirectory("loader");
+        System.setProperty(OUTPUT_PATH, output.toString());
+        System.setProperty(OUTPUT_SPLIT, "true");
+
+        DbSystem system = LoaderFixtures.createCustomerInvoiceSystem();
+        DbTable table = system.tables.get("customer");
+        table.content = new DbTableContent();
+        table.content.file = output.resolve("unloaded").resolve("customer.dat");
+        table.content.columns.add("id");
+
+        StringWriter writer = new StringWriter();
+        try {
+            new PostgresLoader().export(system, writer);
+        } finally {
+            System.clearProperty(OUTPUT_PATH);
+            System.clearProperty(OUTPUT_SPLIT);
+        }
+
+        assertEquals("""
+                \\ir reload-postgres/pre-data.sql
+                \\ir reload-postgres/data/customer.sql
+                \\ir reload-postgres/indexes/ix_invoice_customer.sql
+                \\ir reload-postgres/foreign-keys/fk_invoice_customer.sql
+                """, writer.toString().replace("\r\n", "\n"));
+
+        Path directory = output.resolve(PostgresLoader.SPLIT_DIRECTORY);
+        String preData = Files.readString(directory.resolve("pre-data.sql"), StandardCharsets.UTF_8);
+        assertTrue(preData.contains("CREATE TABLE customer"));
+        assertTrue(preData.contains("CREATE TABLE invoice"));
+
+        String data = Files.readString(directory.resolve("data/customer.sql"), StandardCharsets.UTF_8);
+        assertTrue(data.startsWith("BEGIN;\nTRUNCATE TABLE customer;\n"));
+        assertTrue(data.contains("COPY customer ( id )\n    FROM '/db_unloaded/unloaded/customer.dat'"));
+        assertTrue(data.endsWith("COMMIT;\n"));
+
+        String indexScript = Files.readString(directory.resolve("indexes/ix_invoice_customer.sql"), StandardCharsets.UTF_8);
+        assertTrue(indexScript.startsWith("DROP INDEX IF EXISTS \"ix invoice customer\";\nCREATE INDEX \"ix invoice customer\" ON invoice"));
+    }
+
+    @Test
+    public void testCreateScriptName() {
+        Set<String> scriptNames = new HashSet<>();
+        assertEquals("a_b.sql", PostgresLoader.createScriptName(scriptNames, "a b"));
+        assertEquals("a_b-2.sql", PostgresLoader.createScriptName(scriptNames, "a_b"));
+        // File systems may ignore the case
+        assertEquals("A_B-3.sql", PostgresLoader.createScriptName(scriptNames, "A_B"));
+        assertEquals("c.sql", PostgresLoader.createScriptName(scriptNames, "c"));
+    }
+
+    @Test
+    public void testExportFast() throws Exception {
+        DbSystem system = new DbSystem();
+        DbTable table = LoaderFixtures.createTable(system, 1, "customer");
+        table.comment = "Customers";
+        table.content = new DbTableContent();
+        table.content.file = Path.of("unloaded", "customer.dat");
+        table.content.columns.add("id");
+
+        StringWriter writer = new StringWriter();
+        System.setProperty(LOAD_PROFILE, "fast");
+        try {
+            new PostgresLoader().export(system, writer);
+        } finally {
+            System.clearProperty(LOAD_PROFILE);
+        }
+
+        String sql = writer.toString().replace("\r\n", "\n");
+        assertTrue(sql.contains("CREATE UNLOGGED TABLE customer ("));
+        assertTrue(sql.indexOf("\\set ON_ERROR_STOP on\n") < sql.indexOf("TRUNCATE TABLE customer;"), sql);
+        assertFalse(sql.contains("PRIMARY KEY,"));
+        assertTrue(sql.contains("BEGIN;\nTRUNCATE TABLE customer;\n"));
+        assertTrue(sql.contains("ENCODING 'UTF-8', FREEZE );\nCOMMIT;"), sql);
+        assertTrue(sql.contains("ALTER TABLE customer ADD PRIMARY KEY ( id );"));
+        // Logged right after the content, so the keys are not rebuilt by SET LOGGED
+        assertTrue(sql.indexOf("FREEZE );\nCOMMIT;") < sql.indexOf("ALTER TABLE customer SET LOGGED;"));
+        assertTrue(sql.indexOf("ALTER TABLE customer SET LOGGED;") < sql.indexOf("ADD PRIMARY KEY"));
+        assertTrue(sql.contains("BEGIN;\n\nCOMMENT ON TABLE customer IS 'Customers';"), sql);
+        assertTrue(sql.endsWith("ANALYZE;\n"));
+    }
+
+    @Test
+    public void testExportFastSplit() {
+        System.setProperty(LOAD_PROFILE, "fast");
+        System.setProperty(OUTPUT_SPLIT, "true");
+        try {
+            assertThrows(AppRuntimeException.class, () -> new PostgresLoader().export(new DbSystem(), new StringWriter()));
+        } finally {
+            System.clearProperty(LOAD_PROFILE);
+            System.clearProperty(OUTPUT_SPLIT);
+        }
+    }
+
+    @Test
+    public void testCreateIndexStatementComment() {
+        DbSystem system = LoaderFixtures.createCustomerInvoiceSystem();
+        DbIndex index = system.indexes.get("ix invoice customer");
+
+        DbIndexComment comment = new DbIndexComment();
+        comment.indexName = index.indexName;
+        comment.comment = "Customer's invoices";
+        system.indexComments.put(comment.indexName, comment);
+
+        assertEquals("""
+                CREATE INDEX "ix invoice customer" ON invoice ( customer_id ASC );
+                COMMENT ON INDEX "ix invoice customer" IS 'Customer''s invoices';
+                """, new PostgresLoader().createIndexStatement(system, index));
+    }
+
+    @Test
+    public void testWriteTableCompositePrimaryKey() {
+        DbSystem system = new DbSystem();
+        DbTable table = LoaderFixtures.createTable(system, 1, "item");
+        LoaderFixtures.addColumn(table, "tenant", DbDataType.INTEGER).primaryKey = true;
+        table.primaryKey.addAll(List.of("tenant", "id"));
+
+        StringWriter sql = new StringWriter();
+        new PostgresLoader().writeTable(sql, table);
+
+        // Declared order of the key instead of the column order
+        assertTrue(sql.toString().contains("PRIMARY KEY (tenant, id)"), sql.toString());
+    }
+
+    @Test
+    public void testPrepareNamedPipes() throws Exception {
+        Path output = Files.createTempDirectory("loader");
+
+        DbSystem system = LoaderFixtures.createCustomerInvoiceSystem();
+        for (DbTable table : system.tables.values()) {
+            table.content = new DbTableContent();
+            table.content.file = output.resolve("unloaded").resolve(table.name + ".dat");
+            table.content.namedPipe = true;
+            table.content.columns.add("id");
+        }
+
+        System.setProperty(OUTPUT_PATH, output.toString());
+        System.setProperty(POOL_SIZE, "1");
+        try {
+            new PostgresLoader().prepareNamedPipes(system, List.of(system.tables.get("invoice"), system.tables.get("customer")));
+        } finally {
+            System.clearProperty(OUTPUT_PATH);
+            System.clearProperty(POOL_SIZE);
+        }
+
+        String script = Files.readString(output.resolve("reload-postgres-pipes.sh"), StandardCharsets.UTF_8);
+        assertTrue(script.startsWith("#!/bin/bash\n"));
+        assertTrue(script.contains("\nmax_sessions=1\n"));
+        // Readers are started in order of the unload
+        assertTrue(script.indexOf("start psql -v ON_ERROR_STOP=1 -d 'MigratedDatabase' -c '\\copy invoice") < script.indexOf("start psql -v ON_ERROR_STOP=1 -d 'MigratedDatabase' -c '\\copy customer"), script);
+    }
+
+}
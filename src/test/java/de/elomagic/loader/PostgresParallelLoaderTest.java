@@ -0,0 +1,114 @@
+package de.elomagic.loader;
+
+import de.elomagic.DbUtils;
+import de.elomagic.dto.DbSystem;
+import de.elomagic.dto.DbTable;
+import de.elomagic.dto.DbTableContent;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class PostgresParallelLoaderTest {
+
+    private static List<String> names(List<MigrationTask> tasks) {
+        return tasks.stream().map(MigrationTask::getName).toList();
+    }
+
+    @Test
+    public void testCreateTasks() {
+        DbSystem system = LoaderFixtures.createCustomerInvoiceSystem();
+        DbTable invoice = system.tables.get("invoice");
+        invoice.content = new DbTableContent();
+        invoice.content.file = Path.of("unloaded", "invoice.dat");
+        invoice.content.shards.add(Path.of("unloaded", "invoice.dat.0"));
+        invoice.content.shards.add(Path.of("unloaded", "invoice.dat.1"));
+        invoice.content.columns.add("id");
+
+        List<MigrationTask> tasks = new PostgresParallelLoader().createTasks(system);
+        Map<String, MigrationTask> byName = tasks.stream().collect(Collectors.toMap(MigrationTask::getName, Function.identity()));
+
+        assertEquals(List.of(
+                "create table customer",
+                "create table invoice",
+                "copy invoice.dat.0",
+                "copy invoice.dat.1",
+                "index ix invoice customer",
+                "foreign key fk_invoice_customer"), names(tasks));
+        assertEquals(List.of("create table invoice"), names(byName.get("copy invoice.dat.1").getDependencies()));
+        assertEquals(List.of("copy invoice.dat.0", "copy invoice.dat.1"), names(byName.get("index ix invoice customer").getDependencies()));
+        assertEquals(List.of("index ix invoice customer", "create table customer"), names(byName.get("foreign key fk_invoice_customer").getDependencies()));
+    }
+
+    /**
+     * Runs against a locally started PostgreSQL instance like the {@link PostgresStreamLoaderTest}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "de.elomagic.dbtk.target.database.url", matches = ".+")
+    public void testExport() throws Exception {
+        String prefix = "parallel_loader_test_";
+        try (Connection con = DbUtils.createTargetConnection(); Statement statement = con.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS %1$sinvoice, %1$scustomer".formatted(prefix));
+        }
+
+        Path directory = Files.createTempDirectory("unloaded");
+        DbSystem system = LoaderFixtures.createCustomerInvoiceSystem(prefix);
+
+        DbTable customer = system.tables.get(prefix + "customer");
+        customer.content = new DbTableContent();
+        customer.content.file = Files.writeString(directory.resolve("customer.dat"), "1\n2\n");
+        customer.content.columns.add("id");
+
+        DbTable invoice = system.tables.get(prefix + "invoice");
+        invoice.content = new DbTableContent();
+        invoice.content.file = directory.resolve("invoice.dat");
+        invoice.content.shards.add(Files.writeString(directory.resolve("invoice.000.dat"), "10,1\n11,2\n"));
+        Path compressedShard = directory.resolve("invoice.001.dat.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressedShard))) {
+            out.write("12,\\N\n".getBytes(StandardCharsets.UTF_8));
+        }
+        invoice.content.shards.add(compressedShard);
+        invoice.content.columns.add("id");
+        invoice.content.columns.add("customer_id");
+
+        StringWriter writer = new StringWriter();
+        new PostgresParallelLoader().export(system, writer);
+
+        assertFalse(writer.toString().contains("DROP DATABASE"));
+
+        try (Connection con = DbUtils.createTargetConnection(); Statement statement = con.createStatement()) {
+            try (ResultSet rs = statement.executeQuery("SELECT COUNT(*), COUNT(customer_id) FROM %sinvoice".formatted(prefix))) {
+                rs.next();
+                assertEquals(3, rs.getInt(1));
+                assertEquals(2, rs.getInt(2));
+            }
+            try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM pg_constraint WHERE conname = '%sfk_invoice_customer'".formatted(prefix))) {
+                rs.next();
+                assertEquals(1, rs.getInt(1));
+            }
+            try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM pg_indexes WHERE indexname = '%six invoice customer'".formatted(prefix))) {
+                rs.next();
+                assertEquals(1, rs.getInt(1));
+            }
+
+            statement.execute("DROP TABLE %1$sinvoice, %1$scustomer".formatted(prefix));
+        }
+    }
+
+}
@@ -0,0 +1,121 @@
+package de.elomagic.loader;
+
+import de.elomagic.DbUtils;
+import de.elomagic.dto.DbColumn;
+import de.elomagic.dto.DbDataType;
+import de.elomagic.dto.DbTable;
+import de.elomagic.dto.DbTableContent;
+import de.elomagic.unloader.TableUnloadPipeline;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Runs against a locally started PostgreSQL instance, for example
+ * <code>mvn test -Dde.elomagic.dbtk.target.database.url=jdbc:postgresql://localhost:45432/postgres
+ * -Dde.elomagic.dbtk.target.password=postgres</code>. The driver is a test dependency.
+ */
+@EnabledIfSystemProperty(named = "de.elomagic.dbtk.target.database.url", matches = ".+")
+public class PostgresStreamLoaderTest {
+
+    private static DbTable createTable() {
+        DbTable table = new DbTable();
+        table.name = "stream_loader_test";
+
+        DbColumn id = new DbColumn();
+        id.index = 1;
+        id.name = "id";
+        id.datatype = DbDataType.INTEGER;
+        id.primaryKey = true;
+        table.columns.put(id.name, id);
+
+        DbColumn text = new DbColumn();
+        text.index = 2;
+        text.name = "text";
+        text.datatype = DbDataType.VARCHAR;
+        text.width = 40;
+        text.nullable = true;
+        table.columns.put(text.name, text);
+
+        table.content = new DbTableContent();
+        table.content.encoding = StandardCharsets.UTF_8;
+        table.content.columns.add(id.name);
+        table.content.columns.add(text.name);
+
+        return table;
+    }
+
+    @Test
+    public void testOpenContentStream() throws Exception {
+        try (Connection con = DbUtils.createTargetConnection(); Statement statement = con.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS stream_loader_test");
+        }
+
+        DbTable table = createTable();
+        PostgresStreamLoader loader = new PostgresStreamLoader();
+
+        try (ContentStream stream = loader.openContentStream(table)) {
+            stream.write(ByteBuffer.wrap("1,Grüße\n2,\\N\n".getBytes(StandardCharsets.UTF_8)));
+            assertEquals(2L, stream.commit());
+        }
+
+        // Not committed content is discarded
+        try (ContentStream stream = loader.openContentStream(table)) {
+            stream.write(ByteBuffer.wrap("3,discarded\n".getBytes(StandardCharsets.UTF_8)));
+        }
+
+        try (Connection con = DbUtils.createTargetConnection();
+             Statement statement = con.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*), MAX(text) FROM stream_loader_test")) {
+            rs.next();
+            assertEquals(2, rs.getInt(1));
+            assertEquals("Grüße", rs.getString(2));
+
+            statement.execute("DROP TABLE stream_loader_test");
+        }
+    }
+
+    @Test
+    public void testStreamTextPipeline() throws Exception {
+        try (Connection con = DbUtils.createTargetConnection(); Statement statement = con.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS stream_loader_test");
+        }
+
+        DbTable table = createTable();
+        PostgresStreamLoader loader = new PostgresStreamLoader();
+
+        // Pipeline of the JDBC unloader when it streams into the target database
+        TableUnloadPipeline pipeline = TableUnloadPipeline.ofTargetText(table, List.of(table.columns.get("id"), table.columns.get("text")), loader);
+
+        // The target database is the source of the values as well
+        try (Connection source = DbUtils.createTargetConnection();
+             Statement statement = source.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT 1 AS id, 'He said \"hi\", C:\\temp' AS text UNION ALL SELECT 2, NULL ORDER BY id");
+             ContentStream stream = loader.openContentStream(table)) {
+            assertEquals(2L, pipeline.run(rs, stream));
+            assertEquals(2L, stream.commit());
+        }
+
+        try (Connection con = DbUtils.createTargetConnection();
+             Statement statement = con.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT text FROM stream_loader_test ORDER BY id")) {
+            rs.next();
+            assertEquals("He said \"hi\", C:\\temp", rs.getString(1));
+            rs.next();
+            assertNull(rs.getString(1));
+
+            statement.execute("DROP TABLE stream_loader_test");
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package de.elomagic.unloader;
+
+import de.elomagic.AppRuntimeException;
+import de.elomagic.loader.PostgresLoader;
+import de.elomagic.loader.PostgresStreamLoader;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ContentSinksTest {
+
+    private static final String OUTPUT_SINKS = "de.elomagic.dbtk.target.output.sinks";
+
+    @Test
+    public void testGetConfigured() {
+        System.setProperty(OUTPUT_SINKS, "file, copy");
+        try {
+            assertEquals(List.of(ContentSinks.Kind.FILE, ContentSinks.Kind.COPY), ContentSinks.getConfigured(new PostgresStreamLoader()));
+            // The loader writes only scripts
+            assertThrows(AppRuntimeException.class, () -> ContentSinks.getConfigured(new PostgresLoader()));
+        } finally {
+            System.clearProperty(OUTPUT_SINKS);
+        }
+    }
+
+    @Test
+    public void testGetConfiguredDigest() {
+        System.setProperty(OUTPUT_SINKS, "gzip,sha256");
+        try {
+            assertEquals(List.of(ContentSinks.Kind.GZIP, ContentSinks.Kind.SHA256), ContentSinks.getConfigured());
+
+            // No file which could be checksummed
+            System.setProperty(OUTPUT_SINKS, "copy,sha256");
+            assertThrows(AppRuntimeException.class, ContentSinks::getConfigured);
+        } finally {
+            System.clearProperty(OUTPUT_SINKS);
+        }
+    }
+
+}
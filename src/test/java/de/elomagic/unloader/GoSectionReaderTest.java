@@ -0,0 +1,57 @@
+package de.elomagic.unloader;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class GoSectionReaderTest {
+
+    @Test
+    public void testReadSections() {
+        String script = """
+                -- Comment
+                CREATE TABLE "dba"."A" (
+                    "Id" integer NOT NULL
+                )
+                go
+
+                  -- Ignored line
+                COMMENT ON TABLE "dba"."A" IS
+                \t'Ergo'
+                go
+
+                call dbo.sa_reset_identity('A', 'dba', 10);
+                """;
+
+        List<String> sections = read(script.replace("\n", "\r\n"), 8);
+
+        assertEquals(2, sections.size());
+        assertEquals("CREATE TABLE \"dba\".\"A\" (\n    \"Id\" integer NOT NULL\n)\ngo\n\n", sections.get(0));
+        assertEquals("COMMENT ON TABLE \"dba\".\"A\" IS\n\t'Ergo'\ngo\n\n", sections.get(1));
+    }
+
+    @Test
+    public void testMultiByteCharsAcrossChunks() {
+        List<String> sections = read("COMMENT 'äöü€'\ngo\n\n", 8);
+
+        assertEquals(List.of("COMMENT 'äöü€'\ngo\n\n"), sections);
+    }
+
+    private List<String> read(String script, int chunkSize) {
+        GoSectionReader reader = new GoSectionReader(
+                Channels.newChannel(new ByteArrayInputStream(script.getBytes(StandardCharsets.UTF_8))),
+                StandardCharsets.UTF_8,
+                chunkSize);
+
+        List<String> sections = new ArrayList<>();
+        reader.forEachRemaining(sections::add);
+        return sections;
+    }
+
+}
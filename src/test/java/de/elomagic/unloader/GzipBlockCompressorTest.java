@@ -0,0 +1,42 @@
+package de.elomagic.unloader;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class GzipBlockCompressorTest {
+
+    private static void append(ByteArrayOutputStream out, ByteBuffer block) {
+        byte[] bytes = new byte[block.remaining()];
+        block.get(bytes);
+        out.writeBytes(bytes);
+    }
+
+    @Test
+    public void testConcatenatedMembers() throws Exception {
+        byte[] text = "1,\"Grüße\"\n".repeat(10_000).getBytes(StandardCharsets.UTF_8);
+        byte[] random = new byte[50_000];
+        new Random(4711).nextBytes(random);
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        append(compressed, GzipBlockCompressor.compress(ByteBuffer.allocateDirect(text.length).put(text).flip()));
+        append(compressed, GzipBlockCompressor.compress(ByteBuffer.allocate(0)));
+        append(compressed, GzipBlockCompressor.compress(ByteBuffer.wrap(random)));
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.writeBytes(text);
+        expected.writeBytes(random);
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertArrayEquals(expected.toByteArray(), in.readAllBytes());
+        }
+    }
+
+}
@@ -0,0 +1,68 @@
+package de.elomagic.unloader;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NamedPipesTest {
+
+    private static CompletableFuture<String> read(Path file) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return Files.readString(file, StandardCharsets.US_ASCII);
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+    }
+
+    @Test
+    public void testWrite() throws Exception {
+        Path file = Files.createTempDirectory("pipes").resolve("table.dat");
+        NamedPipes.create(file);
+
+        CompletableFuture<String> content = read(file);
+        NamedPipes.write(file, 2, pipe -> pipe.write(ByteBuffer.wrap("1,a\n".getBytes(StandardCharsets.US_ASCII))));
+
+        assertEquals("1,a\n", content.get());
+    }
+
+    @Test
+    public void testWriteFailed() throws Exception {
+        Path file = Files.createTempDirectory("pipes").resolve("table.dat");
+        NamedPipes.create(file);
+
+        CompletableFuture<String> content = read(file);
+        assertThrows(IOException.class, () -> NamedPipes.write(file, 2, pipe -> {
+            pipe.write(ByteBuffer.wrap("1,a\n2,".getBytes(StandardCharsets.US_ASCII)));
+            throw new IOException("Failed");
+        }));
+
+        assertEquals("1,a\n2,\nunload failed,unload failed,unload failed\n", content.get());
+    }
+
+    @Test
+    public void testOpenWithoutReader() throws Exception {
+        Path file = Files.createTempDirectory("pipes").resolve("table.dat");
+        NamedPipes.create(file);
+
+        IOException ex = assertThrows(IOException.class, () -> {
+            try (FileChannel ignored = NamedPipes.open(file, 2, 1)) {
+                // Never opened
+            }
+        });
+
+        assertTrue(ex.getMessage().startsWith("No reader opened the named pipe"), ex.getMessage());
+    }
+
+}
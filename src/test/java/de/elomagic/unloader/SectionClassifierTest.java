@@ -0,0 +1,72 @@
+package de.elomagic.unloader;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SectionClassifierTest {
+
+    @Test
+    public void testClassify() {
+        assertEquals(SectionKind.CREATE_TABLE, SectionClassifier.classify("CREATE TABLE \"dba\".\"T1\" (\n\t\"ID\" integer NOT NULL\n)\ngo\n\n"));
+        assertEquals(SectionKind.CREATE_TABLE, SectionClassifier.classify("create table dba.T1 (ID integer)"));
+        assertEquals(SectionKind.CREATE_SEQUENCE, SectionClassifier.classify("CREATE SEQUENCE \"dba\".\"S1\""));
+        assertEquals(SectionKind.CREATE_INDEX, SectionClassifier.classify("CREATE INDEX \"IX1\" ON \"dba\".\"T1\" (\"ID\" ASC)"));
+        assertEquals(SectionKind.CREATE_INDEX, SectionClassifier.classify("CREATE UNIQUE INDEX \"UX1\" ON \"dba\".\"T1\" (\"ID\" ASC)"));
+        assertEquals(SectionKind.TABLE_COMMENT, SectionClassifier.classify("COMMENT ON TABLE \"dba\".\"T1\" IS 'Table'"));
+        assertEquals(SectionKind.COLUMN_COMMENT, SectionClassifier.classify("COMMENT ON COLUMN \"dba\".\"T1\".\"ID\" IS 'Column'"));
+        assertEquals(SectionKind.INDEX_COMMENT, SectionClassifier.classify("COMMENT ON INDEX \"dba\".\"T1\".\"IX1\" IS 'Index'"));
+        assertEquals(SectionKind.LOAD_TABLE, SectionClassifier.classify("LOAD TABLE \"dba\".\"T1\" (\"ID\") FROM '/unload/1.dat'"));
+        assertEquals(SectionKind.RESET_IDENTITY, SectionClassifier.classify("call dbo.sa_reset_identity('T1', 'dba', 42)"));
+    }
+
+    @Test
+    public void testClassifyAlterTable() {
+        assertEquals(SectionKind.TABLE_CONSTRAINT, SectionClassifier.classify("ALTER TABLE \"dba\".\"T1\" ADD UNIQUE (\"CODE\")"));
+        assertEquals(SectionKind.TABLE_CONSTRAINT, SectionClassifier.classify("ALTER TABLE \"dba\".\"T1\" ADD CONSTRAINT \"UK1\" UNIQUE (\"CODE\")"));
+        assertEquals(SectionKind.TABLE_CONSTRAINT, SectionClassifier.classify("ALTER TABLE dba.T1 ADD CONSTRAINT UK1 UNIQUE (CODE)"));
+        assertEquals(SectionKind.FOREIGN_KEY, SectionClassifier.classify("ALTER TABLE \"dba\".\"T2\" ADD FOREIGN KEY \"FK1\" (\"T1_ID\") REFERENCES \"dba\".\"T1\" (\"ID\")"));
+        assertEquals(SectionKind.FOREIGN_KEY, SectionClassifier.classify("ALTER TABLE \"dba\".\"T2\" ADD NOT NULL FOREIGN KEY \"FK1\" (\"T1_ID\") REFERENCES \"dba\".\"T1\" (\"ID\")"));
+        // Quoted identifier with escaped quote and spaces
+        assertEquals(SectionKind.FOREIGN_KEY, SectionClassifier.classify("ALTER TABLE \"dba\".\"My \"\"T2\"\"\" ADD FOREIGN KEY (\"ID\")"));
+    }
+
+    @Test
+    public void testClassifyWildcardPositions() {
+        // Quoted identifiers are matched only by wildcards, never by keywords
+        assertEquals(SectionKind.OTHER, SectionClassifier.classify("\"CREATE\" TABLE \"T1\""));
+        assertEquals(SectionKind.OTHER, SectionClassifier.classify("ALTER \"TABLE\" \"T1\" ADD UNIQUE (\"CODE\")"));
+        // Missing identifier at the position of the wildcard
+        assertEquals(SectionKind.OTHER, SectionClassifier.classify("ALTER TABLE ADD UNIQUE (\"CODE\")"));
+        assertEquals(SectionKind.OTHER, SectionClassifier.classify("ALTER TABLE \"T1\" ADD CONSTRAINT UNIQUE (\"CODE\")"));
+    }
+
+    @Test
+    public void testClassifyLeadingCommentsAndWhitespace() {
+        assertEquals(SectionKind.CREATE_TABLE, SectionClassifier.classify("\n\t  CREATE\n  TABLE \"T1\" (\"ID\" integer)"));
+        assertEquals(SectionKind.CREATE_TABLE, SectionClassifier.classify("-- Create tables\n// Table T1\nCREATE TABLE \"T1\" (\"ID\" integer)"));
+        assertEquals(SectionKind.CREATE_INDEX, SectionClassifier.classify("/* Index\n of T1 */ CREATE /**/ UNIQUE INDEX \"UX1\" ON \"T1\" (\"ID\")"));
+        assertEquals(SectionKind.OTHER, SectionClassifier.classify("/* Unterminated comment CREATE TABLE \"T1\""));
+        assertEquals(SectionKind.OTHER, SectionClassifier.classify("   \n"));
+    }
+
+    @Test
+    public void testClassifyOther() {
+        assertEquals(SectionKind.OTHER, SectionClassifier.classify(""));
+        assertEquals(SectionKind.OTHER, SectionClassifier.classify("GRANT CONNECT TO \"U1\""));
+        assertEquals(SectionKind.OTHER, SectionClassifier.classify("CREATE PROCEDURE \"dba\".\"P1\"()"));
+        assertEquals(SectionKind.OTHER, SectionClassifier.classify("CREATE"));
+        assertEquals(SectionKind.OTHER, SectionClassifier.classify("COMMENT ON PROCEDURE \"dba\".\"P1\" IS 'Procedure'"));
+        assertEquals(SectionKind.OTHER, SectionClassifier.classify("ALTER TABLE \"T1\" ADD PRIMARY KEY (\"ID\")"));
+        assertEquals(SectionKind.OTHER, SectionClassifier.classify("(CREATE TABLE \"T1\")"));
+    }
+
+    @Test
+    public void testLeadingKeywords() {
+        assertEquals("CREATE PROCEDURE", SectionClassifier.leadingKeywords("-- Procedure\ncreate procedure \"dba\".\"P1\"()"));
+        assertEquals("COMMIT", SectionClassifier.leadingKeywords("COMMIT"));
+        assertEquals("GRANT", SectionClassifier.leadingKeywords("GRANT \"U1\""));
+        assertEquals("?", SectionClassifier.leadingKeywords("\"dba\".\"P1\""));
+    }
+
+}
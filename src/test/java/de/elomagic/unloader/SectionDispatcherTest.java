@@ -0,0 +1,31 @@
+package de.elomagic.unloader;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SectionDispatcherTest {
+
+    @Test
+    public void testParallelDispatchKeepsOrder() {
+        List<String> sections = IntStream
+                .range(0, 5000)
+                .mapToObj(i -> (i % 3 == 0 ? "CREATE TABLE \"T" : "GRANT CONNECT TO \"U") + i + "\"\ngo\n\n")
+                .toList();
+
+        List<String> applied = new ArrayList<>();
+        SectionDispatcher dispatcher = new SectionDispatcher()
+                .on(SectionKind.CREATE_TABLE, s -> () -> applied.add(s));
+
+        dispatcher.dispatchAll(sections.stream(), 4);
+
+        assertEquals(sections.stream().filter(s -> s.startsWith("CREATE")).toList(), applied);
+        assertEquals(Long.valueOf(1667), dispatcher.getProcessedCounts().get(SectionKind.CREATE_TABLE));
+        assertEquals(Long.valueOf(3333), dispatcher.getIgnoredCounts().get("GRANT CONNECT"));
+    }
+
+}
@@ -0,0 +1,109 @@
+package de.elomagic.unloader;
+
+import de.elomagic.dto.DbDataType;
+import de.elomagic.dto.DbForeignKey;
+import de.elomagic.dto.DbSequence;
+import de.elomagic.dto.DbTable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SqlAnyDdlParserTest {
+
+    private static SqlAnyDdlParser parser(String section) {
+        return new SqlAnyDdlParser(section, t -> t.toLowerCase().startsWith("numeric") ? DbDataType.NUMERIC : DbDataType.VARCHAR);
+    }
+
+    @Test
+    public void testParseCreateTable() {
+        DbTable table = parser("""
+                CREATE TABLE "dba"."Order" (
+                    "Id"                             integer NOT NULL DEFAULT autoincrement
+                   ,"Name, first"                    varchar(20) NULL INLINE 20 PREFIX 8
+                   ,"Amount"                         numeric(10,2) NOT NULL DEFAULT 0
+                   ,"Created"                        timestamp NULL DEFAULT "DATEFORMAT"("NOW"(),'YYYY.MM.DD')
+                   ,CONSTRAINT "PK_Order" PRIMARY KEY ("Id" ASC, "Amount" ASC)
+                ) IN "system"
+                go
+                """).parseCreateTable();
+
+        assertEquals("Order", table.name);
+        assertEquals(4, table.columns.size());
+        assertTrue(table.columns.get("Id").autoinc);
+        assertTrue(table.columns.get("Id").primaryKey);
+        assertTrue(table.columns.get("Amount").primaryKey);
+        assertFalse(table.columns.get("Amount").nullable);
+        assertEquals(Integer.valueOf(10), table.columns.get("Amount").width);
+        assertEquals(Integer.valueOf(2), table.columns.get("Amount").scale);
+        assertEquals("0", table.columns.get("Amount").defaultValue);
+        assertTrue(table.columns.get("Name, first").nullable);
+        assertEquals(1, table.columns.get("Name, first").index);
+        assertEquals("\"DATEFORMAT\"(\"NOW\"(),'YYYY.MM.DD')", table.columns.get("Created").defaultValue);
+    }
+
+    @Test
+    public void testParseCreateTablePrimaryKeyOrder() {
+        DbTable table = parser("""
+                CREATE TABLE "dba"."Item" (
+                    "OrderId"                        integer NOT NULL
+                   ,"Position"                       integer NOT NULL
+                   ,"Tenant"                         integer NOT NULL
+                   ,PRIMARY KEY ("Tenant" ASC, "OrderId" ASC, "Position" ASC)
+                ) IN "system"
+                go
+                """).parseCreateTable();
+
+        // Declared order of the key instead of the column order
+        assertEquals(List.of("Tenant", "OrderId", "Position"), table.primaryKey);
+        assertEquals(List.of("Tenant", "OrderId", "Position"), table.getPrimaryKeyColumns());
+
+        DbTable inline = parser("""
+                CREATE TABLE "dba"."Customer" (
+                    "Name"                           varchar(20) NULL
+                   ,"Id"                             integer NOT NULL PRIMARY KEY
+                )
+                go
+                """).parseCreateTable();
+
+        assertEquals(List.of("Id"), inline.primaryKey);
+    }
+
+    @Test
+    public void testParseForeignKeyWithoutUpdateAction() {
+        DbForeignKey fk = parser("""
+                ALTER TABLE "dba"."Item"
+                    ADD NOT NULL FOREIGN KEY "FK_Order" ("OrderId" ASC)
+                    REFERENCES "dba"."Order" ("Id")
+                    ON DELETE CASCADE
+                go
+                """).parseForeignKey(a -> "CASCADE".equals(a) ? DbForeignKey.RefAction.CASCADE : DbForeignKey.RefAction.NO_ACTION);
+
+        assertEquals("Item", fk.tableName);
+        assertEquals("FK_Order", fk.name);
+        assertEquals("Order", fk.referenceTable);
+        assertEquals(DbForeignKey.RefAction.NO_ACTION, fk.actionOnUpdate);
+        assertEquals(DbForeignKey.RefAction.CASCADE, fk.actionOnDelete);
+    }
+
+    @Test
+    public void testParseCommentAndSequence() {
+        SqlAnyDdlParser.Comment comment = parser("COMMENT ON COLUMN \"dba\".\"Order\".\"Id\" IS\n\t'It''s the \\x41 key'\ngo\n").parseComment();
+        assertEquals("Order", comment.tableName());
+        assertEquals("Id", comment.objectName());
+        assertEquals("It's the A key", comment.comment());
+
+        DbSequence sequence = parser("CREATE SEQUENCE \"dba\".\"Seq\" INCREMENT BY 1 MINVALUE 1 MAXVALUE 9223372036854775807 START WITH 5 NO CYCLE\ngo\n").parseCreateSequence();
+        assertEquals("Seq", sequence.name);
+        assertEquals(Long.valueOf(5), sequence.startWith);
+        assertEquals(Long.valueOf(Long.MAX_VALUE), sequence.maximum);
+        assertFalse(sequence.cycle);
+        assertNull(sequence.cacheSize);
+    }
+
+}
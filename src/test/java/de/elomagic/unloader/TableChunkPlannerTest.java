@@ -0,0 +1,83 @@
+package de.elomagic.unloader;
+
+import de.elomagic.dto.DbColumn;
+import de.elomagic.dto.DbDataType;
+import de.elomagic.dto.DbTable;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TableChunkPlannerTest {
+
+    /**
+     * @return Connection which records the SQL of the statements and returns the sample "B" on every query
+     */
+    private static Connection createConnection(List<String> statements) {
+        ResultSet rs = (ResultSet)Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class[] {ResultSet.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "next" -> true;
+            case "getString" -> "B";
+            case "close" -> null;
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+        PreparedStatement statement = (PreparedStatement)Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class[] {PreparedStatement.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "executeQuery" -> rs;
+            case "close" -> null;
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+        return (Connection)Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class[] {Connection.class}, (proxy, method, args) -> {
+            if ("prepareStatement".equals(method.getName())) {
+                statements.add((String)args[0]);
+                return statement;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private static void addColumn(DbTable table, String name, DbDataType datatype) {
+        DbColumn column = new DbColumn();
+        column.index = table.columns.size();
+        column.name = name;
+        column.datatype = datatype;
+        column.primaryKey = true;
+        table.columns.put(name, column);
+    }
+
+    @Test
+    public void testPlanSampledRangesOfFirstKeyColumn() throws Exception {
+        DbTable table = new DbTable();
+        table.name = "Item";
+        addColumn(table, "OrderId", DbDataType.INTEGER);
+        addColumn(table, "Code", DbDataType.VARCHAR);
+        table.primaryKey.addAll(List.of("Code", "OrderId"));
+
+        List<String> statements = new ArrayList<>();
+        List<TableChunk> chunks = new TableChunkPlanner(10).plan(createConnection(statements), table, 20);
+
+        // Ranges of the first column of the declared key, not of the first column of the table
+        assertEquals(List.of("SELECT TOP 1 START AT 11 \"Code\" FROM \"Item\" ORDER BY \"Code\""), statements);
+        assertEquals(2, chunks.size());
+        assertEquals("\"Code\" < ?", chunks.get(0).getPredicate());
+        assertEquals(List.of("B"), chunks.get(1).getParameters());
+    }
+
+    @Test
+    public void testPlanTooSmallTable() throws Exception {
+        DbTable table = new DbTable();
+        table.name = "Item";
+        addColumn(table, "Id", DbDataType.INTEGER);
+
+        List<String> statements = new ArrayList<>();
+        assertTrue(new TableChunkPlanner(10).plan(createConnection(statements), table, 10).isEmpty());
+        assertTrue(statements.isEmpty());
+    }
+
+}
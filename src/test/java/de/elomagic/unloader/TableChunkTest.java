@@ -0,0 +1,31 @@
+package de.elomagic.unloader;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class TableChunkTest {
+
+    @Test
+    public void testSplitRange() {
+        TableChunk[] halves = TableChunk.ofRange("\"ID\"", -10, 11, 5).split();
+
+        assertEquals("\"ID\" >= -10 AND \"ID\" <= 0", halves[0].getPredicate());
+        assertEquals("\"ID\" >= 1 AND \"ID\" <= 11", halves[1].getPredicate());
+        assertEquals(-10L, halves[0].getOrder());
+        assertNull(TableChunk.ofRange("\"ID\"", 0, 8, 5).split());
+        assertNull(TableChunk.of(0, "MOD(ROWID(\"T\"), 4) = 0", List.of()).split());
+    }
+
+    @Test
+    public void testSplitWholeDomain() {
+        TableChunk[] halves = TableChunk.ofRange("\"ID\"", Long.MIN_VALUE, Long.MAX_VALUE, 1).split();
+
+        assertEquals("\"ID\" >= " + Long.MIN_VALUE + " AND \"ID\" <= -1", halves[0].getPredicate());
+        assertEquals(0L, halves[1].getOrder());
+    }
+
+}
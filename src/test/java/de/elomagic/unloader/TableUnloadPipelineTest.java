@@ -0,0 +1,238 @@
+package de.elomagic.unloader;
+
+import de.elomagic.codec.BinaryOutput;
+import de.elomagic.codec.BinaryRowEncoder;
+import de.elomagic.codec.ColumnVector;
+import de.elomagic.codec.ValueCodec;
+import de.elomagic.codec.ValueCodecs;
+import de.elomagic.dto.DbColumn;
+import de.elomagic.dto.DbDataType;
+import de.elomagic.dto.DbTable;
+import de.elomagic.dto.DbTableContent;
+import de.elomagic.loader.PostgresLoader;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.sql.ResultSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TableUnloadPipelineTest {
+
+    private static ResultSet createResultSet(int rows) {
+        int[] row = {0};
+        return (ResultSet)Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class[] {ResultSet.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "next" -> ++row[0] <= rows;
+            case "getLong" -> (long)row[0];
+            case "wasNull" -> false;
+            case "getString" -> row[0] % 7 == 0 ? null : "Grüße 😀" + row[0];
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private static TableUnloadPipeline createTextPipeline() {
+        ValueCodec[] codecs = {ValueCodecs.ofLong(), ValueCodecs.ofString(v -> v)};
+        return new TableUnloadPipeline(codecs, (vectors, row, out, flush) -> {
+            codecs[0].encode(vectors[0], row, out);
+            out.append(',');
+            if (vectors[1].nulls[row]) {
+                out.append("null");
+            } else {
+                codecs[1].encode(vectors[1], row, out);
+            }
+            out.append('\n');
+        }, StandardCharsets.UTF_8, 100, 3);
+    }
+
+    private static String createExpectedText(int rows) {
+        StringBuilder expected = new StringBuilder();
+        for (int i = 1; i <= rows; i++) {
+            expected.append(i).append(',').append(i % 7 == 0 ? null : "Grüße 😀" + i).append('\n');
+        }
+        return expected.toString();
+    }
+
+    @Test
+    public void testRun() throws Exception {
+        Path file = Files.createTempFile("pipeline", ".dat");
+
+        long count = createTextPipeline().run(createResultSet(2500), file);
+
+        assertEquals(2500L, count);
+        assertEquals(createExpectedText(2500), Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testRunCompressed() throws Exception {
+        Path file = Files.createTempFile("pipeline", ".dat.gz");
+
+        long count = createTextPipeline().withCompression(OutputCompression.GZIP).run(createResultSet(25000), file);
+
+        assertEquals(25000L, count);
+        try (GZIPInputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            assertEquals(createExpectedText(25000), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testOfTargetText() throws Exception {
+        DbTable table = new DbTable();
+        table.name = "T1";
+        table.content = new DbTableContent();
+        table.content.encoding = StandardCharsets.UTF_8;
+
+        DbColumn id = new DbColumn();
+        id.name = "id";
+        id.datatype = DbDataType.INTEGER;
+        DbColumn text = new DbColumn();
+        text.name = "text";
+        text.datatype = DbDataType.VARCHAR;
+        text.nullable = true;
+
+        int[] row = {0};
+        ResultSet rs = (ResultSet)Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class[] {ResultSet.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "next" -> ++row[0] <= 2;
+            case "getLong" -> (long)row[0];
+            case "getString" -> row[0] == 1 ? "He said \"hi\", C:\\temp" : null;
+            case "wasNull" -> false;
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TableUnloadPipeline.ofTargetText(table, List.of(id, text), new PostgresLoader()).run(rs, Channels.newChannel(out));
+
+        // COPY TEXT of PostgreSQL instead of the quoted values of SQLAnywhere
+        assertEquals("1,He said \\\"hi\\\"\\, C:\\\\temp\n2,\\N\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testRunIntoChannel() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WritableByteChannel channel = Channels.newChannel(out);
+
+        long count = createTextPipeline().run(createResultSet(2500), channel);
+
+        assertEquals(2500L, count);
+        assertTrue(channel.isOpen());
+        assertEquals(createExpectedText(2500), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testRunSharded() throws Exception {
+        Path file = Files.createTempDirectory("pipeline").resolve("table.dat");
+
+        TableUnloadPipeline pipeline = createTextPipeline().withShardLimits(0, 1000);
+        long count = pipeline.run(createResultSet(2500), file);
+
+        assertEquals(2500L, count);
+        assertEquals(3, pipeline.getFiles().size());
+        assertEquals(TableUnloadPipeline.getShardFile(file, 2), pipeline.getFiles().get(2));
+        assertEquals("table.002.dat", pipeline.getFiles().get(2).getFileName().toString());
+
+        StringBuilder text = new StringBuilder();
+        for (Path shard : pipeline.getFiles()) {
+            text.append(Files.readString(shard, StandardCharsets.UTF_8));
+        }
+        assertEquals(createExpectedText(2500), text.toString());
+        assertEquals(createExpectedText(1000), Files.readString(pipeline.getFiles().get(0), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testRunShardedBySize() throws Exception {
+        Path file = Files.createTempDirectory("pipeline").resolve("table.dat.gz");
+
+        TableUnloadPipeline pipeline = createTextPipeline().withCompression(OutputCompression.GZIP).withShardLimits(10_000, 0);
+        pipeline.run(createResultSet(2500), file);
+
+        StringBuilder text = new StringBuilder();
+        for (Path shard : pipeline.getFiles()) {
+            try (GZIPInputStream in = new GZIPInputStream(Files.newInputStream(shard))) {
+                String shardText = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                assertTrue(shardText.getBytes(StandardCharsets.UTF_8).length < 10_100);
+                text.append(shardText);
+            }
+        }
+        assertTrue(pipeline.getFiles().size() > 1);
+        assertEquals(createExpectedText(2500), text.toString());
+    }
+
+    @Test
+    public void testRunFanOut() throws Exception {
+        Path directory = Files.createTempDirectory("pipeline");
+        Path file = directory.resolve("table.dat");
+        Path compressedFile = directory.resolve("table.dat.gz");
+        ContentManifest manifest = new ContentManifest();
+
+        List<ContentSink> sinks = List.of(
+                ContentSinks.withDigest(ContentSinks.ofFile(file, OutputCompression.NONE), manifest),
+                ContentSinks.withDigest(ContentSinks.ofFile(compressedFile, OutputCompression.GZIP), manifest));
+        long count = createTextPipeline().run(createResultSet(25000), sinks);
+
+        assertEquals(25000L, count);
+        String expected = createExpectedText(25000);
+        assertEquals(expected, Files.readString(file, StandardCharsets.UTF_8));
+        try (GZIPInputStream in = new GZIPInputStream(Files.newInputStream(compressedFile))) {
+            assertEquals(expected, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        Path manifestFile = directory.resolve("manifest.sha256");
+        manifest.write(manifestFile);
+        // Checksums of the written files, verifiable by sha256sum -c
+        String checksum = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file)));
+        String compressedChecksum = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(compressedFile)));
+        assertEquals(checksum + "  table.dat\n" + compressedChecksum + "  table.dat.gz\n", Files.readString(manifestFile));
+    }
+
+    @Test
+    public void testRunBinary() throws Exception {
+        Path file = Files.createTempFile("pipeline", ".dat");
+
+        ValueCodec[] codecs = {ValueCodecs.ofLong()};
+        TableUnloadPipeline pipeline = new TableUnloadPipeline(new BinaryRowEncoder() {
+            @Override
+            public ValueCodec[] getCodecs() {
+                return codecs;
+            }
+
+            @Override
+            public void writeHeader(BinaryOutput out) {
+                out.put((byte)'H');
+            }
+
+            @Override
+            public void encode(ColumnVector[] columns, int row, BinaryOutput out) {
+                out.putLong(columns[0].longs[row]);
+            }
+
+            @Override
+            public void writeTrailer(BinaryOutput out) {
+                out.put((byte)'T');
+            }
+        }, 100, 3);
+        long count = pipeline.run(createResultSet(2500), file);
+
+        ByteBuffer expected = ByteBuffer.allocate(2 + 2500 * 8).put((byte)'H');
+        for (int i = 1; i <= 2500; i++) {
+            expected.putLong(i);
+        }
+        expected.put((byte)'T');
+
+        assertEquals(2500L, count);
+        assertArrayEquals(expected.array(), Files.readAllBytes(file));
+    }
+
+}
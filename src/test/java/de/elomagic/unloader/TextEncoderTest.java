@@ -0,0 +1,38 @@
+package de.elomagic.unloader;
+
+import de.elomagic.AppRuntimeException;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TextEncoderTest {
+
+    private static byte[] encode(Charset charset, String text) {
+        ByteBuffer buffer = new TextEncoder(charset).encode(text, ByteBuffer.allocateDirect(4));
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    @Test
+    public void testEncode() {
+        String text = "a,\"b\"\n Grüße 世界 😀 €";
+
+        assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), encode(StandardCharsets.UTF_8, text));
+        assertArrayEquals("abc €".getBytes(Charset.forName("windows-1252")), encode(Charset.forName("windows-1252"), "abc €"));
+        assertArrayEquals(text.getBytes(StandardCharsets.UTF_16LE), encode(StandardCharsets.UTF_16LE, text));
+    }
+
+    @Test
+    public void testUnmappable() {
+        assertThrows(AppRuntimeException.class, () -> encode(StandardCharsets.UTF_8, "a\uD83D"));
+        assertThrows(AppRuntimeException.class, () -> encode(StandardCharsets.ISO_8859_1, "a世"));
+    }
+
+}
@@ -0,0 +1,113 @@
+package de.elomagic.unloader;
+
+import de.elomagic.AppRuntimeException;
+import de.elomagic.ConnectionPool;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UnloadExecutorTest {
+
+    private static final int POOL_SIZE = 2;
+
+    private static ConnectionPool createPool(int size) {
+        return new ConnectionPool(() -> (Connection)Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class[] {Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "isValid" -> true;
+            case "isClosed" -> false;
+            default -> null;
+        }), size);
+    }
+
+    /**
+     * Runs tables of which every table invokes its chunks, like the unloader does.
+     *
+     * @return Max count of concurrently running chunks
+     */
+    private static int runNested(UnloadExecutor.Mode mode, int poolSize, ConcurrentLinkedQueue<String> log) throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        try (ConnectionPool pool = createPool(poolSize); UnloadExecutor executor = new UnloadExecutor(mode, pool)) {
+            List<Runnable> tables = IntStream.range(0, 4).<Runnable>mapToObj(table -> () -> executor.invokeAll(IntStream.range(0, 3).<Runnable>mapToObj(chunk -> () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                log.add(table + "." + chunk);
+                running.decrementAndGet();
+            }).toList())).toList();
+
+            // Waiting threads of a pool without free threads must not block the run
+            CompletableFuture.runAsync(() -> executor.invokeAll(tables)).get(30, TimeUnit.SECONDS);
+        }
+
+        return maxRunning.get();
+    }
+
+    @Test
+    public void testForkJoin() throws Exception {
+        ConcurrentLinkedQueue<String> log = new ConcurrentLinkedQueue<>();
+        assertTrue(runNested(UnloadExecutor.Mode.FORK_JOIN, POOL_SIZE, log) <= POOL_SIZE);
+        assertEquals(12, log.size());
+    }
+
+    @Test
+    public void testPlatform() throws Exception {
+        ConcurrentLinkedQueue<String> log = new ConcurrentLinkedQueue<>();
+        assertTrue(runNested(UnloadExecutor.Mode.PLATFORM, POOL_SIZE, log) <= POOL_SIZE);
+        assertEquals(12, log.size());
+
+        log.clear();
+        assertEquals(1, runNested(UnloadExecutor.Mode.PLATFORM, 1, log));
+        assertEquals(12, log.size());
+    }
+
+    @Test
+    public void testVirtual() throws Exception {
+        try (ConnectionPool pool = createPool(POOL_SIZE); UnloadExecutor executor = new UnloadExecutor(UnloadExecutor.Mode.VIRTUAL, pool)) {
+            assertEquals(Runtime.version().feature() >= 21 ? UnloadExecutor.Mode.VIRTUAL : UnloadExecutor.Mode.PLATFORM, executor.getMode());
+        }
+
+        ConcurrentLinkedQueue<String> log = new ConcurrentLinkedQueue<>();
+        runNested(UnloadExecutor.Mode.VIRTUAL, POOL_SIZE, log);
+        assertEquals(12, log.size());
+    }
+
+    @Test
+    public void testInvokeAllFailure() {
+        ConcurrentLinkedQueue<String> log = new ConcurrentLinkedQueue<>();
+
+        try (ConnectionPool pool = createPool(POOL_SIZE); UnloadExecutor executor = new UnloadExecutor(UnloadExecutor.Mode.PLATFORM, pool)) {
+            AppRuntimeException ex = assertThrows(AppRuntimeException.class, () -> executor.invokeAll(List.of(
+                    () -> { throw new AppRuntimeException("Failed"); },
+                    () -> log.add("other"))));
+
+            assertEquals("Failed", ex.getMessage());
+        }
+
+        // The failure is thrown after all tasks are finished
+        assertEquals(List.of("other"), List.copyOf(log));
+    }
+
+    @Test
+    public void testParse() {
+        assertEquals(UnloadExecutor.Mode.FORK_JOIN, UnloadExecutor.Mode.parse("fork-join"));
+        assertEquals(UnloadExecutor.Mode.PLATFORM, UnloadExecutor.Mode.parse(" Platform "));
+        assertThrows(AppRuntimeException.class, () -> UnloadExecutor.Mode.parse("cached"));
+    }
+
+}
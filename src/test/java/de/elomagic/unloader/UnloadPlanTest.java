@@ -0,0 +1,56 @@
+package de.elomagic.unloader;
+
+import de.elomagic.dto.DbTable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class UnloadPlanTest {
+
+    private static DbTable table(String name, long rows, long pages) {
+        DbTable table = new DbTable();
+        table.name = name;
+        table.rowCount = rows;
+        table.pageCount = pages;
+        return table;
+    }
+
+    @Test
+    public void testLongestFirst() {
+        UnloadPlan plan = UnloadPlan.create(List.of(
+                table("A", 10, 3),
+                table("B", 10, 7),
+                table("C", 500, 0),
+                table("D", 10, 5),
+                table("E", 10, 5)), 2);
+
+        assertEquals(List.of("C", "B", "D", "E", "A"), plan.getTables().stream().map(t -> t.name).toList());
+        // 2 rows per page, so C=250 pages on worker 0; B, D, E and A on worker 1
+        assertEquals(250L, plan.getCriticalPath());
+    }
+
+    @Test
+    public void testRowsAsPages() {
+        // 100 rows per page, so the 50000 rows of B are 500 pages
+        UnloadPlan plan = UnloadPlan.create(List.of(
+                table("A", 100_000, 1000),
+                table("B", 50_000, 0)), 1);
+
+        assertEquals(List.of("A", "B"), plan.getTables().stream().map(t -> t.name).toList());
+        assertEquals(1500L, plan.getCriticalPath());
+    }
+
+    @Test
+    public void testRowsWithoutPages() {
+        UnloadPlan plan = UnloadPlan.create(List.of(
+                table("A", 10, 0),
+                table("B", 20, 0)), 1);
+
+        assertEquals(List.of("B", "A"), plan.getTables().stream().map(t -> t.name).toList());
+        assertEquals(30L, plan.getCriticalPath());
+    }
+
+}